@@ -0,0 +1,159 @@
+package com.resourcemonitor;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.java.JavaPluginLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+// The plugin enabled against a stubbed server, so the benchmarks run the
+// real render, sampling and session code on a machine without Minecraft.
+// Without a SimulatedScheduler scheduled tasks are never run. Bukkit only
+// takes one server per JVM, so every benchmark in a fork shares this one.
+final class BenchServer {
+    
+    private static final Logger LOGGER = Logger.getLogger("BenchServer");
+    private static final double[] TPS = { 19.94, 19.81, 19.88, 19.9 };
+    private static final double[] MSPT = { 38.2, 41.5, 36.9, 35.4 };
+    // A container with a 4 core quota, lightly throttled, and a 12 GiB limit
+    private static final ContainerUsage CONTAINER = new ContainerUsage(true, 4.0, 1.5, 37.5, 0.8, 2.1, 12_345,
+            9_500_000_000L, 10_200_000_000L, 12_884_901_888L);
+    
+    private static final Map<UUID, Player> online = new ConcurrentHashMap<>();
+    private static final Collection<Player> onlineView = Collections.unmodifiableCollection(online.values());
+    private static final LongAdder slotUpdates = new LongAdder();
+    
+    private static Main plugin;
+    private static SimulatedScheduler scheduler;
+    
+    private BenchServer() {}
+    
+    static synchronized Main plugin() {
+        return plugin(null);
+    }
+    
+    // The scheduler only counts if this is the first call in the JVM
+    static synchronized Main plugin(SimulatedScheduler simulatedScheduler) {
+        if (plugin == null) {
+            scheduler = simulatedScheduler;
+            plugin = enable();
+        }
+        return plugin;
+    }
+    
+    private static Main enable() {
+        Server server = Stubs.of(Server.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getLogger": return LOGGER;
+                case "getName": return "BenchServer";
+                case "getVersion": return "git-Spigot-bench (MC: 1.13.2)";
+                case "getBukkitVersion": return "1.13.2-R0.1-SNAPSHOT";
+                case "getMaxPlayers": return 500;
+                case "getViewDistance": return 10;
+                case "isPrimaryThread": return true;
+                case "getPluginCommand": return command((String) args[0]);
+                case "getOnlinePlayers": return onlineView;
+                case "getPlayer": return args[0] instanceof UUID ? online.get(args[0]) : null;
+                case "getScheduler": return scheduler != null ? scheduler.getScheduler() : Stubs.DEFAULT;
+                case "createInventory":
+                    if (args.length == 3 && args[1] instanceof Integer) {
+                        return inventory((Integer) args[1], (String) args[2]);
+                    }
+                    return Stubs.DEFAULT;
+                default: return Stubs.DEFAULT;
+            }
+        });
+        Bukkit.setServer(server);
+        
+        try {
+            File dataFolder = Files.createTempDirectory("resourcemonitor-bench").toFile();
+            Main main = new Main(new JavaPluginLoader(server),
+                    new PluginDescriptionFile("ResourceMonitor", "1.0.0", Main.class.getName()),
+                    dataFolder, new File(dataFolder, "ResourceMonitor.jar"));
+            plugin = main;
+            
+            // No background threads or disk writes competing with the measurement
+            main.getConfig().set("history.enabled", false);
+            main.getConfig().set("spikes.enabled", false);
+            main.getConfig().set("alerts.enabled", false);
+            main.onEnable();
+            return main;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not create a data folder", e);
+        }
+    }
+    
+    // JavaPlugin.getCommand only accepts a command owned by the plugin
+    private static PluginCommand command(String name) throws ReflectiveOperationException {
+        Constructor<PluginCommand> constructor = PluginCommand.class.getDeclaredConstructor(String.class, Plugin.class);
+        constructor.setAccessible(true);
+        return constructor.newInstance(name, plugin);
+    }
+    
+    static Player player(int index) {
+        return new Viewer(index).getPlayer();
+    }
+    
+    static void join(Viewer viewer) {
+        online.put(viewer.getId(), viewer.getPlayer());
+    }
+    
+    static void quit(Viewer viewer) {
+        online.remove(viewer.getId());
+    }
+    
+    // Keeps its items so the GUI reads back what it set; every setItem is
+    // counted as a slot update sent to the client
+    static Inventory inventory(int size, String title) {
+        ItemStack[] contents = new ItemStack[size];
+        return Stubs.of(Inventory.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getSize": return size;
+                case "getTitle": return title;
+                case "getName": return title;
+                case "getContents": return contents.clone();
+                case "getItem": return contents[(int) args[0]];
+                case "setItem":
+                    contents[(int) args[0]] = (ItemStack) args[1];
+                    slotUpdates.increment();
+                    return null;
+                case "clear":
+                    if (args == null) {
+                        Arrays.fill(contents, null);
+                    }
+                    return null;
+                default: return Stubs.DEFAULT;
+            }
+        });
+    }
+    
+    static long getSlotUpdates() {
+        return slotUpdates.sum();
+    }
+    
+    // A busy but healthy server; a new timestamp makes a snapshot the
+    // renderers haven't seen yet
+    static MetricsSnapshot snapshot(long timestamp) {
+        return new MetricsSnapshot(timestamp, 37.5, 2.4, 8,
+                3_200_000_000L, 900_000_000L, 4_100_000_000L, 8_000_000_000L,
+                120, 500, 3, 9_800, 42_000, 38, 37,
+                TPS, MSPT, 31.2, 48.9, 63.0, 112.4, CONTAINER);
+    }
+}
@@ -0,0 +1,181 @@
+package com.resourcemonitor;
+
+import org.bukkit.entity.Player;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+// Enables the plugin on a simulated server and measures what N viewers cost
+// while every one of them has the GUI open with auto-refresh on and the
+// overlay enabled. Runs anywhere Java does, no Minecraft server needed:
+//
+//   java -cp target/benchmarks.jar com.resourcemonitor.LoadSimulation 50 200 500
+//
+// -Dticks=1200 and -Dwarmup=400 set the measured and discarded ticks per
+// viewer count, -Dunpaced=true runs ticks back to back instead of every 50ms.
+public final class LoadSimulation {
+    
+    private static final long TICK_NANOS = 50_000_000L;
+    
+    private final SimulatedScheduler scheduler;
+    private final ResourceMonitorGUI gui;
+    private final List<Viewer> viewers = new ArrayList<>();
+    private final com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final boolean paced;
+    
+    private LoadSimulation(SimulatedScheduler scheduler, Main plugin, boolean paced) {
+        this.scheduler = scheduler;
+        this.gui = plugin.getGUI();
+        this.paced = paced;
+    }
+    
+    public static void main(String[] args) {
+        int ticks = Integer.getInteger("ticks", 1200);
+        int warmup = Integer.getInteger("warmup", 400);
+        boolean paced = !Boolean.getBoolean("unpaced");
+        int[] counts = args.length == 0
+                ? new int[] { 50, 200, 500 }
+                : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        
+        SimulatedScheduler scheduler = new SimulatedScheduler();
+        Main plugin = BenchServer.plugin(scheduler);
+        LoadSimulation simulation = new LoadSimulation(scheduler, plugin, paced);
+        
+        System.out.println("Simulating " + ticks + " ticks per run after " + warmup + " warmup ticks" +
+                (paced ? ", 50ms apart" : ", back to back"));
+        System.out.printf("%8s %10s %10s %10s %12s %12s %12s %11s %11s %10s %12s %12s%n",
+                "viewers", "main ms", "main p99", "main max", "main KB/t", "async ms/t", "async KB/t",
+                "sync/tick", "async/tick", "scheduled", "slots/tick", "actionbar/t");
+        for (int count : counts) {
+            simulation.setViewers(count);
+            simulation.run(warmup);
+            System.out.println(simulation.measure(ticks).format(count));
+        }
+        
+        if (scheduler.getFailures() > 0) {
+            System.out.println(scheduler.getFailures() + " task runs threw, the first:");
+            scheduler.getFirstFailure().printStackTrace(System.out);
+        }
+        scheduler.shutdown();
+    }
+    
+    // Joins or removes viewers until there are this many watching
+    private void setViewers(int count) {
+        while (viewers.size() < count) {
+            Viewer viewer = new Viewer(viewers.size());
+            BenchServer.join(viewer);
+            viewers.add(viewer);
+            
+            Player player = viewer.getPlayer();
+            gui.openGUI(player);
+            gui.toggleAutoRefresh(player);
+            gui.enableOverlay(player);
+        }
+        while (viewers.size() > count) {
+            Viewer viewer = viewers.remove(viewers.size() - 1);
+            gui.disableOverlay(viewer.getPlayer());
+            gui.endSession(viewer.getId());
+            BenchServer.quit(viewer);
+        }
+    }
+    
+    private void run(int ticks) {
+        long next = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            scheduler.tick();
+            next = pace(next);
+        }
+    }
+    
+    private long pace(long next) {
+        if (!paced) return next;
+        next += TICK_NANOS;
+        long wait = next - System.nanoTime();
+        if (wait > 0) {
+            LockSupport.parkNanos(wait);
+        }
+        return next;
+    }
+    
+    private Result measure(int ticks) {
+        long mainThread = Thread.currentThread().getId();
+        long[] tickNanos = new long[ticks];
+        
+        long syncRuns = scheduler.getSyncRuns();
+        long asyncRuns = scheduler.getAsyncRuns();
+        long asyncNanos = scheduler.getAsyncNanos();
+        long slots = BenchServer.getSlotUpdates();
+        long actionBars = countActionBars();
+        long mainAllocated = threadBean.getThreadAllocatedBytes(mainThread);
+        long asyncAllocated = asyncAllocated();
+        
+        long next = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            tickNanos[i] = scheduler.tick();
+            next = pace(next);
+        }
+        
+        Result result = new Result();
+        Arrays.sort(tickNanos);
+        long total = 0;
+        for (long nanos : tickNanos) {
+            total += nanos;
+        }
+        result.mainMean = total / (double) ticks / 1_000_000.0;
+        result.mainP99 = tickNanos[Math.min(ticks - 1, (int) Math.ceil(ticks * 0.99) - 1)] / 1_000_000.0;
+        result.mainMax = tickNanos[ticks - 1] / 1_000_000.0;
+        result.mainBytes = (threadBean.getThreadAllocatedBytes(mainThread) - mainAllocated) / (double) ticks;
+        result.asyncMillis = (scheduler.getAsyncNanos() - asyncNanos) / (double) ticks / 1_000_000.0;
+        result.asyncBytes = (asyncAllocated() - asyncAllocated) / (double) ticks;
+        result.syncRuns = (scheduler.getSyncRuns() - syncRuns) / (double) ticks;
+        result.asyncRuns = (scheduler.getAsyncRuns() - asyncRuns) / (double) ticks;
+        result.scheduled = scheduler.getScheduledCount();
+        result.slots = (BenchServer.getSlotUpdates() - slots) / (double) ticks;
+        result.actionBars = (countActionBars() - actionBars) / (double) ticks;
+        return result;
+    }
+    
+    private long countActionBars() {
+        long total = 0;
+        for (Viewer viewer : viewers) {
+            total += viewer.getActionBars();
+        }
+        return total;
+    }
+    
+    // Threads the pool has let go since the last call are missed
+    private long asyncAllocated() {
+        long total = 0;
+        for (long bytes : threadBean.getThreadAllocatedBytes(scheduler.getAsyncThreadIds())) {
+            if (bytes > 0) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+    
+    // Figures per simulated tick
+    private static final class Result {
+        double mainMean;
+        double mainP99;
+        double mainMax;
+        double mainBytes;
+        double asyncMillis;
+        double asyncBytes;
+        double syncRuns;
+        double asyncRuns;
+        int scheduled;
+        double slots;
+        double actionBars;
+        
+        String format(int viewers) {
+            return String.format("%8d %10.3f %10.3f %10.3f %12.1f %12.3f %12.1f %11.1f %11.1f %10d %12.1f %12.1f",
+                    viewers, mainMean, mainP99, mainMax, mainBytes / 1024, asyncMillis, asyncBytes / 1024,
+                    syncRuns, asyncRuns, scheduled, slots, actionBars);
+        }
+    }
+}
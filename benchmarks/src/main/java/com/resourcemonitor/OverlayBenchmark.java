@@ -0,0 +1,38 @@
+package com.resourcemonitor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// The action bar text, built once per overlay refresh
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OverlayBenchmark {
+    
+    private ResourceMonitorGUI gui;
+    private MetricsSnapshot snapshot;
+    
+    @Setup
+    public void setup() {
+        gui = BenchServer.plugin().getGUI();
+        snapshot = BenchServer.snapshot(1);
+    }
+    
+    @Benchmark
+    public String overlayText() {
+        return gui.buildOverlayText(snapshot);
+    }
+}
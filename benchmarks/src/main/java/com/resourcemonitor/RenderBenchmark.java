@@ -0,0 +1,52 @@
+package com.resourcemonitor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// The data items of the main window: the CPU, memory, server, performance,
+// plugin and spike views with all of their lore, per window size
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderBenchmark {
+    
+    @Param({ "54", "36", "27", "18" })
+    int windowSize;
+    
+    private ResourceMonitorGUI gui;
+    private MetricsSnapshot snapshot;
+    private long timestamp;
+    
+    @Setup
+    public void setup() {
+        gui = BenchServer.plugin().getGUI();
+        snapshot = BenchServer.snapshot(0);
+    }
+    
+    // A snapshot nobody has rendered yet: the cost of the first viewer after each sample
+    @Benchmark
+    public Map<Integer, ItemView> renderNewSnapshot() {
+        return gui.renderDataItems(windowSize, BenchServer.snapshot(++timestamp));
+    }
+    
+    // The same snapshot again: the cost of every other viewer
+    @Benchmark
+    public Map<Integer, ItemView> renderCachedSnapshot() {
+        return gui.renderDataItems(windowSize, snapshot);
+    }
+}
@@ -0,0 +1,77 @@
+package com.resourcemonitor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.concurrent.TimeUnit;
+
+// A full metrics sample and the calls it is made of, plus the per-tick
+// recording that runs on the main thread
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SamplingBenchmark {
+    
+    private MetricsSampler sampler;
+    private TickMonitor tickMonitor;
+    private OperatingSystemMXBean osBean;
+    
+    @Setup
+    public void setup() {
+        Main plugin = BenchServer.plugin();
+        sampler = plugin.getMetricsSampler();
+        tickMonitor = plugin.getTickMonitor();
+        osBean = ManagementFactory.getOperatingSystemMXBean();
+        
+        // Fill the 15 minute window so the rolling sums subtract as on a live server
+        for (int i = 0; i < 18_000; i++) {
+            tickMonitor.run();
+        }
+    }
+    
+    @Benchmark
+    public MetricsSnapshot sample() {
+        sampler.sample();
+        return sampler.getSnapshot();
+    }
+    
+    @Benchmark
+    public double processCpuLoad() {
+        return ((com.sun.management.OperatingSystemMXBean) osBean).getProcessCpuLoad();
+    }
+    
+    @Benchmark
+    public double systemLoadAverage() {
+        return osBean.getSystemLoadAverage();
+    }
+    
+    @Benchmark
+    public long heapUsed() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+    
+    @Benchmark
+    public double msptPercentile() {
+        return tickMonitor.getMsptPercentile(0.95);
+    }
+    
+    @Benchmark
+    public long recordTick() {
+        tickMonitor.run();
+        return tickMonitor.getTickCount();
+    }
+}
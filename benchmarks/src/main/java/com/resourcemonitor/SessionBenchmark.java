@@ -0,0 +1,72 @@
+package com.resourcemonitor;
+
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// The per-player maps: window state, overlay subscriptions and welcome
+// flags, with this many viewers known to the plugin
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionBenchmark {
+    
+    @Param({ "50", "500" })
+    int viewers;
+    
+    private ResourceMonitorGUI gui;
+    private SessionRegistry sessions;
+    private Player[] players;
+    private int next;
+    
+    @Setup
+    public void setup() {
+        Main plugin = BenchServer.plugin();
+        gui = plugin.getGUI();
+        sessions = plugin.getSessions();
+        players = new Player[viewers];
+        for (int i = 0; i < viewers; i++) {
+            players[i] = BenchServer.player(i);
+            gui.openGUI(players[i]);
+        }
+    }
+    
+    private Player nextPlayer() {
+        Player player = players[next];
+        next = next + 1 == players.length ? 0 : next + 1;
+        return player;
+    }
+    
+    // Opening the monitor on a fresh session and closing it again
+    @Benchmark
+    public Player openAndEndSession() {
+        Player player = nextPlayer();
+        gui.endSession(player.getUniqueId());
+        gui.openGUI(player);
+        return player;
+    }
+    
+    @Benchmark
+    public boolean overlayLookup() {
+        return gui.isOverlayActive(nextPlayer());
+    }
+    
+    @Benchmark
+    public boolean welcomeLookup() {
+        return sessions.hasSeenWelcome(nextPlayer());
+    }
+}
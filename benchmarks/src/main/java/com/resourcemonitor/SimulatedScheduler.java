@@ -0,0 +1,229 @@
+package com.resourcemonitor;
+
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// A BukkitScheduler driven by tick(), working like CraftScheduler: sync
+// tasks run on the thread calling tick() and async tasks are handed to a
+// cached thread pool when they come due. Tasks keep their work in a plain
+// Runnable field as CraftTask does, so the plugin profiler wraps them here too.
+final class SimulatedScheduler {
+    
+    private final BukkitScheduler scheduler;
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final Queue<SimulatedTask> added = new ConcurrentLinkedQueue<>();
+    private final List<SimulatedTask> pending = new ArrayList<>(); // tick thread only
+    private final Map<Integer, SimulatedTask> tasks = new ConcurrentHashMap<>();
+    private final ExecutorService asyncPool;
+    private final Set<Long> asyncThreadIds = ConcurrentHashMap.newKeySet();
+    
+    private volatile long currentTick;
+    private long syncRuns;
+    private final LongAdder asyncRuns = new LongAdder();
+    private final LongAdder asyncNanos = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private volatile Throwable firstFailure;
+    
+    final class SimulatedTask implements BukkitTask {
+        private final int id;
+        private final Plugin owner;
+        private final boolean sync;
+        private final long period;
+        private Runnable runnable;
+        private Consumer<BukkitTask> consumer;
+        private long nextRun;
+        private volatile boolean cancelled;
+        
+        SimulatedTask(Plugin owner, Object work, boolean sync, long delay, long period) {
+            this.id = nextId.getAndIncrement();
+            this.owner = owner;
+            this.sync = sync;
+            this.period = period;
+            this.nextRun = currentTick + Math.max(1, delay);
+            if (work instanceof Runnable) {
+                this.runnable = (Runnable) work;
+            } else {
+                @SuppressWarnings("unchecked")
+                Consumer<BukkitTask> c = (Consumer<BukkitTask>) work;
+                this.consumer = c;
+            }
+        }
+        
+        @Override
+        public int getTaskId() {
+            return id;
+        }
+        
+        @Override
+        public Plugin getOwner() {
+            return owner;
+        }
+        
+        @Override
+        public boolean isSync() {
+            return sync;
+        }
+        
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+        
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+        
+        void execute() {
+            try {
+                if (runnable != null) {
+                    runnable.run();
+                } else {
+                    consumer.accept(this);
+                }
+            } catch (Throwable t) {
+                failures.increment();
+                if (firstFailure == null) {
+                    firstFailure = t;
+                }
+            }
+        }
+    }
+    
+    SimulatedScheduler() {
+        AtomicInteger threads = new AtomicInteger();
+        this.asyncPool = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "Simulated Scheduler Thread - " + threads.incrementAndGet());
+            thread.setDaemon(true);
+            asyncThreadIds.add(thread.getId());
+            return thread;
+        });
+        this.scheduler = Stubs.of(BukkitScheduler.class, this::answer);
+    }
+    
+    BukkitScheduler getScheduler() {
+        return scheduler;
+    }
+    
+    private Object answer(Method method, Object[] args) {
+        switch (method.getName()) {
+            case "runTask": return schedule(args, true, 0, 0);
+            case "runTaskAsynchronously": return schedule(args, false, 0, 0);
+            case "runTaskLater": return schedule(args, true, (long) args[2], 0);
+            case "runTaskLaterAsynchronously": return schedule(args, false, (long) args[2], 0);
+            case "runTaskTimer": return schedule(args, true, (long) args[2], (long) args[3]);
+            case "runTaskTimerAsynchronously": return schedule(args, false, (long) args[2], (long) args[3]);
+            case "cancelTask":
+                SimulatedTask task = tasks.get((int) args[0]);
+                if (task != null) {
+                    task.cancel();
+                }
+                return null;
+            case "cancelTasks":
+                for (SimulatedTask t : tasks.values()) {
+                    if (t.owner == args[0]) {
+                        t.cancel();
+                    }
+                }
+                return null;
+            case "isQueued": return tasks.containsKey((int) args[0]);
+            case "getPendingTasks": return new ArrayList<BukkitTask>(tasks.values());
+            default: return Stubs.DEFAULT;
+        }
+    }
+    
+    private SimulatedTask schedule(Object[] args, boolean sync, long delay, long period) {
+        SimulatedTask task = new SimulatedTask((Plugin) args[0], args[1], sync, delay, period);
+        tasks.put(task.id, task);
+        added.add(task);
+        return task;
+    }
+    
+    // Runs one server tick and returns the nanoseconds the main thread spent
+    // in scheduled tasks, including handing async tasks to the pool
+    long tick() {
+        long tick = ++currentTick;
+        for (SimulatedTask task; (task = added.poll()) != null; ) {
+            pending.add(task);
+        }
+        
+        long start = System.nanoTime();
+        Iterator<SimulatedTask> it = pending.iterator();
+        while (it.hasNext()) {
+            SimulatedTask task = it.next();
+            if (!task.cancelled && task.nextRun <= tick) {
+                if (task.sync) {
+                    task.execute();
+                    syncRuns++;
+                } else {
+                    asyncPool.execute(() -> runAsync(task));
+                }
+                if (task.period > 0) {
+                    task.nextRun = tick + task.period;
+                } else {
+                    task.cancelled = true;
+                }
+            }
+            if (task.cancelled) {
+                it.remove();
+                tasks.remove(task.id);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+    
+    private void runAsync(SimulatedTask task) {
+        long start = System.nanoTime();
+        task.execute();
+        asyncNanos.add(System.nanoTime() - start);
+        asyncRuns.increment();
+    }
+    
+    long getSyncRuns() {
+        return syncRuns;
+    }
+    
+    long getAsyncRuns() {
+        return asyncRuns.sum();
+    }
+    
+    long getAsyncNanos() {
+        return asyncNanos.sum();
+    }
+    
+    int getScheduledCount() {
+        return tasks.size();
+    }
+    
+    long getFailures() {
+        return failures.sum();
+    }
+    
+    Throwable getFirstFailure() {
+        return firstFailure;
+    }
+    
+    long[] getAsyncThreadIds() {
+        return asyncThreadIds.stream().mapToLong(Long::longValue).toArray();
+    }
+    
+    void shutdown() {
+        asyncPool.shutdownNow();
+    }
+}
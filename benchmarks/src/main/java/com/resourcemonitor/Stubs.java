@@ -0,0 +1,64 @@
+package com.resourcemonitor;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Bukkit interfaces implemented with java.lang.reflect.Proxy. Anything the
+// answer doesn't handle returns an empty value: zero, "", an empty
+// collection, or another stub for interface types, so a call chain like
+// Bukkit.getScheduler().runTaskTimer(...).cancel() just works.
+final class Stubs {
+    
+    // Returned by an Answer to fall back to the default value
+    static final Object DEFAULT = new Object();
+    
+    interface Answer {
+        Object answer(Method method, Object[] args) throws Throwable;
+    }
+    
+    private Stubs() {}
+    
+    static <T> T of(Class<T> type) {
+        return of(type, (method, args) -> DEFAULT);
+    }
+    
+    static <T> T of(Class<T> type, Answer answer) {
+        Object stub = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals": return proxy == args[0];
+                    case "hashCode": return System.identityHashCode(proxy);
+                    default: return type.getSimpleName() + "Stub";
+                }
+            }
+            Object result = answer.answer(method, args);
+            return result != DEFAULT ? result : defaultValue(method.getReturnType());
+        });
+        return type.cast(stub);
+    }
+    
+    static Object defaultValue(Class<?> type) {
+        if (type == void.class) return null;
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0.0;
+        if (type == float.class) return 0.0f;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        if (type == char.class) return '\0';
+        if (type == String.class) return "";
+        if (type.isArray()) return Array.newInstance(type.getComponentType(), 0);
+        if (type == Object.class) return null;
+        if (type.isAssignableFrom(List.class)) return Collections.emptyList();
+        if (type == Set.class) return Collections.emptySet();
+        if (type == Map.class) return Collections.emptyMap();
+        if (type.isInterface()) return of(type);
+        return null;
+    }
+}
@@ -0,0 +1,72 @@
+package com.resourcemonitor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.DecimalFormat;
+import java.util.concurrent.TimeUnit;
+
+// Number formatting used in every lore line, against the DecimalFormat it replaced
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextFormatBenchmark {
+    
+    private final StringBuilder builder = new StringBuilder(64);
+    private final DecimalFormat decimalFormat = new DecimalFormat("#.##");
+    
+    private double value = 47.31578;
+    private long bytes = 3_456_789_012L;
+    private long millis = 187_654_321L;
+    
+    @Benchmark
+    public String decimal() {
+        return TextFormat.decimal(value);
+    }
+    
+    @Benchmark
+    public StringBuilder appendDecimal() {
+        builder.setLength(0);
+        return TextFormat.appendDecimal(builder, value);
+    }
+    
+    @Benchmark
+    public String decimalFormat() {
+        return decimalFormat.format(value);
+    }
+    
+    @Benchmark
+    public String bytes() {
+        return TextFormat.bytes(bytes);
+    }
+    
+    @Benchmark
+    public StringBuilder appendBytes() {
+        builder.setLength(0);
+        return TextFormat.appendBytes(builder, bytes);
+    }
+    
+    // The formatBytes it replaced, logarithms and a DecimalFormat
+    @Benchmark
+    public String bytesDecimalFormat() {
+        if (bytes < 1024) return bytes + " B";
+        int exp = (int) (Math.log(bytes) / Math.log(1024));
+        String pre = "KMGTPE".charAt(exp - 1) + "";
+        return decimalFormat.format(bytes / Math.pow(1024, exp)) + " " + pre + "B";
+    }
+    
+    @Benchmark
+    public String duration() {
+        return TextFormat.duration(millis);
+    }
+}
@@ -0,0 +1,103 @@
+package com.resourcemonitor;
+
+import net.md_5.bungee.api.ChatMessageType;
+import net.md_5.bungee.api.chat.BaseComponent;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryView;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+// A simulated player. It remembers the inventory it has open, like the
+// client does, and counts the action bars it is sent.
+final class Viewer {
+    
+    private final UUID id;
+    private final String name;
+    private final Player player;
+    private final Inventory crafting;
+    private final InventoryView view = new View();
+    private volatile Inventory openInventory;
+    
+    private final LongAdder actionBars = new LongAdder();
+    
+    private final class View extends InventoryView {
+        @Override
+        public Inventory getTopInventory() {
+            Inventory open = openInventory;
+            return open != null ? open : crafting;
+        }
+        
+        @Override
+        public Inventory getBottomInventory() {
+            return crafting;
+        }
+        
+        @Override
+        public HumanEntity getPlayer() {
+            return player;
+        }
+        
+        @Override
+        public InventoryType getType() {
+            return openInventory != null ? InventoryType.CHEST : InventoryType.CRAFTING;
+        }
+    }
+    
+    private final class Spigot extends Player.Spigot {
+        @Override
+        public void sendMessage(ChatMessageType position, BaseComponent... components) {
+            if (position == ChatMessageType.ACTION_BAR) {
+                actionBars.increment();
+            }
+        }
+        
+        @Override
+        public void sendMessage(BaseComponent... components) {
+        }
+    }
+    
+    Viewer(int index) {
+        this.id = new UUID(0x524d56696577L, index);
+        this.name = "Viewer" + index;
+        this.crafting = BenchServer.inventory(5, "container.crafting");
+        Player.Spigot spigot = new Spigot();
+        this.player = Stubs.of(Player.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getUniqueId": return id;
+                case "getName": return name;
+                case "getDisplayName": return name;
+                case "isOnline": return true;
+                case "isOp": return true;
+                case "hasPermission": return true;
+                case "spigot": return spigot;
+                case "getOpenInventory": return view;
+                case "openInventory":
+                    if (args[0] instanceof Inventory) {
+                        openInventory = (Inventory) args[0];
+                        return view;
+                    }
+                    return null;
+                case "closeInventory":
+                    openInventory = null;
+                    return null;
+                default: return Stubs.DEFAULT;
+            }
+        });
+    }
+    
+    Player getPlayer() {
+        return player;
+    }
+    
+    UUID getId() {
+        return id;
+    }
+    
+    long getActionBars() {
+        return actionBars.sum();
+    }
+}
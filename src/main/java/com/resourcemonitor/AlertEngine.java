@@ -0,0 +1,177 @@
+package com.resourcemonitor;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Checks the configured alert rules against every new metrics snapshot on an
+// async task, one comparison per rule, and sends firing and resolved
+// notifications to staff with the alerts permission, the console and a JSON
+// lines file that a webhook forwarder can tail.
+public class AlertEngine {
+    
+    private static final long EVALUATE_PERIOD = 20L; // ticks, async
+    static final String PERMISSION = "resourcemonitor.alerts";
+    
+    private final Main plugin;
+    private final List<AlertRule> rules;
+    private final boolean notifyConsole;
+    private final boolean notifyStaff;
+    private final File alertFile;
+    
+    private MetricsSnapshot lastSnapshot;
+    private BukkitTask evaluateTask;
+    
+    public AlertEngine(Main plugin, ConfigurationSection config) {
+        this.plugin = plugin;
+        this.rules = config != null ? loadRules(config.getConfigurationSection("rules")) : Collections.emptyList();
+        this.notifyConsole = config == null || config.getBoolean("console", true);
+        this.notifyStaff = config == null || config.getBoolean("staff", true);
+        String fileName = config != null ? config.getString("file", "alerts.jsonl") : "";
+        this.alertFile = fileName == null || fileName.isEmpty() ? null : new File(plugin.getDataFolder(), fileName);
+    }
+    
+    private List<AlertRule> loadRules(ConfigurationSection section) {
+        List<AlertRule> loaded = new ArrayList<>();
+        if (section == null) return loaded;
+        
+        for (String name : section.getKeys(false)) {
+            ConfigurationSection rule = section.getConfigurationSection(name);
+            if (rule == null) continue;
+            
+            AlertMetric metric = AlertMetric.fromConfigName(rule.getString("metric", ""));
+            if (metric == null) {
+                plugin.getLogger().warning("Alert rule " + name + " has an unknown metric: " + rule.getString("metric"));
+                continue;
+            }
+            boolean above = rule.isSet("above");
+            if (!above && !rule.isSet("below")) {
+                plugin.getLogger().warning("Alert rule " + name + " needs an above or below level");
+                continue;
+            }
+            double trigger = rule.getDouble(above ? "above" : "below");
+            double clear = rule.getDouble("clear", trigger);
+            if (above ? clear > trigger : clear < trigger) {
+                plugin.getLogger().warning("Alert rule " + name + " clears past its trigger level, using the trigger level");
+                clear = trigger;
+            }
+            loaded.add(new AlertRule(name, metric, above, trigger, clear,
+                    rule.getLong("for-seconds", 0) * 1000L,
+                    rule.getLong("cooldown-seconds", 300) * 1000L));
+        }
+        return loaded;
+    }
+    
+    public void start() {
+        stop();
+        if (rules.isEmpty()) return;
+        evaluateTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::evaluate, EVALUATE_PERIOD, EVALUATE_PERIOD);
+    }
+    
+    public void stop() {
+        if (evaluateTask != null) {
+            evaluateTask.cancel();
+            evaluateTask = null;
+        }
+    }
+    
+    public int getRuleCount() {
+        return rules.size();
+    }
+    
+    // Names of the rules firing right now
+    public synchronized List<String> getFiring() {
+        List<String> firing = new ArrayList<>();
+        for (AlertRule rule : rules) {
+            if (rule.isFiring()) {
+                firing.add(rule.getName());
+            }
+        }
+        return firing;
+    }
+    
+    private synchronized void evaluate() {
+        MetricsSnapshot snapshot = plugin.getMetricsSampler().getSnapshot();
+        if (snapshot == lastSnapshot) return;
+        lastSnapshot = snapshot;
+        
+        long now = System.currentTimeMillis();
+        GcMonitor gcMonitor = plugin.getGcMonitor();
+        for (AlertRule rule : rules) {
+            AlertRule.Transition transition = rule.evaluate(rule.getMetric().read(snapshot, gcMonitor), now);
+            if (transition != AlertRule.Transition.NONE && rule.shouldNotify(transition, now)) {
+                notify(rule, transition, now);
+            }
+        }
+    }
+    
+    private void notify(AlertRule rule, AlertRule.Transition transition, long now) {
+        boolean fired = transition == AlertRule.Transition.FIRED;
+        String value = TextFormat.decimal(rule.getLastValue());
+        String condition = rule.getMetric().getConfigName() + " " + value +
+                (rule.isAbove() ? " > " : " < ") + TextFormat.decimal(rule.getTrigger());
+        
+        if (notifyConsole) {
+            if (fired) {
+                plugin.getLogger().warning("Alert " + rule.getName() + " firing: " + condition);
+            } else {
+                plugin.getLogger().info("Alert " + rule.getName() + " resolved: " + rule.getMetric().getConfigName() + " " + value);
+            }
+        }
+        
+        if (alertFile != null) {
+            appendToFile(rule, fired, now);
+        }
+        
+        if (notifyStaff) {
+            String message = fired
+                    ? ChatColor.RED + "⚠ [RM] " + ChatColor.WHITE + rule.getName() + ChatColor.GRAY + ": " + condition
+                    : ChatColor.GREEN + "✔ [RM] " + ChatColor.WHITE + rule.getName() + ChatColor.GRAY + " resolved (" + value + ")";
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                for (Player player : Bukkit.getOnlinePlayers()) {
+                    if (player.hasPermission(PERMISSION)) {
+                        player.sendMessage(message);
+                    }
+                }
+            });
+        }
+    }
+    
+    // One JSON object per line
+    private void appendToFile(AlertRule rule, boolean fired, long now) {
+        StringBuilder line = new StringBuilder(160);
+        line.append("{\"time\":\"").append(Instant.ofEpochMilli(now)).append('"');
+        line.append(",\"rule\":\"").append(escape(rule.getName())).append('"');
+        line.append(",\"state\":\"").append(fired ? "firing" : "resolved").append('"');
+        line.append(",\"metric\":\"").append(rule.getMetric().getConfigName()).append('"');
+        line.append(",\"value\":");
+        TextFormat.appendDecimal(line, rule.getLastValue(), 3);
+        line.append(",\"threshold\":");
+        TextFormat.appendDecimal(line, rule.getTrigger(), 3);
+        line.append(",\"direction\":\"").append(rule.isAbove() ? "above" : "below").append("\"}\n");
+        
+        alertFile.getParentFile().mkdirs();
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(alertFile, true), StandardCharsets.UTF_8)) {
+            out.write(line.toString());
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not write " + alertFile.getName() + ": " + e.getMessage());
+        }
+    }
+    
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
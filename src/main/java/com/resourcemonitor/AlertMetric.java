@@ -0,0 +1,70 @@
+package com.resourcemonitor;
+
+import java.lang.management.MemoryUsage;
+import java.util.Locale;
+
+// Values an alert rule can watch, named as they are written in the config
+public enum AlertMetric {
+    
+    TPS_5S("tps-5s"),
+    TPS_1M("tps-1m"),
+    MSPT_1M("mspt-1m"),
+    MSPT_P95("mspt-p95"),
+    MSPT_P99("mspt-p99"),
+    MSPT_MAX("mspt-max"),
+    CPU_PERCENT("cpu-percent"),
+    CPU_THROTTLED_PERCENT("cpu-throttled-percent"),
+    HEAP_PERCENT("heap-percent"),
+    CONTAINER_MEMORY_PERCENT("container-memory-percent"),
+    OLD_GEN_AFTER_GC_PERCENT("old-gen-after-gc-percent"),
+    GC_PAUSE_PERCENT("gc-pause-percent"),
+    PLAYERS("players"),
+    CHUNKS("chunks"),
+    ENTITIES("entities");
+    
+    private final String configName;
+    
+    AlertMetric(String configName) {
+        this.configName = configName;
+    }
+    
+    public String getConfigName() {
+        return configName;
+    }
+    
+    public static AlertMetric fromConfigName(String name) {
+        String normalized = name.toLowerCase(Locale.ROOT);
+        for (AlertMetric metric : values()) {
+            if (metric.configName.equals(normalized)) return metric;
+        }
+        return null;
+    }
+    
+    // NaN when the value isn't known yet, rules then keep their state
+    public double read(MetricsSnapshot snapshot, GcMonitor gcMonitor) {
+        switch (this) {
+            case TPS_5S: return snapshot.getTps(TickMonitor.WINDOW_5S);
+            case TPS_1M: return snapshot.getTps(TickMonitor.WINDOW_1M);
+            case MSPT_1M: return snapshot.getMspt(TickMonitor.WINDOW_1M);
+            case MSPT_P95: return snapshot.getMsptP95();
+            case MSPT_P99: return snapshot.getMsptP99();
+            case MSPT_MAX: return snapshot.getMsptMax();
+            case CPU_PERCENT: return snapshot.getCpuUsage();
+            case CPU_THROTTLED_PERCENT:
+                double throttled = snapshot.getContainer().getThrottledPercent();
+                return throttled >= 0 ? throttled : Double.NaN;
+            case HEAP_PERCENT: return snapshot.getMemoryUsagePercent();
+            case CONTAINER_MEMORY_PERCENT:
+                double rssPercent = snapshot.getContainer().getRssPercentOfLimit();
+                return rssPercent >= 0 ? rssPercent : Double.NaN;
+            case OLD_GEN_AFTER_GC_PERCENT:
+                MemoryUsage oldGen = gcMonitor.getOldGenAfterGc();
+                return oldGen != null && oldGen.getMax() > 0 ? oldGen.getUsed() * 100.0 / oldGen.getMax() : Double.NaN;
+            case GC_PAUSE_PERCENT: return gcMonitor.getPausePercent();
+            case PLAYERS: return snapshot.getOnlinePlayers();
+            case CHUNKS: return snapshot.getLoadedChunks();
+            case ENTITIES: return snapshot.getEntities();
+            default: return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.resourcemonitor;
+
+// One configured condition and its firing state. A rule fires once its
+// metric has been past the trigger level for the whole hold time and only
+// clears when it is back past the separate clear level, so a value hovering
+// around the trigger doesn't flap. State is only touched by the alert task.
+final class AlertRule {
+    
+    enum Transition { NONE, FIRED, RESOLVED }
+    
+    private final String name;
+    private final AlertMetric metric;
+    private final boolean above; // fire when the value is above the trigger, otherwise below
+    private final double trigger;
+    private final double clear;
+    private final long holdMillis;
+    private final long cooldownMillis;
+    
+    private long pendingSince = -1;
+    private boolean firing = false;
+    private long lastNotified = 0;
+    private boolean firingNotified = false;
+    private double lastValue = Double.NaN;
+    
+    AlertRule(String name, AlertMetric metric, boolean above, double trigger, double clear,
+              long holdMillis, long cooldownMillis) {
+        this.name = name;
+        this.metric = metric;
+        this.above = above;
+        this.trigger = trigger;
+        this.clear = clear;
+        this.holdMillis = holdMillis;
+        this.cooldownMillis = cooldownMillis;
+    }
+    
+    String getName() {
+        return name;
+    }
+    
+    AlertMetric getMetric() {
+        return metric;
+    }
+    
+    boolean isAbove() {
+        return above;
+    }
+    
+    double getTrigger() {
+        return trigger;
+    }
+    
+    double getLastValue() {
+        return lastValue;
+    }
+    
+    boolean isFiring() {
+        return firing;
+    }
+    
+    Transition evaluate(double value, long now) {
+        if (Double.isNaN(value)) return Transition.NONE;
+        lastValue = value;
+        
+        if (!firing) {
+            boolean breached = above ? value > trigger : value < trigger;
+            if (!breached) {
+                pendingSince = -1;
+                return Transition.NONE;
+            }
+            if (pendingSince < 0) pendingSince = now;
+            if (now - pendingSince < holdMillis) return Transition.NONE;
+            
+            firing = true;
+            return Transition.FIRED;
+        }
+        
+        boolean cleared = above ? value <= clear : value >= clear;
+        if (!cleared) return Transition.NONE;
+        
+        firing = false;
+        pendingSince = -1;
+        return Transition.RESOLVED;
+    }
+    
+    // At most one firing notification per cooldown; a resolution is only
+    // sent when its firing was
+    boolean shouldNotify(Transition transition, long now) {
+        if (transition == Transition.RESOLVED) {
+            boolean notify = firingNotified;
+            firingNotified = false;
+            return notify;
+        }
+        if (lastNotified > 0 && now - lastNotified < cooldownMillis) return false;
+        lastNotified = now;
+        firingNotified = true;
+        return true;
+    }
+}
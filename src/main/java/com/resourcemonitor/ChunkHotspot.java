@@ -0,0 +1,63 @@
+package com.resourcemonitor;
+
+import java.util.Collections;
+import java.util.List;
+
+// Entity and tile entity load of one chunk, as seen by the last index pass
+public final class ChunkHotspot {
+    
+    private final String worldName;
+    private final int x;
+    private final int z;
+    private final int entities;
+    private final int tileEntities;
+    private final List<String> topEntityTypes;
+    private final List<String> topTileTypes;
+    
+    public ChunkHotspot(String worldName, int x, int z, int entities, int tileEntities,
+                        List<String> topEntityTypes, List<String> topTileTypes) {
+        this.worldName = worldName;
+        this.x = x;
+        this.z = z;
+        this.entities = entities;
+        this.tileEntities = tileEntities;
+        this.topEntityTypes = Collections.unmodifiableList(topEntityTypes);
+        this.topTileTypes = Collections.unmodifiableList(topTileTypes);
+    }
+    
+    public String getWorldName() {
+        return worldName;
+    }
+    
+    // Chunk coordinates
+    public int getX() {
+        return x;
+    }
+    
+    public int getZ() {
+        return z;
+    }
+    
+    public int getEntities() {
+        return entities;
+    }
+    
+    public int getTileEntities() {
+        return tileEntities;
+    }
+    
+    // What the chunks are ranked by
+    public int getScore() {
+        return entities + tileEntities;
+    }
+    
+    // Most common entity types, e.g. "DROPPED_ITEM x2000"
+    public List<String> getTopEntityTypes() {
+        return topEntityTypes;
+    }
+    
+    // Most common tile entity blocks, e.g. "HOPPER x350"
+    public List<String> getTopTileTypes() {
+        return topTileTypes;
+    }
+}
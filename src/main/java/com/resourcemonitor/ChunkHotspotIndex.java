@@ -0,0 +1,232 @@
+package com.resourcemonitor;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.BlockState;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+// Finds the chunks with the most entities and tile entities. Loaded chunks
+// are walked on the main thread for at most half a millisecond a tick; each
+// pass keeps the top chunks in a bounded min-heap and publishes them sorted
+// when it finishes, along with the tile entity total of each world.
+//
+// Spigot's Chunk.getTileEntities() builds a BlockState snapshot of every tile
+// entity, copying each chest's inventory, so a chunk full of storage costs
+// far more than an empty one. Where the server has getTileEntities(false)
+// (Paper) the live states are read instead, and the time budget keeps the
+// cost per tick bounded either way.
+public class ChunkHotspotIndex {
+    
+    public static final int TOP_CHUNKS = 45;
+    
+    private static final long SCAN_NANOS_PER_TICK = 500_000L;
+    private static final long PASS_INTERVAL_MS = 10_000L; // between pass starts
+    private static final int TOP_TYPES = 3;
+    
+    private static final EntityType[] ENTITY_TYPES = EntityType.values();
+    private static final Material[] MATERIALS = Material.values();
+    
+    private volatile List<ChunkHotspot> hotspots = Collections.emptyList();
+    private volatile long lastPassFinished = 0;
+    private volatile Map<String, Integer> tileEntities = Collections.emptyMap();
+    
+    // Pass state, main thread only
+    private final PriorityQueue<ChunkHotspot> heap =
+            new PriorityQueue<>(TOP_CHUNKS + 1, Comparator.comparingInt(ChunkHotspot::getScore));
+    private List<World> passWorlds;
+    private final Map<String, Integer> passTileEntities = new HashMap<>();
+    private int worldIndex;
+    private Chunk[] chunks;
+    private int chunkIndex;
+    private long lastPassStart = 0;
+    private Method tileEntitiesWithoutSnapshot;
+    private boolean tileEntitiesLookedUp;
+    
+    // Per chunk type counts, reused; touched lists say which slots to clear
+    private final int[] entityTypeCounts = new int[ENTITY_TYPES.length];
+    private final int[] touchedEntityTypes = new int[ENTITY_TYPES.length];
+    private int touchedEntityCount;
+    private final int[] tileTypeCounts = new int[MATERIALS.length];
+    private final int[] touchedTileTypes = new int[MATERIALS.length];
+    private int touchedTileCount;
+    
+    private BukkitTask scanTask;
+    
+    public void start(Plugin plugin) {
+        stop();
+        scanTask = Bukkit.getScheduler().runTaskTimer(plugin, this::scanSome, 20L, 1L);
+    }
+    
+    public void stop() {
+        if (scanTask != null) {
+            scanTask.cancel();
+            scanTask = null;
+        }
+        heap.clear();
+        passTileEntities.clear();
+        passWorlds = null;
+        chunks = null;
+    }
+    
+    // Busiest chunks first, from the last finished pass
+    public List<ChunkHotspot> getHotspots() {
+        return hotspots;
+    }
+    
+    public long getLastPassFinished() {
+        return lastPassFinished;
+    }
+    
+    // Tile entities per world from the last finished pass
+    public Map<String, Integer> getTileEntities() {
+        return tileEntities;
+    }
+    
+    public int getTileEntities(String worldName) {
+        return tileEntities.getOrDefault(worldName, 0);
+    }
+    
+    private void scanSome() {
+        if (passWorlds == null) {
+            if (System.currentTimeMillis() - lastPassStart < PASS_INTERVAL_MS) return;
+            lastPassStart = System.currentTimeMillis();
+            passWorlds = new ArrayList<>(Bukkit.getWorlds());
+            worldIndex = 0;
+            chunks = null;
+        }
+        
+        // Always at least one chunk a tick, so a pass ends however slow they are
+        long start = System.nanoTime();
+        boolean scanned = false;
+        while (!scanned || System.nanoTime() - start < SCAN_NANOS_PER_TICK) {
+            if (chunks == null || chunkIndex >= chunks.length) {
+                if (worldIndex >= passWorlds.size()) {
+                    finishPass();
+                    return;
+                }
+                chunks = passWorlds.get(worldIndex++).getLoadedChunks();
+                chunkIndex = 0;
+                continue;
+            }
+            
+            Chunk chunk = chunks[chunkIndex];
+            chunks[chunkIndex++] = null;
+            // It may have been unloaded since the pass started
+            if (!chunk.isLoaded()) continue;
+            scanChunk(chunk);
+            scanned = true;
+        }
+    }
+    
+    private void scanChunk(Chunk chunk) {
+        Entity[] entities = chunk.getEntities();
+        BlockState[] tiles = tileEntities(chunk);
+        if (tiles.length > 0) {
+            passTileEntities.merge(chunk.getWorld().getName(), tiles.length, Integer::sum);
+        }
+        int score = entities.length + tiles.length;
+        if (score == 0) return;
+        if (heap.size() >= TOP_CHUNKS && score <= heap.peek().getScore()) return;
+        
+        for (Entity entity : entities) {
+            int type = entity.getType().ordinal();
+            if (entityTypeCounts[type]++ == 0) {
+                touchedEntityTypes[touchedEntityCount++] = type;
+            }
+        }
+        for (BlockState tile : tiles) {
+            int type = tile.getType().ordinal();
+            if (tileTypeCounts[type]++ == 0) {
+                touchedTileTypes[touchedTileCount++] = type;
+            }
+        }
+        
+        ChunkHotspot hotspot = new ChunkHotspot(chunk.getWorld().getName(), chunk.getX(), chunk.getZ(),
+                entities.length, tiles.length,
+                topTypes(entityTypeCounts, touchedEntityTypes, touchedEntityCount, ENTITY_TYPES),
+                topTypes(tileTypeCounts, touchedTileTypes, touchedTileCount, MATERIALS));
+        
+        for (int i = 0; i < touchedEntityCount; i++) {
+            entityTypeCounts[touchedEntityTypes[i]] = 0;
+        }
+        for (int i = 0; i < touchedTileCount; i++) {
+            tileTypeCounts[touchedTileTypes[i]] = 0;
+        }
+        touchedEntityCount = 0;
+        touchedTileCount = 0;
+        
+        if (heap.size() >= TOP_CHUNKS) {
+            heap.poll();
+        }
+        heap.add(hotspot);
+    }
+    
+    // Tile entities of the chunk, without snapshots where the server allows it
+    private BlockState[] tileEntities(Chunk chunk) {
+        if (!tileEntitiesLookedUp) {
+            tileEntitiesLookedUp = true;
+            try {
+                tileEntitiesWithoutSnapshot = chunk.getClass().getMethod("getTileEntities", boolean.class);
+            } catch (NoSuchMethodException | RuntimeException e) {
+                // Spigot only has snapshots
+            }
+        }
+        if (tileEntitiesWithoutSnapshot != null) {
+            try {
+                return (BlockState[]) tileEntitiesWithoutSnapshot.invoke(chunk, false);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                tileEntitiesWithoutSnapshot = null;
+            }
+        }
+        return chunk.getTileEntities();
+    }
+    
+    // The few most common types among the touched slots, as "NAME xCOUNT"
+    private static List<String> topTypes(int[] counts, int[] touched, int touchedCount, Enum<?>[] names) {
+        List<String> top = new ArrayList<>(TOP_TYPES);
+        int[] picked = new int[TOP_TYPES];
+        for (int n = 0; n < Math.min(TOP_TYPES, touchedCount); n++) {
+            int best = -1;
+            for (int i = 0; i < touchedCount; i++) {
+                int type = touched[i];
+                boolean taken = false;
+                for (int p = 0; p < n; p++) {
+                    if (picked[p] == type) taken = true;
+                }
+                if (!taken && (best < 0 || counts[type] > counts[best])) {
+                    best = type;
+                }
+            }
+            picked[n] = best;
+            top.add(names[best].name() + " x" + counts[best]);
+        }
+        return top;
+    }
+    
+    private void finishPass() {
+        List<ChunkHotspot> sorted = new ArrayList<>(heap);
+        sorted.sort(Comparator.comparingInt(ChunkHotspot::getScore).reversed());
+        
+        hotspots = Collections.unmodifiableList(sorted);
+        tileEntities = Collections.unmodifiableMap(new HashMap<>(passTileEntities));
+        lastPassFinished = System.currentTimeMillis();
+        heap.clear();
+        passTileEntities.clear();
+        passWorlds = null;
+        chunks = null;
+    }
+}
@@ -0,0 +1,288 @@
+package com.resourcemonitor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+// Reads the Linux control group the server runs in and the process's
+// resident set size. In a container the JVM's own figures describe the host:
+// process CPU load is a share of every host core, and the heap maximum says
+// nothing about the memory limit, which also counts metaspace, thread stacks
+// and direct buffers. A group that uses up its CPU quota is stopped until the
+// next scheduler period, which shows up as lag with nothing else to explain it.
+//
+// Supports cgroup v2 (cpu.max, cpu.stat, memory.current, memory.max) and v1
+// (cpu.cfs_quota_us, cpu.stat, cpuacct.usage, memory.usage_in_bytes,
+// memory.limit_in_bytes). Only small files are read, no processes are started.
+public class ContainerMonitor {
+    
+    private static final Path PROC_CGROUP = Paths.get("/proc/self/cgroup");
+    private static final Path PROC_MOUNTINFO = Paths.get("/proc/self/mountinfo");
+    private static final Path PROC_STATUS = Paths.get("/proc/self/status");
+    private static final long UNLIMITED = 1L << 60; // v1 writes a huge number for no limit
+    
+    private final boolean v2;
+    private final Path cpuDir;     // null without a cpu controller
+    private final Path cpuAcctDir; // v1 only, often the same directory as cpuDir
+    private final Path memoryDir;  // null without a memory controller
+    private final boolean procStatus;
+    
+    // Counters from the last sample, for the deltas; sampler thread only
+    private long lastAt;
+    private long lastUsageNanos = -1;
+    private long lastPeriods = -1;
+    private long lastThrottled = -1;
+    private long lastThrottledNanos = -1;
+    
+    public ContainerMonitor(Logger logger) {
+        Map<String, String> groups = new HashMap<>(); // controller -> path, "" for v2
+        Map<String, String[]> mounts = new HashMap<>(); // controller -> {root, mount point}, "" for v2
+        try {
+            readCgroups(groups);
+            readMounts(mounts);
+        } catch (IOException | RuntimeException e) {
+            // Not Linux, or /proc is hidden
+        }
+        
+        // A v1 cpu or memory controller wins, as it does for the JVM; hybrid
+        // hosts mount an empty v2 hierarchy next to the v1 controllers
+        boolean hasV1 = mounts.containsKey("cpu") || mounts.containsKey("memory");
+        this.v2 = !hasV1 && mounts.containsKey("") && groups.containsKey("");
+        if (v2) {
+            Path dir = resolve(mounts.get(""), groups.get(""), "cpu.max");
+            this.cpuDir = Files.exists(dir.resolve("cpu.stat")) ? dir : null;
+            this.cpuAcctDir = cpuDir;
+            this.memoryDir = Files.exists(dir.resolve("memory.current")) ? dir : null;
+        } else {
+            this.cpuDir = controllerDir(mounts, groups, "cpu", "cpu.cfs_quota_us");
+            Path acct = controllerDir(mounts, groups, "cpuacct", "cpuacct.usage");
+            this.cpuAcctDir = acct != null ? acct : cpuDir;
+            this.memoryDir = controllerDir(mounts, groups, "memory", "memory.usage_in_bytes");
+        }
+        this.procStatus = Files.isReadable(PROC_STATUS);
+        
+        if (cpuDir != null || memoryDir != null) {
+            logger.info("Reading container limits from cgroup " + (v2 ? "v2" : "v1") +
+                (cpuDir != null ? " cpu " + cpuDir : "") + (memoryDir != null ? " memory " + memoryDir : ""));
+        }
+    }
+    
+    public boolean isAvailable() {
+        return cpuDir != null || memoryDir != null || procStatus;
+    }
+    
+    // Called once per metrics sample; rates cover the time since the previous call
+    public synchronized ContainerUsage sample() {
+        if (!isAvailable()) return ContainerUsage.NONE;
+        
+        long now = System.nanoTime();
+        double elapsedNanos = lastAt > 0 ? now - lastAt : 0;
+        lastAt = now;
+        
+        double limitCores = 0;
+        double cores = -1;
+        double percentOfLimit = -1;
+        double throttledPercent = -1;
+        double throttledPerSecond = -1;
+        long throttledTotal = 0;
+        if (cpuDir != null) {
+            limitCores = readCpuLimit();
+            
+            Map<String, Long> stat = readKeyValues(cpuDir.resolve("cpu.stat"));
+            long usage = v2 ? scaled(stat.get("usage_usec"), 1000) : readLong(cpuAcctDir, "cpuacct.usage");
+            long periods = orNegative(stat.get("nr_periods"));
+            long throttled = orNegative(stat.get("nr_throttled"));
+            long throttledNanos = v2 ? scaled(stat.get("throttled_usec"), 1000) : orNegative(stat.get("throttled_time"));
+            
+            if (elapsedNanos > 0 && usage >= 0 && lastUsageNanos >= 0) {
+                cores = Math.max(0, usage - lastUsageNanos) / elapsedNanos;
+                if (limitCores > 0) {
+                    percentOfLimit = cores * 100.0 / limitCores;
+                }
+            }
+            if (periods >= 0 && lastPeriods >= 0 && throttled >= 0 && lastThrottled >= 0) {
+                long periodDelta = periods - lastPeriods;
+                throttledPercent = periodDelta > 0 ? (throttled - lastThrottled) * 100.0 / periodDelta : 0;
+            }
+            if (elapsedNanos > 0 && throttledNanos >= 0 && lastThrottledNanos >= 0) {
+                throttledPerSecond = Math.max(0, throttledNanos - lastThrottledNanos) / elapsedNanos * 1000.0;
+            }
+            throttledTotal = Math.max(0, throttledNanos) / 1_000_000L;
+            
+            lastUsageNanos = usage;
+            lastPeriods = periods;
+            lastThrottled = throttled;
+            lastThrottledNanos = throttledNanos;
+        }
+        
+        long memoryUsage = -1;
+        long memoryLimit = -1;
+        if (memoryDir != null) {
+            memoryUsage = readLong(memoryDir, v2 ? "memory.current" : "memory.usage_in_bytes");
+            memoryLimit = readLong(memoryDir, v2 ? "memory.max" : "memory.limit_in_bytes");
+            if (memoryLimit >= UNLIMITED) {
+                memoryLimit = -1;
+            }
+        }
+        
+        return new ContainerUsage(cpuDir != null || memoryDir != null, limitCores, cores, percentOfLimit,
+            throttledPercent, throttledPerSecond, throttledTotal, readRss(), memoryUsage, memoryLimit);
+    }
+    
+    // Quota over period, 0 for no quota
+    private double readCpuLimit() {
+        if (v2) {
+            // "max 100000" or "<quota> <period>"
+            String line = readFirstLine(cpuDir.resolve("cpu.max"));
+            if (line == null) return 0;
+            String[] parts = line.trim().split("\\s+");
+            if (parts.length < 2 || parts[0].equals("max")) return 0;
+            try {
+                long quota = Long.parseLong(parts[0]);
+                long period = Long.parseLong(parts[1]);
+                return period > 0 ? (double) quota / period : 0;
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        long quota = readLong(cpuDir, "cpu.cfs_quota_us");
+        long period = readLong(cpuDir, "cpu.cfs_period_us");
+        return quota > 0 && period > 0 ? (double) quota / period : 0;
+    }
+    
+    private long readRss() {
+        if (!procStatus) return -1;
+        try {
+            for (String line : Files.readAllLines(PROC_STATUS, StandardCharsets.ISO_8859_1)) {
+                if (line.startsWith("VmRSS:")) {
+                    String value = line.substring(6).trim();
+                    int space = value.indexOf(' ');
+                    return Long.parseLong(space > 0 ? value.substring(0, space) : value) * 1024L;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Fall through
+        }
+        return -1;
+    }
+    
+    // "max" and unreadable files are -1
+    private static long readLong(Path dir, String file) {
+        String line = readFirstLine(dir.resolve(file));
+        if (line == null) return -1;
+        try {
+            return Long.parseLong(line.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+    
+    private static String readFirstLine(Path file) {
+        try {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.ISO_8859_1);
+            return lines.isEmpty() ? null : lines.get(0);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+    
+    // cpu.stat style "key value" lines
+    private static Map<String, Long> readKeyValues(Path file) {
+        Map<String, Long> values = new HashMap<>();
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.ISO_8859_1)) {
+                int space = line.indexOf(' ');
+                if (space <= 0) continue;
+                try {
+                    values.put(line.substring(0, space), Long.parseLong(line.substring(space + 1).trim()));
+                } catch (NumberFormatException e) {
+                    // Skip lines that aren't counters
+                }
+            }
+        } catch (IOException e) {
+            // Leave the map empty, every value reads as unknown
+        }
+        return values;
+    }
+    
+    private static long orNegative(Long value) {
+        return value != null ? value : -1;
+    }
+    
+    private static long scaled(Long value, long factor) {
+        return value != null ? value * factor : -1;
+    }
+    
+    // Lines like "4:memory:/docker/abc" for v1 and "0::/user.slice" for v2
+    private static void readCgroups(Map<String, String> groups) throws IOException {
+        for (String line : Files.readAllLines(PROC_CGROUP, StandardCharsets.UTF_8)) {
+            String[] parts = line.split(":", 3);
+            if (parts.length < 3) continue;
+            if (parts[1].isEmpty()) {
+                groups.put("", parts[2]);
+            } else {
+                for (String controller : parts[1].split(",")) {
+                    groups.put(controller, parts[2]);
+                }
+            }
+        }
+    }
+    
+    // Fields: id parent major:minor root mount-point options ... - type source super-options
+    private static void readMounts(Map<String, String[]> mounts) throws IOException {
+        for (String line : Files.readAllLines(PROC_MOUNTINFO, StandardCharsets.UTF_8)) {
+            String[] fields = line.split(" ");
+            int separator = -1;
+            for (int i = 6; i < fields.length; i++) {
+                if (fields[i].equals("-")) {
+                    separator = i;
+                    break;
+                }
+            }
+            if (separator < 0 || separator + 3 >= fields.length) continue;
+            
+            String type = fields[separator + 1];
+            String[] mount = { fields[3], fields[4] };
+            if (type.equals("cgroup2")) {
+                mounts.putIfAbsent("", mount);
+            } else if (type.equals("cgroup")) {
+                for (String option : fields[separator + 3].split(",")) {
+                    mounts.putIfAbsent(option, mount);
+                }
+            }
+        }
+    }
+    
+    private static Path controllerDir(Map<String, String[]> mounts, Map<String, String> groups, String controller, String probe) {
+        String[] mount = mounts.get(controller);
+        String group = groups.get(controller);
+        if (mount == null || group == null) return null;
+        
+        Path dir = resolve(mount, group, probe);
+        return Files.exists(dir.resolve(probe)) ? dir : null;
+    }
+    
+    // The group's directory under the mount; inside a container the path in
+    // /proc/self/cgroup is often the host's, while the mount is the group itself
+    private static Path resolve(String[] mount, String group, String probe) {
+        String root = mount[0];
+        Path mountPoint = Paths.get(mount[1]);
+        Path dir;
+        if (root.equals(group)) {
+            dir = mountPoint;
+        } else if (root.equals("/")) {
+            dir = Paths.get(mount[1], group);
+        } else if (group.startsWith(root + "/")) {
+            dir = Paths.get(mount[1], group.substring(root.length()));
+        } else {
+            dir = mountPoint;
+        }
+        return Files.exists(dir.resolve(probe)) ? dir : mountPoint;
+    }
+}
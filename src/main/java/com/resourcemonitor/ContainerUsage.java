@@ -0,0 +1,98 @@
+package com.resourcemonitor;
+
+// What the control group the server runs in allows and uses, as of one
+// metrics sample. Values that couldn't be read are negative.
+public final class ContainerUsage {
+    
+    // Not on Linux, or /proc and /sys/fs/cgroup can't be read
+    public static final ContainerUsage NONE = new ContainerUsage(false, 0, -1, -1, -1, -1, 0, -1, -1, -1);
+    
+    private final boolean cgroup;
+    private final double cpuLimitCores;
+    private final double cpuCores;
+    private final double cpuPercentOfLimit;
+    private final double throttledPercent;
+    private final double throttledMillisPerSecond;
+    private final long throttledTotalMillis;
+    private final long rss;
+    private final long memoryUsage;
+    private final long memoryLimit;
+    
+    public ContainerUsage(boolean cgroup, double cpuLimitCores, double cpuCores, double cpuPercentOfLimit,
+                          double throttledPercent, double throttledMillisPerSecond, long throttledTotalMillis,
+                          long rss, long memoryUsage, long memoryLimit) {
+        this.cgroup = cgroup;
+        this.cpuLimitCores = cpuLimitCores;
+        this.cpuCores = cpuCores;
+        this.cpuPercentOfLimit = cpuPercentOfLimit;
+        this.throttledPercent = throttledPercent;
+        this.throttledMillisPerSecond = throttledMillisPerSecond;
+        this.throttledTotalMillis = throttledTotalMillis;
+        this.rss = rss;
+        this.memoryUsage = memoryUsage;
+        this.memoryLimit = memoryLimit;
+    }
+    
+    public boolean isCgroup() {
+        return cgroup;
+    }
+    
+    public boolean hasCpuLimit() {
+        return cpuLimitCores > 0;
+    }
+    
+    // CPU quota in cores, 0 without a quota
+    public double getCpuLimitCores() {
+        return cpuLimitCores;
+    }
+    
+    // Cores the whole control group kept busy since the last sample
+    public double getCpuCores() {
+        return cpuCores;
+    }
+    
+    // Share of the quota used since the last sample; at 100 the group is throttled
+    public double getCpuPercentOfLimit() {
+        return cpuPercentOfLimit;
+    }
+    
+    // Percent of scheduler periods since the last sample in which the group ran out of quota
+    public double getThrottledPercent() {
+        return throttledPercent;
+    }
+    
+    // Time the group spent stopped by its quota, per second of wall time
+    public double getThrottledMillisPerSecond() {
+        return throttledMillisPerSecond;
+    }
+    
+    public long getThrottledTotalMillis() {
+        return throttledTotalMillis;
+    }
+    
+    // Resident set size of the server process: heap, metaspace, thread stacks, direct buffers
+    public long getRss() {
+        return rss;
+    }
+    
+    // Memory charged to the group, including page cache
+    public long getMemoryUsage() {
+        return memoryUsage;
+    }
+    
+    public boolean hasMemoryLimit() {
+        return memoryLimit > 0;
+    }
+    
+    public long getMemoryLimit() {
+        return memoryLimit;
+    }
+    
+    public double getRssPercentOfLimit() {
+        return memoryLimit > 0 && rss >= 0 ? rss * 100.0 / memoryLimit : -1;
+    }
+    
+    public double getMemoryPercentOfLimit() {
+        return memoryLimit > 0 && memoryUsage >= 0 ? memoryUsage * 100.0 / memoryLimit : -1;
+    }
+}
@@ -0,0 +1,68 @@
+package com.resourcemonitor;
+
+import org.bukkit.entity.Ambient;
+import org.bukkit.entity.Animals;
+import org.bukkit.entity.Boat;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.ExperienceOrb;
+import org.bukkit.entity.Flying;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.Minecart;
+import org.bukkit.entity.Monster;
+import org.bukkit.entity.NPC;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.Projectile;
+import org.bukkit.entity.Slime;
+import org.bukkit.entity.WaterMob;
+
+// Coarse grouping of entity types for the per-world breakdown; each type is
+// classified once from its entity interface
+public enum EntityCategory {
+    
+    PLAYERS("Players"),
+    MONSTERS("Monsters"),
+    ANIMALS("Animals"),
+    VILLAGERS("Villagers"),
+    ITEMS("Items"),
+    PROJECTILES("Projectiles"),
+    VEHICLES("Vehicles"),
+    OTHER("Other");
+    
+    private static final EntityCategory[] BY_TYPE = new EntityCategory[EntityType.values().length];
+    
+    static {
+        for (EntityType type : EntityType.values()) {
+            BY_TYPE[type.ordinal()] = classify(type.getEntityClass());
+        }
+    }
+    
+    private final String displayName;
+    
+    EntityCategory(String displayName) {
+        this.displayName = displayName;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+    
+    public static EntityCategory of(EntityType type) {
+        return BY_TYPE[type.ordinal()];
+    }
+    
+    private static EntityCategory classify(Class<? extends Entity> entityClass) {
+        if (entityClass == null) return OTHER;
+        if (Player.class.isAssignableFrom(entityClass)) return PLAYERS;
+        if (Monster.class.isAssignableFrom(entityClass) || Slime.class.isAssignableFrom(entityClass) ||
+                Flying.class.isAssignableFrom(entityClass)) return MONSTERS;
+        if (Animals.class.isAssignableFrom(entityClass) || WaterMob.class.isAssignableFrom(entityClass) ||
+                Ambient.class.isAssignableFrom(entityClass)) return ANIMALS;
+        if (NPC.class.isAssignableFrom(entityClass)) return VILLAGERS;
+        if (Item.class.isAssignableFrom(entityClass) || ExperienceOrb.class.isAssignableFrom(entityClass)) return ITEMS;
+        if (Projectile.class.isAssignableFrom(entityClass)) return PROJECTILES;
+        // Not Vehicle, horses and pigs are rideable too
+        if (Minecart.class.isAssignableFrom(entityClass) || Boat.class.isAssignableFrom(entityClass)) return VEHICLES;
+        return OTHER;
+    }
+}
@@ -0,0 +1,288 @@
+package com.resourcemonitor;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.entity.EntitySpawnEvent;
+import org.bukkit.event.entity.ItemDespawnEvent;
+import org.bukkit.event.entity.ItemMergeEvent;
+import org.bukkit.event.inventory.InventoryPickupItemEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Keeps loaded chunk and entity counts per world and per entity type up to
+// date from chunk and entity events, so reading them costs nothing. Spigot
+// has no event for every way an entity leaves the world (mobs despawning,
+// Entity.remove() from plugins, projectiles, TNT and falling blocks), so
+// every loaded world is recounted from scratch every ten seconds and the
+// counts are never off by more than what left the world since then.
+public class EntityCounter implements Listener {
+    
+    private static final long RECONCILE_PERIOD = 200L; // ticks, main thread, all worlds per run
+    private static final EntityType[] TYPES = EntityType.values();
+    
+    private final Map<String, WorldCounts> worlds = new ConcurrentHashMap<>();
+    
+    // Totals over all worlds; written on the main thread only
+    private volatile int totalChunks;
+    private volatile int totalEntities;
+    
+    private BukkitTask reconcileTask;
+    
+    // Counts for one world; written on the main thread, read from anywhere
+    public static final class WorldCounts {
+        private final String worldName;
+        private volatile int chunks;
+        private volatile int entities;
+        private final AtomicIntegerArray types = new AtomicIntegerArray(TYPES.length);
+        
+        WorldCounts(String worldName) {
+            this.worldName = worldName;
+        }
+        
+        public String getWorldName() {
+            return worldName;
+        }
+        
+        public int getChunks() {
+            return chunks;
+        }
+        
+        public int getEntities() {
+            return entities;
+        }
+        
+        public int getCount(EntityType type) {
+            return types.get(type.ordinal());
+        }
+        
+        public int getPlayers() {
+            return types.get(EntityType.PLAYER.ordinal());
+        }
+        
+        // Entities per category, indexed by EntityCategory ordinal
+        public int[] getCategoryCounts() {
+            int[] counts = new int[EntityCategory.values().length];
+            for (int i = 0; i < TYPES.length; i++) {
+                counts[EntityCategory.of(TYPES[i]).ordinal()] += types.get(i);
+            }
+            return counts;
+        }
+        
+        // Entity types present in this world, most common first
+        public List<Map.Entry<EntityType, Integer>> getTypeCounts() {
+            List<Map.Entry<EntityType, Integer>> counts = new ArrayList<>();
+            for (int i = 0; i < TYPES.length; i++) {
+                int count = types.get(i);
+                if (count > 0) {
+                    counts.add(new AbstractMap.SimpleImmutableEntry<>(TYPES[i], count));
+                }
+            }
+            counts.sort((a, b) -> Integer.compare(b.getValue(), a.getValue()));
+            return counts;
+        }
+    }
+    
+    public void start(Plugin plugin) {
+        stop();
+        
+        reconcileAll();
+        reconcileTask = Bukkit.getScheduler().runTaskTimer(plugin, this::reconcileAll, RECONCILE_PERIOD, RECONCILE_PERIOD);
+    }
+    
+    public void stop() {
+        if (reconcileTask != null) {
+            reconcileTask.cancel();
+            reconcileTask = null;
+        }
+    }
+    
+    public int getLoadedChunks() {
+        return totalChunks;
+    }
+    
+    public int getEntities() {
+        return totalEntities;
+    }
+    
+    public WorldCounts getWorld(String worldName) {
+        return worlds.get(worldName);
+    }
+    
+    public Map<String, WorldCounts> getWorlds() {
+        return Collections.unmodifiableMap(worlds);
+    }
+    
+    // Entity types over all worlds, most common first
+    public List<Map.Entry<EntityType, Integer>> getTypeCounts() {
+        int[] totals = new int[TYPES.length];
+        for (WorldCounts counts : worlds.values()) {
+            for (int i = 0; i < TYPES.length; i++) {
+                totals[i] += counts.types.get(i);
+            }
+        }
+        
+        List<Map.Entry<EntityType, Integer>> result = new ArrayList<>();
+        for (int i = 0; i < TYPES.length; i++) {
+            if (totals[i] > 0) {
+                result.add(new AbstractMap.SimpleImmutableEntry<>(TYPES[i], totals[i]));
+            }
+        }
+        result.sort((a, b) -> Integer.compare(b.getValue(), a.getValue()));
+        return result;
+    }
+    
+    private WorldCounts countsFor(World world) {
+        return worlds.computeIfAbsent(world.getName(), WorldCounts::new);
+    }
+    
+    private void addChunks(World world, int delta) {
+        WorldCounts counts = countsFor(world);
+        counts.chunks += delta;
+        totalChunks += delta;
+    }
+    
+    private void addEntity(Entity entity, int delta) {
+        addEntity(entity.getWorld(), entity.getType(), delta);
+    }
+    
+    private void addEntity(World world, EntityType type, int delta) {
+        WorldCounts counts = countsFor(world);
+        counts.entities += delta;
+        counts.types.addAndGet(type.ordinal(), delta);
+        totalEntities += delta;
+    }
+    
+    private void reconcileAll() {
+        for (World world : Bukkit.getWorlds()) {
+            reconcile(world);
+        }
+    }
+    
+    // Recounts one world from scratch
+    void reconcile(World world) {
+        int[] types = new int[TYPES.length];
+        List<Entity> entities = world.getEntities();
+        for (Entity entity : entities) {
+            types[entity.getType().ordinal()]++;
+        }
+        int chunks = world.getLoadedChunks().length;
+        
+        WorldCounts counts = countsFor(world);
+        totalChunks += chunks - counts.chunks;
+        totalEntities += entities.size() - counts.entities;
+        counts.chunks = chunks;
+        counts.entities = entities.size();
+        for (int i = 0; i < TYPES.length; i++) {
+            counts.types.set(i, types[i]);
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(WorldLoadEvent event) {
+        reconcile(event.getWorld());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        WorldCounts counts = worlds.remove(event.getWorld().getName());
+        if (counts != null) {
+            totalChunks -= counts.chunks;
+            totalEntities -= counts.entities;
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        Chunk chunk = event.getChunk();
+        addChunks(chunk.getWorld(), 1);
+        for (Entity entity : chunk.getEntities()) {
+            // Players are counted on join and world change
+            if (entity instanceof Player) continue;
+            addEntity(entity, 1);
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        Chunk chunk = event.getChunk();
+        addChunks(chunk.getWorld(), -1);
+        for (Entity entity : chunk.getEntities()) {
+            if (entity instanceof Player) continue;
+            addEntity(entity, -1);
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntitySpawn(EntitySpawnEvent event) {
+        addEntity(event.getEntity(), 1);
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityDeath(EntityDeathEvent event) {
+        // Players stay in the world until they respawn
+        if (event.getEntity() instanceof Player) return;
+        addEntity(event.getEntity(), -1);
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onItemDespawn(ItemDespawnEvent event) {
+        addEntity(event.getEntity(), -1);
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onItemMerge(ItemMergeEvent event) {
+        addEntity(event.getEntity(), -1);
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityPickupItem(EntityPickupItemEvent event) {
+        // A partial pickup leaves the item in the world
+        if (event.getRemaining() > 0) return;
+        addEntity(event.getItem(), -1);
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryPickupItem(InventoryPickupItemEvent event) {
+        addEntity(event.getItem(), -1);
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        addEntity(event.getPlayer(), 1);
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        addEntity(event.getPlayer(), -1);
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        addEntity(event.getFrom(), EntityType.PLAYER, -1);
+        addEntity(event.getPlayer(), 1);
+    }
+}
@@ -0,0 +1,191 @@
+package com.resourcemonitor;
+
+import org.bukkit.plugin.RegisteredListener;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency histograms per event class, plugin and listener method, filled in
+// by ProfiledListeners while event timing is switched on. Buckets are
+// log-linear like HdrHistogram's, four per power of two, and every counter
+// is a LongAdder so concurrent async events don't contend on one cache line.
+public class EventTimings {
+    
+    private static final int MIN_EXPONENT = 8; // 256ns, everything faster shares the first bucket
+    private static final int MAX_EXPONENT = 34; // ~17s, everything slower shares the last bucket
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (MAX_EXPONENT - MIN_EXPONENT + 1) * SUB_BUCKETS;
+    
+    private final long startedAt = System.currentTimeMillis();
+    private final List<ListenerStats> stats = new CopyOnWriteArrayList<>();
+    
+    // One listener method's calls for one event class
+    public static final class ListenerStats {
+        private final Class<?> eventClass;
+        private final String pluginName;
+        private final String listenerName;
+        private final ListenerStats next; // other event classes of the same listener
+        
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+        
+        ListenerStats(Class<?> eventClass, String pluginName, String listenerName, ListenerStats next) {
+            this.eventClass = eventClass;
+            this.pluginName = pluginName;
+            this.listenerName = listenerName;
+            this.next = next;
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+        
+        void record(long nanos) {
+            calls.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            buckets[bucketFor(nanos)].increment();
+        }
+        
+        public String getEventName() {
+            return eventClass.getSimpleName();
+        }
+        
+        public String getPluginName() {
+            return pluginName;
+        }
+        
+        // Listener class and method, "MyListener#onMove"
+        public String getListenerName() {
+            return listenerName;
+        }
+        
+        public long getCalls() {
+            return calls.sum();
+        }
+        
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+        
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+        
+        public double getMeanNanos() {
+            long count = calls.sum();
+            return count == 0 ? 0 : (double) totalNanos.sum() / count;
+        }
+        
+        // Upper bound of the bucket holding the given percentile
+        public long getPercentileNanos(double percentile) {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets[i].sum();
+                total += counts[i];
+            }
+            if (total == 0) return 0;
+            
+            long rank = (long) Math.ceil(percentile * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), getMaxNanos());
+                }
+            }
+            return getMaxNanos();
+        }
+    }
+    
+    static int bucketFor(long nanos) {
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent < MIN_EXPONENT) return 0;
+        if (exponent > MAX_EXPONENT) return BUCKETS - 1;
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - MIN_EXPONENT) * SUB_BUCKETS + subBucket;
+    }
+    
+    static long bucketUpperBound(int bucket) {
+        int exponent = bucket / SUB_BUCKETS + MIN_EXPONENT;
+        int subBucket = bucket % SUB_BUCKETS;
+        return (1L << exponent) + ((subBucket + 1L) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+    
+    public long getStartedAt() {
+        return startedAt;
+    }
+    
+    // Called by every timed listener invocation, so the common case is one
+    // walk of a list that nearly always has a single entry
+    void record(ProfiledListener listener, Class<?> eventClass, long nanos) {
+        ListenerStats s = listener.eventStats;
+        while (s != null && s.eventClass != eventClass) {
+            s = s.next;
+        }
+        if (s == null) {
+            s = register(listener, eventClass);
+        }
+        s.record(nanos);
+    }
+    
+    private ListenerStats register(ProfiledListener listener, Class<?> eventClass) {
+        synchronized (listener) {
+            for (ListenerStats s = listener.eventStats; s != null; s = s.next) {
+                if (s.eventClass == eventClass) return s;
+            }
+            RegisteredListener delegate = listener.getDelegate();
+            ListenerStats s = new ListenerStats(eventClass, delegate.getPlugin().getName(),
+                    listenerName(delegate), listener.eventStats);
+            listener.eventStats = s;
+            stats.add(s);
+            return s;
+        }
+    }
+    
+    // Most expensive first; totals are read once since they keep moving
+    public List<ListenerStats> getStats() {
+        List<ListenerStats> sorted = new ArrayList<>(stats);
+        Map<ListenerStats, Long> totals = new IdentityHashMap<>();
+        for (ListenerStats s : sorted) {
+            totals.put(s, s.getTotalNanos());
+        }
+        sorted.sort((a, b) -> Long.compare(totals.get(b), totals.get(a)));
+        return sorted;
+    }
+    
+    // Bukkit's method executors keep the handler Method in a captured field;
+    // other executors only give us the listener class
+    private static String listenerName(RegisteredListener listener) {
+        String className = listener.getListener().getClass().getSimpleName();
+        try {
+            Field executorField = RegisteredListener.class.getDeclaredField("executor");
+            executorField.setAccessible(true);
+            Object executor = executorField.get(listener);
+            for (Class<?> c = executor.getClass(); c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (field.getType() == Method.class) {
+                        field.setAccessible(true);
+                        Method method = (Method) field.get(executor);
+                        if (method != null) {
+                            return className + "#" + method.getName();
+                        }
+                    }
+                }
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Fall back to the class name
+        }
+        return className;
+    }
+}
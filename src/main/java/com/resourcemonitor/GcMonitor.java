@@ -0,0 +1,370 @@
+package com.resourcemonitor;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+// Listens for garbage collection notifications and keeps what the heap
+// figure from Runtime can't show: pause times over the last 15 minutes,
+// per collector counts, the allocation rate between collections and how
+// full the old generation is right after a collection.
+public class GcMonitor implements NotificationListener {
+    
+    private static final int WINDOW_MINUTES = 15;
+    private static final long MINUTE_MS = 60_000L;
+    
+    // Pause histogram bucket upper bounds in ms, the last bucket is open
+    private static final long[] PAUSE_BOUNDS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000};
+    private static final int BUCKETS = PAUSE_BOUNDS.length + 1;
+    
+    private final Logger logger;
+    private final List<NotificationEmitter> emitters = new ArrayList<>();
+    private final Set<String> heapPools = new HashSet<>();
+    
+    // Rolling pause histogram, one row per minute; guarded by this
+    private final long[][] pauseRing = new long[WINDOW_MINUTES][BUCKETS];
+    private final long[] pauseTimeRing = new long[WINDOW_MINUTES];
+    private final long[] allocatedRing = new long[WINDOW_MINUTES];
+    private final long[] ringMinute = new long[WINDOW_MINUTES];
+    private final long[] maxPauseRing = new long[WINDOW_MINUTES];
+    
+    private final Map<String, CollectorStats> collectors = new LinkedHashMap<>();
+    private final Map<String, MemoryUsage> poolsAfterGc = new LinkedHashMap<>();
+    private long heapAfterLastGc = -1;
+    private long startedAt;
+    
+    public GcMonitor(Logger logger) {
+        this.logger = logger;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                heapPools.add(pool.getName());
+            }
+        }
+    }
+    
+    // What one collector has done since the monitor started
+    public static final class CollectorStats {
+        private final String name;
+        private final boolean concurrent;
+        private long count;
+        private long totalPauseMs;
+        private long lastPauseMs;
+        private String lastAction = "";
+        private long lastAt;
+        
+        CollectorStats(String name) {
+            this.name = name;
+            this.concurrent = GcMonitor.isConcurrent(name);
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        // Reports concurrent cycles, which don't stop the server, so it has
+        // no pause time
+        public boolean isConcurrent() {
+            return concurrent;
+        }
+        
+        public long getCount() {
+            return count;
+        }
+        
+        public long getTotalPauseMs() {
+            return totalPauseMs;
+        }
+        
+        public long getLastPauseMs() {
+            return lastPauseMs;
+        }
+        
+        // "end of minor GC" or "end of major GC"
+        public String getLastAction() {
+            return lastAction;
+        }
+        
+        public long getLastAt() {
+            return lastAt;
+        }
+        
+        CollectorStats copy() {
+            CollectorStats copy = new CollectorStats(name);
+            copy.count = count;
+            copy.totalPauseMs = totalPauseMs;
+            copy.lastPauseMs = lastPauseMs;
+            copy.lastAction = lastAction;
+            copy.lastAt = lastAt;
+            return copy;
+        }
+    }
+    
+    public synchronized void start() {
+        stop();
+        startedAt = System.currentTimeMillis();
+        
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gc instanceof NotificationEmitter) {
+                NotificationEmitter emitter = (NotificationEmitter) gc;
+                emitter.addNotificationListener(this, null, null);
+                emitters.add(emitter);
+            }
+        }
+        if (emitters.isEmpty()) {
+            logger.warning("Garbage collection notifications are not available on this JVM");
+        }
+    }
+    
+    public synchronized void stop() {
+        for (NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(this);
+            } catch (ListenerNotFoundException e) {
+                // Already gone
+            }
+        }
+        emitters.clear();
+    }
+    
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) return;
+        
+        try {
+            GarbageCollectionNotificationInfo info =
+                    GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            record(info.getGcName(), info.getGcAction(), info.getGcInfo().getDuration(),
+                    info.getGcInfo().getMemoryUsageBeforeGc(), info.getGcInfo().getMemoryUsageAfterGc());
+        } catch (RuntimeException e) {
+            // Never let a bad notification reach the JMX thread
+        }
+    }
+    
+    synchronized void record(String gcName, String gcAction, long pauseMs,
+                             Map<String, MemoryUsage> before, Map<String, MemoryUsage> after) {
+        long now = System.currentTimeMillis();
+        int slot = slotFor(now);
+        
+        CollectorStats stats = collectors.computeIfAbsent(gcName, CollectorStats::new);
+        stats.count++;
+        if (!stats.concurrent) {
+            pauseRing[slot][bucketFor(pauseMs)]++;
+            pauseTimeRing[slot] += pauseMs;
+            maxPauseRing[slot] = Math.max(maxPauseRing[slot], pauseMs);
+            stats.totalPauseMs += pauseMs;
+            stats.lastPauseMs = pauseMs;
+        }
+        stats.lastAction = gcAction;
+        stats.lastAt = now;
+        
+        // Everything allocated since the last collection ended shows up as
+        // heap growth before this one starts
+        long heapBefore = 0;
+        long heapAfter = 0;
+        for (Map.Entry<String, MemoryUsage> entry : before.entrySet()) {
+            if (heapPools.contains(entry.getKey())) {
+                heapBefore += entry.getValue().getUsed();
+            }
+        }
+        for (Map.Entry<String, MemoryUsage> entry : after.entrySet()) {
+            if (heapPools.contains(entry.getKey())) {
+                heapAfter += entry.getValue().getUsed();
+                if (!isOldGen(entry.getKey()) || collectedOldGen(gcAction, before.get(entry.getKey()), entry.getValue())) {
+                    poolsAfterGc.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        if (heapAfterLastGc >= 0 && heapBefore > heapAfterLastGc) {
+            allocatedRing[slot] += heapBefore - heapAfterLastGc;
+        }
+        heapAfterLastGc = heapAfter;
+    }
+    
+    // A young collection only adds promoted objects to the old generation, so
+    // its after-GC usage there still holds everything that died since the
+    // last old collection. Old usage counts as a live set only after a full
+    // collection, or after a G1 mixed collection, which reports as minor but
+    // shrinks the old generation.
+    static boolean collectedOldGen(String gcAction, MemoryUsage before, MemoryUsage after) {
+        if ("end of major GC".equals(gcAction)) return true;
+        return before != null && after.getUsed() < before.getUsed();
+    }
+    
+    // ZGC and Shenandoah notify twice: "ZGC Pauses" / "Shenandoah Pauses" for
+    // the real stop-the-world pauses and "ZGC Cycles" / "Shenandoah Cycles"
+    // with the length of the whole concurrent cycle, which runs alongside the
+    // server and would otherwise swamp the pause figures
+    static boolean isConcurrent(String collector) {
+        return collector.endsWith(" Cycles");
+    }
+    
+    // Ring row for the given time, clearing it if it belongs to an older minute
+    private int slotFor(long now) {
+        long minute = now / MINUTE_MS;
+        int slot = (int) (minute % WINDOW_MINUTES);
+        if (ringMinute[slot] != minute) {
+            ringMinute[slot] = minute;
+            Arrays.fill(pauseRing[slot], 0);
+            pauseTimeRing[slot] = 0;
+            allocatedRing[slot] = 0;
+            maxPauseRing[slot] = 0;
+        }
+        return slot;
+    }
+    
+    private static int bucketFor(long pauseMs) {
+        for (int i = 0; i < PAUSE_BOUNDS.length; i++) {
+            if (pauseMs < PAUSE_BOUNDS[i]) return i;
+        }
+        return PAUSE_BOUNDS.length;
+    }
+    
+    private boolean inWindow(int slot, long now) {
+        return now / MINUTE_MS - ringMinute[slot] < WINDOW_MINUTES;
+    }
+    
+    // Pauses over the last 15 minutes
+    public synchronized long getPauseCount() {
+        long now = System.currentTimeMillis();
+        long count = 0;
+        for (int slot = 0; slot < WINDOW_MINUTES; slot++) {
+            if (!inWindow(slot, now)) continue;
+            for (long bucket : pauseRing[slot]) {
+                count += bucket;
+            }
+        }
+        return count;
+    }
+    
+    // Upper bound of the histogram bucket holding the given percentile, or
+    // the longest pause when it falls in the open bucket
+    public synchronized long getPausePercentile(double percentile) {
+        long now = System.currentTimeMillis();
+        long[] merged = new long[BUCKETS];
+        long total = 0;
+        for (int slot = 0; slot < WINDOW_MINUTES; slot++) {
+            if (!inWindow(slot, now)) continue;
+            for (int b = 0; b < BUCKETS; b++) {
+                merged[b] += pauseRing[slot][b];
+                total += pauseRing[slot][b];
+            }
+        }
+        if (total == 0) return 0;
+        
+        long rank = (long) Math.ceil(percentile * total);
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += merged[b];
+            if (seen >= rank) {
+                return b < PAUSE_BOUNDS.length ? Math.min(PAUSE_BOUNDS[b], getMaxPause()) : getMaxPause();
+            }
+        }
+        return getMaxPause();
+    }
+    
+    public synchronized long getMaxPause() {
+        long now = System.currentTimeMillis();
+        long max = 0;
+        for (int slot = 0; slot < WINDOW_MINUTES; slot++) {
+            if (inWindow(slot, now)) {
+                max = Math.max(max, maxPauseRing[slot]);
+            }
+        }
+        return max;
+    }
+    
+    // Share of wall time spent in collections over the window, 0-100
+    public synchronized double getPausePercent() {
+        long now = System.currentTimeMillis();
+        long pauseMs = 0;
+        for (int slot = 0; slot < WINDOW_MINUTES; slot++) {
+            if (inWindow(slot, now)) {
+                pauseMs += pauseTimeRing[slot];
+            }
+        }
+        long windowMs = Math.min(WINDOW_MINUTES * MINUTE_MS, Math.max(1, now - startedAt));
+        return pauseMs * 100.0 / windowMs;
+    }
+    
+    // Bytes allocated per second over the window
+    public synchronized double getAllocationRate() {
+        long now = System.currentTimeMillis();
+        long allocated = 0;
+        for (int slot = 0; slot < WINDOW_MINUTES; slot++) {
+            if (inWindow(slot, now)) {
+                allocated += allocatedRing[slot];
+            }
+        }
+        long windowMs = Math.min(WINDOW_MINUTES * MINUTE_MS, Math.max(1, now - startedAt));
+        return allocated * 1000.0 / windowMs;
+    }
+    
+    public synchronized List<CollectorStats> getCollectors() {
+        List<CollectorStats> copies = new ArrayList<>();
+        for (CollectorStats stats : collectors.values()) {
+            copies.add(stats.copy());
+        }
+        return copies;
+    }
+    
+    // Usage of each heap pool right after the last collection that collected it
+    public synchronized Map<String, MemoryUsage> getPoolsAfterGc() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(poolsAfterGc));
+    }
+    
+    // Old generation usage after the last collection of the old generation,
+    // null before the first one. Without a notification for it yet, the
+    // collection usage the JVM keeps for the tenured pool is used, which it
+    // only updates when it collects that pool.
+    public synchronized MemoryUsage getOldGenAfterGc() {
+        for (Map.Entry<String, MemoryUsage> entry : poolsAfterGc.entrySet()) {
+            if (isOldGen(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP || !isOldGen(pool.getName())) continue;
+            try {
+                MemoryUsage usage = pool.getCollectionUsage();
+                return usage != null && usage.getUsed() > 0 ? usage : null;
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+    
+    static boolean isOldGen(String poolName) {
+        return poolName.contains("Old Gen") || poolName.contains("Tenured");
+    }
+    
+    // Live memory pools: heap generations, metaspace and code cache
+    public List<MemoryPoolMXBean> getPools() {
+        List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.isValid()) {
+                pools.add(pool);
+            }
+        }
+        pools.sort((a, b) -> a.getType() == b.getType() ? 0 : a.getType() == MemoryType.HEAP ? -1 : 1);
+        return pools;
+    }
+}
@@ -0,0 +1,59 @@
+package com.resourcemonitor;
+
+// One record read back from the metrics history
+public final class HistoryPoint {
+    
+    private final long timestamp;
+    private final double tps;
+    private final double mspt;
+    private final double cpuUsage;
+    private final long heapUsed;
+    private final int players;
+    private final int chunks;
+    private final int entities;
+    
+    public HistoryPoint(long timestamp, double tps, double mspt, double cpuUsage, long heapUsed,
+                        int players, int chunks, int entities) {
+        this.timestamp = timestamp;
+        this.tps = tps;
+        this.mspt = mspt;
+        this.cpuUsage = cpuUsage;
+        this.heapUsed = heapUsed;
+        this.players = players;
+        this.chunks = chunks;
+        this.entities = entities;
+    }
+    
+    // Start of the interval this record covers (epoch millis)
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    public double getTps() {
+        return tps;
+    }
+    
+    public double getMspt() {
+        return mspt;
+    }
+    
+    public double getCpuUsage() {
+        return cpuUsage;
+    }
+    
+    public long getHeapUsed() {
+        return heapUsed;
+    }
+    
+    public int getPlayers() {
+        return players;
+    }
+    
+    public int getChunks() {
+        return chunks;
+    }
+    
+    public int getEntities() {
+        return entities;
+    }
+}
@@ -0,0 +1,64 @@
+package com.resourcemonitor;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+// Sampling and refresh periods in ticks, read from the intervals section of
+// the config. With adaptive sampling the sampler picks its next delay from
+// the snapshot it just took: faster while tick times are unstable, slower
+// while the server is empty or already overloaded, so a lag event never gets
+// extra monitoring work on top.
+public final class Intervals {
+    
+    private final long sampleTicks;
+    private final long overlayTicks;
+    private final long guiRefreshTicks;
+    private final boolean adaptive;
+    private final long minSampleTicks;
+    private final long maxSampleTicks;
+    private final double unstableSpreadMs;
+    private final double overloadMspt;
+    
+    public Intervals(ConfigurationSection config) {
+        this.sampleTicks = ticks(config, "sample", 20);
+        this.overlayTicks = ticks(config, "overlay", 30);
+        this.guiRefreshTicks = ticks(config, "gui-refresh", 200);
+        this.adaptive = config != null && config.getBoolean("adaptive.enabled", true);
+        this.minSampleTicks = Math.min(sampleTicks, ticks(config, "adaptive.min", 10));
+        this.maxSampleTicks = Math.max(sampleTicks, ticks(config, "adaptive.max", 100));
+        this.unstableSpreadMs = config != null ? config.getDouble("adaptive.unstable-spread-ms", 15) : 15;
+        this.overloadMspt = config != null ? config.getDouble("adaptive.overload-mspt", 100) : 100;
+    }
+    
+    private static long ticks(ConfigurationSection config, String path, long def) {
+        return Math.max(1, config != null ? config.getLong(path, def) : def);
+    }
+    
+    public long getSampleTicks() {
+        return sampleTicks;
+    }
+    
+    public long getOverlayTicks() {
+        return overlayTicks;
+    }
+    
+    public long getGuiRefreshTicks() {
+        return guiRefreshTicks;
+    }
+    
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+    
+    // Delay before the sample after this one
+    public long nextSampleTicks(MetricsSnapshot snapshot) {
+        if (!adaptive || snapshot == null) return sampleTicks;
+        
+        // Overloaded or nobody online: back off, there's nothing to gain from detail
+        if (snapshot.getMspt(TickMonitor.WINDOW_5S) > overloadMspt) return maxSampleTicks;
+        if (snapshot.getOnlinePlayers() == 0) return maxSampleTicks;
+        
+        // Tick times jumping around: sample closer together to catch it
+        if (snapshot.getMsptP95() - snapshot.getMsptP50() > unstableSpreadMs) return minSampleTicks;
+        return sampleTicks;
+    }
+}
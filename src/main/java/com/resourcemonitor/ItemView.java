@@ -0,0 +1,48 @@
+package com.resourcemonitor;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.Collections;
+import java.util.List;
+
+// The text of a GUI item, built off the main thread. Views are compared so
+// only slots whose content changed are turned into ItemStacks and sent.
+final class ItemView {
+    
+    private final Material material;
+    private final String name;
+    private final List<String> lore;
+    
+    ItemView(Material material, String name, List<String> lore) {
+        this.material = material;
+        this.name = name;
+        this.lore = Collections.unmodifiableList(lore);
+    }
+    
+    // Main thread only
+    ItemStack toItemStack() {
+        ItemStack item = new ItemStack(material);
+        ItemMeta meta = item.getItemMeta();
+        meta.setDisplayName(name);
+        if (!lore.isEmpty()) {
+            meta.setLore(lore);
+        }
+        item.setItemMeta(meta);
+        return item;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ItemView)) return false;
+        ItemView other = (ItemView) o;
+        return material == other.material && name.equals(other.name) && lore.equals(other.lore);
+    }
+    
+    @Override
+    public int hashCode() {
+        return 31 * (31 * material.hashCode() + name.hashCode()) + lore.hashCode();
+    }
+}
@@ -0,0 +1,59 @@
+package com.resourcemonitor;
+
+import java.util.Collections;
+import java.util.List;
+
+// One tick that ran longer than the spike threshold
+public final class LagSpike {
+    
+    private final long timestamp;
+    private final double durationMs;
+    private final int players;
+    private final int chunks;
+    private final int entities;
+    private final List<String> mainThreadTop;
+    private final String dumpFile;
+    
+    public LagSpike(long timestamp, double durationMs, int players, int chunks, int entities,
+                    List<String> mainThreadTop, String dumpFile) {
+        this.timestamp = timestamp;
+        this.durationMs = durationMs;
+        this.players = players;
+        this.chunks = chunks;
+        this.entities = entities;
+        this.mainThreadTop = Collections.unmodifiableList(mainThreadTop);
+        this.dumpFile = dumpFile;
+    }
+    
+    // When the spike was detected (epoch millis)
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    // Full length of the slow tick
+    public double getDurationMs() {
+        return durationMs;
+    }
+    
+    public int getPlayers() {
+        return players;
+    }
+    
+    public int getChunks() {
+        return chunks;
+    }
+    
+    public int getEntities() {
+        return entities;
+    }
+    
+    // Innermost frames of the main thread while the tick was still running
+    public List<String> getMainThreadTop() {
+        return mainThreadTop;
+    }
+    
+    // Name of the thread dump file, null if it could not be written
+    public String getDumpFile() {
+        return dumpFile;
+    }
+}
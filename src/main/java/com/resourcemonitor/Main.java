@@ -4,33 +4,92 @@ import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
+import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerToggleSneakEvent;
 import org.bukkit.event.player.AsyncPlayerChatEvent;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginDescriptionFile;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
-import java.lang.management.OperatingSystemMXBean;
-import java.text.DecimalFormat;
+import java.lang.management.MemoryUsage;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 public class Main extends JavaPlugin implements Listener {
     
-    private OperatingSystemMXBean osBean;
     private MemoryMXBean memoryBean;
-    private DecimalFormat df;
     private ResourceMonitorGUI gui;
+    private PluginBrowser pluginBrowser;
+    private TickMonitor tickMonitor;
+    private EntityCounter entityCounter;
+    private ContainerMonitor containerMonitor;
+    private ChunkHotspotIndex hotspotIndex;
+    private MetricsSampler metricsSampler;
+    private OverlayBroadcaster overlayBroadcaster;
+    private PluginProfiler pluginProfiler;
+    private SchedulerInspector schedulerInspector;
+    private StackProfiler stackProfiler;
+    private SpikeWatchdog spikeWatchdog;
+    private ThreadSampler threadSampler;
+    private NativeMemoryTracker nativeMemoryTracker;
+    private MetricsStore metricsStore;
+    private GcMonitor gcMonitor;
+    private MetricsExporter metricsExporter;
+    private SessionRegistry sessions;
+    private volatile Thresholds thresholds; // replaced on reload, read by async renderers
+    private volatile Intervals intervals;
+    private AlertEngine alertEngine;
+    
+    public Main() {
+        super();
+    }
+    
+    // Runs the plugin without a server's class loader, for the benchmarks
+    protected Main(JavaPluginLoader loader, PluginDescriptionFile description, File dataFolder, File file) {
+        super(loader, description, dataFolder, file);
+    }
     
     @Override
     public void onEnable() {
-        this.osBean = ManagementFactory.getOperatingSystemMXBean();
+        saveDefaultConfig();
+        
         this.memoryBean = ManagementFactory.getMemoryMXBean();
-        this.df = new DecimalFormat("#.##");
+        this.thresholds = new Thresholds(getConfig().getConfigurationSection("thresholds"));
+        this.intervals = new Intervals(getConfig().getConfigurationSection("intervals"));
+        this.tickMonitor = new TickMonitor();
+        this.entityCounter = new EntityCounter();
+        this.hotspotIndex = new ChunkHotspotIndex();
+        this.containerMonitor = new ContainerMonitor(getLogger());
+        this.metricsSampler = new MetricsSampler(tickMonitor, entityCounter, containerMonitor, intervals);
         this.gui = new ResourceMonitorGUI(this);
+        this.pluginBrowser = new PluginBrowser(this);
+        this.overlayBroadcaster = new OverlayBroadcaster(gui);
+        this.sessions = new SessionRegistry(this);
+        this.alertEngine = new AlertEngine(this, getConfig().getConfigurationSection("alerts"));
+        this.pluginProfiler = new PluginProfiler(this, tickMonitor);
+        this.schedulerInspector = new SchedulerInspector(this, tickMonitor);
+        this.stackProfiler = new StackProfiler(this);
+        this.spikeWatchdog = new SpikeWatchdog(this, tickMonitor,
+            getConfig().getLong("spikes.threshold-ms", 100),
+            getConfig().getLong("spikes.poll-interval-ms", 10),
+            getConfig().getInt("spikes.max-files", 50));
+        this.threadSampler = new ThreadSampler(this);
+        this.nativeMemoryTracker = new NativeMemoryTracker(this);
+        this.metricsStore = new MetricsStore(this);
+        this.gcMonitor = new GcMonitor(getLogger());
+        this.metricsExporter = new MetricsExporter(this,
+            getConfig().getString("metrics-exporter.bind-address", "127.0.0.1"),
+            getConfig().getInt("metrics-exporter.port", 9225));
         
         // Display introduction and branding
         getLogger().info("=====================================");
@@ -48,11 +107,154 @@ public class Main extends JavaPlugin implements Listener {
         
         // Register GUI event listener and main listener for hotkeys
         getServer().getPluginManager().registerEvents(gui, this);
+        getServer().getPluginManager().registerEvents(pluginBrowser, this);
         getServer().getPluginManager().registerEvents(this, this);
+        getServer().getPluginManager().registerEvents(pluginProfiler, this);
+        getServer().getPluginManager().registerEvents(entityCounter, this);
+        getServer().getPluginManager().registerEvents(sessions, this);
+        getServer().getPluginManager().registerEvents(threadSampler, this);
+        
+        // Start measuring tick times and sampling metrics
+        tickMonitor.start(this);
+        gcMonitor.start();
+        entityCounter.start(this);
+        hotspotIndex.start(this);
+        metricsSampler.start(this);
+        nativeMemoryTracker.start();
+        if (getConfig().getBoolean("history.enabled", true)) {
+            metricsStore.start();
+        }
+        overlayBroadcaster.start(this, intervals.getOverlayTicks());
+        sessions.start();
+        pluginProfiler.setCpuTimeConfigured(getConfig().getBoolean("profiler.cpu-time", false));
+        pluginProfiler.start();
+        schedulerInspector.start();
+        if (getConfig().getBoolean("event-timing.enabled", false)) {
+            pluginProfiler.startEventTiming();
+        }
+        if (getConfig().getBoolean("spikes.enabled", true)) {
+            spikeWatchdog.start();
+        }
+        if (getConfig().getBoolean("threads.enabled", true)) {
+            threadSampler.start();
+        }
+        if (getConfig().getBoolean("alerts.enabled", true)) {
+            alertEngine.start();
+        }
+        if (getConfig().getBoolean("metrics-exporter.enabled", false)) {
+            startMetricsExporter();
+        }
+    }
+    
+    private void startMetricsExporter() {
+        try {
+            metricsExporter.start();
+            getLogger().info("Serving metrics on port " + getConfig().getInt("metrics-exporter.port", 9225));
+        } catch (IOException e) {
+            getLogger().warning("Could not start the metrics exporter: " + e.getMessage());
+        }
+    }
+    
+    // Re-reads config.yml and restarts whatever depends on it. Collected data
+    // (tick windows, history, profiler and event timing results) is kept.
+    private void reloadSettings() {
+        reloadConfig();
+        
+        thresholds = new Thresholds(getConfig().getConfigurationSection("thresholds"));
+        intervals = new Intervals(getConfig().getConfigurationSection("intervals"));
+        metricsSampler.setIntervals(intervals);
+        metricsSampler.start(this);
+        overlayBroadcaster.start(this, intervals.getOverlayTicks());
+        gui.restartAutoRefresh();
+        
+        spikeWatchdog.configure(
+            getConfig().getLong("spikes.threshold-ms", 100),
+            getConfig().getLong("spikes.poll-interval-ms", 10),
+            getConfig().getInt("spikes.max-files", 50));
+        if (getConfig().getBoolean("spikes.enabled", true)) {
+            spikeWatchdog.start();
+        } else {
+            spikeWatchdog.stop();
+        }
+        
+        if (getConfig().getBoolean("threads.enabled", true)) {
+            threadSampler.start();
+        } else {
+            threadSampler.stop();
+        }
+        
+        pluginProfiler.setCpuTimeConfigured(getConfig().getBoolean("profiler.cpu-time", false));
+        
+        boolean history = getConfig().getBoolean("history.enabled", true);
+        if (history && !metricsStore.isRunning()) {
+            metricsStore.start();
+        } else if (!history && metricsStore.isRunning()) {
+            metricsStore.stop();
+        }
+        
+        alertEngine.stop();
+        alertEngine = new AlertEngine(this, getConfig().getConfigurationSection("alerts"));
+        if (getConfig().getBoolean("alerts.enabled", true)) {
+            alertEngine.start();
+        }
+        
+        metricsExporter.stop();
+        metricsExporter = new MetricsExporter(this,
+            getConfig().getString("metrics-exporter.bind-address", "127.0.0.1"),
+            getConfig().getInt("metrics-exporter.port", 9225));
+        if (getConfig().getBoolean("metrics-exporter.enabled", false)) {
+            startMetricsExporter();
+        }
     }
     
     @Override
     public void onDisable() {
+        if (metricsExporter != null) {
+            metricsExporter.stop();
+        }
+        if (alertEngine != null) {
+            alertEngine.stop();
+        }
+        if (spikeWatchdog != null) {
+            spikeWatchdog.stop();
+        }
+        if (threadSampler != null) {
+            threadSampler.stop();
+        }
+        if (stackProfiler != null) {
+            stackProfiler.stop();
+        }
+        if (schedulerInspector != null) {
+            schedulerInspector.stop();
+        }
+        if (pluginProfiler != null) {
+            pluginProfiler.stop();
+        }
+        if (overlayBroadcaster != null) {
+            overlayBroadcaster.stop();
+        }
+        if (metricsStore != null) {
+            metricsStore.stop();
+        }
+        if (nativeMemoryTracker != null) {
+            nativeMemoryTracker.stop();
+        }
+        if (metricsSampler != null) {
+            metricsSampler.stop();
+        }
+        if (hotspotIndex != null) {
+            hotspotIndex.stop();
+        }
+        if (entityCounter != null) {
+            entityCounter.stop();
+        }
+        if (gcMonitor != null) {
+            gcMonitor.stop();
+        }
+        if (tickMonitor != null) {
+            tickMonitor.stop();
+        }
+        
         getLogger().info("=====================================");
         getLogger().info("  ResourceMonitor Plugin disabled    ");
         getLogger().info("         by S Development            ");
@@ -70,12 +272,28 @@ public class Main extends JavaPlugin implements Listener {
                 return true;
             }
             
+            if (args.length > 0 && args[0].equalsIgnoreCase("profile")) {
+                return handleProfileCommand(sender, args);
+            }
+            if (args.length > 0 && args[0].equalsIgnoreCase("history")) {
+                return handleHistoryCommand(sender, args);
+            }
+            if (args.length > 0 && args[0].equalsIgnoreCase("events")) {
+                return handleEventsCommand(sender, args);
+            }
+            if (args.length > 0 && args[0].equalsIgnoreCase("tasks")) {
+                return handleTasksCommand(sender);
+            }
+            if (args.length > 0 && args[0].equalsIgnoreCase("reload")) {
+                return handleReloadCommand(sender);
+            }
+            
             // Always open GUI for players, console gets basic info
             if (sender instanceof Player) {
                 Player player = (Player) sender;
                 
                 // Welcome message for first-time users
-                if (!gui.hasSeenWelcome(player)) {
+                if (!sessions.hasSeenWelcome(player)) {
                     player.sendMessage(ChatColor.GOLD + "==============================================");
                     player.sendMessage(ChatColor.GREEN + "       Welcome to ResourceMonitor!          ");
                     player.sendMessage(ChatColor.BLUE + "            by S Development                 ");
@@ -83,7 +301,7 @@ public class Main extends JavaPlugin implements Listener {
                     player.sendMessage(ChatColor.YELLOW + "Commands: " + ChatColor.WHITE + "/rm or /resourcemonitor");
                     player.sendMessage(ChatColor.YELLOW + "Overlay Hotkey: " + ChatColor.WHITE + "Type 'overlay' in chat");
                     player.sendMessage(ChatColor.GRAY + "Click the gray wool for overlay mode!");
-                    gui.markWelcomeSeen(player);
+                    sessions.markWelcomeSeen(player);
                 }
                 
                 gui.openGUI(player);
@@ -92,29 +310,118 @@ public class Main extends JavaPlugin implements Listener {
                 // Console info
                 sender.sendMessage(ChatColor.GREEN + "=== Server Resource Information ===");
                 
+                MetricsSnapshot metrics = metricsSampler.getSnapshot();
+                
                 // CPU info
-                double cpuUsage = getCpuUsage();
+                double cpuUsage = metrics.getCpuUsage();
                 String cpuColor = getCpuColor(cpuUsage);
-                sender.sendMessage(ChatColor.YELLOW + "CPU Usage: " + cpuColor + df.format(cpuUsage) + "%");
+                ContainerUsage container = metrics.getContainer();
+                sender.sendMessage(ChatColor.YELLOW + "CPU Usage: " + cpuColor + TextFormat.percent(cpuUsage) +
+                    (container.hasCpuLimit() ? ChatColor.GRAY + " of a " + TextFormat.decimal(container.getCpuLimitCores()) + " core quota" : ""));
+                if (container.getThrottledPercent() >= 0) {
+                    sender.sendMessage(ChatColor.YELLOW + "CPU Throttled: " + getThrottleColor(container.getThrottledPercent()) +
+                        TextFormat.percent(container.getThrottledPercent()) + " of periods" + ChatColor.GRAY + " (" +
+                        TextFormat.decimal(container.getThrottledMillisPerSecond()) + "ms/s, " +
+                        TextFormat.duration(container.getThrottledTotalMillis()) + " in total)");
+                }
+                List<ThreadUsage> threadGroups = threadSampler.getGroups();
+                if (!threadGroups.isEmpty()) {
+                    sender.sendMessage(ChatColor.YELLOW + "Thread CPU (% of one core):");
+                    for (int i = 0; i < Math.min(5, threadGroups.size()); i++) {
+                        ThreadUsage group = threadGroups.get(i);
+                        sender.sendMessage(ChatColor.GRAY + "  " + group.getName() + ": " + ChatColor.WHITE +
+                            TextFormat.percent(group.getCpuPercent()) + ChatColor.GRAY + " (" + group.getThreads() +
+                            (group.getThreads() == 1 ? " thread)" : " threads)"));
+                    }
+                }
+                
+                // Tick info
+                double tps5s = metrics.getTps(TickMonitor.WINDOW_5S);
+                double tps1m = metrics.getTps(TickMonitor.WINDOW_1M);
+                double tps5m = metrics.getTps(TickMonitor.WINDOW_5M);
+                double tps15m = metrics.getTps(TickMonitor.WINDOW_15M);
+                sender.sendMessage(ChatColor.YELLOW + "TPS (5s, 1m, 5m, 15m): " +
+                    getTpsColor(tps5s) + TextFormat.decimal(tps5s) + ChatColor.GRAY + ", " +
+                    getTpsColor(tps1m) + TextFormat.decimal(tps1m) + ChatColor.GRAY + ", " +
+                    getTpsColor(tps5m) + TextFormat.decimal(tps5m) + ChatColor.GRAY + ", " +
+                    getTpsColor(tps15m) + TextFormat.decimal(tps15m));
+                
+                double mspt = metrics.getMspt(TickMonitor.WINDOW_1M);
+                sender.sendMessage(ChatColor.YELLOW + "MSPT (1m avg): " + getMsptColor(mspt) + TextFormat.decimal(mspt) + "ms");
+                sender.sendMessage(ChatColor.YELLOW + "MSPT (p50/p95/p99/max): " + ChatColor.WHITE +
+                    TextFormat.decimal(metrics.getMsptP50()) + "/" +
+                    TextFormat.decimal(metrics.getMsptP95()) + "/" +
+                    TextFormat.decimal(metrics.getMsptP99()) + "/" +
+                    TextFormat.decimal(metrics.getMsptMax()) + "ms");
                 
                 // Memory info
-                Runtime runtime = Runtime.getRuntime();
-                long totalMemory = runtime.totalMemory();
-                long usedMemory = totalMemory - runtime.freeMemory();
-                long maxMemory = runtime.maxMemory();
-                double memoryUsagePercent = (double) usedMemory / maxMemory * 100;
+                long totalMemory = metrics.getTotalMemory();
+                long usedMemory = metrics.getUsedMemory();
+                long maxMemory = metrics.getMaxMemory();
+                double memoryUsagePercent = metrics.getMemoryUsagePercent();
                 String memColor = getMemoryColor(memoryUsagePercent);
                 
-                sender.sendMessage(ChatColor.YELLOW + "Memory Usage: " + memColor + df.format(memoryUsagePercent) + "%");
-                sender.sendMessage(ChatColor.YELLOW + "Used Memory: " + ChatColor.WHITE + formatBytes(usedMemory));
-                sender.sendMessage(ChatColor.YELLOW + "Max Memory: " + ChatColor.WHITE + formatBytes(maxMemory));
-                sender.sendMessage(ChatColor.YELLOW + "Total Memory: " + ChatColor.WHITE + formatBytes(totalMemory));
+                sender.sendMessage(ChatColor.YELLOW + "Memory Usage: " + memColor + TextFormat.percent(memoryUsagePercent));
+                sender.sendMessage(ChatColor.YELLOW + "Used Memory: " + ChatColor.WHITE + TextFormat.bytes(usedMemory));
+                sender.sendMessage(ChatColor.YELLOW + "Max Memory: " + ChatColor.WHITE + TextFormat.bytes(maxMemory));
+                sender.sendMessage(ChatColor.YELLOW + "Total Memory: " + ChatColor.WHITE + TextFormat.bytes(totalMemory));
+                if (container.getRss() >= 0) {
+                    if (container.hasMemoryLimit()) {
+                        double rssPercent = container.getRssPercentOfLimit();
+                        sender.sendMessage(ChatColor.YELLOW + "Process RSS: " + getMemoryColor(rssPercent) + TextFormat.bytes(container.getRss()) +
+                            ChatColor.WHITE + " / " + TextFormat.bytes(container.getMemoryLimit()) + " container limit" +
+                            ChatColor.GRAY + " (" + TextFormat.percent(rssPercent) + ")");
+                    } else {
+                        sender.sendMessage(ChatColor.YELLOW + "Process RSS: " + ChatColor.WHITE + TextFormat.bytes(container.getRss()));
+                    }
+                }
+                if (container.getMemoryUsage() >= 0 && container.hasMemoryLimit()) {
+                    sender.sendMessage(ChatColor.YELLOW + "Container Memory: " + getMemoryColor(container.getMemoryPercentOfLimit()) +
+                        TextFormat.bytes(container.getMemoryUsage()) + ChatColor.GRAY + " (with page cache)");
+                }
+                
+                // Native memory, growth fitted over the last hour
+                sender.sendMessage(ChatColor.YELLOW + "Native Memory (1h growth):");
+                for (MemoryComponent component : nativeMemoryTracker.getComponents()) {
+                    if (component.getKey().equals("heap") || component.getKey().equals("rss")) continue;
+                    sender.sendMessage(ChatColor.GRAY + "  " + component.getName() + ": " + ChatColor.WHITE +
+                        TextFormat.bytes(component.getBytes()) + ChatColor.GRAY + " (" +
+                        TextFormat.growth(component.getGrowthPerHour1h()) + ")");
+                }
+                
+                // GC info
+                MemoryUsage oldGen = gcMonitor.getOldGenAfterGc();
+                if (oldGen != null && oldGen.getMax() > 0) {
+                    double oldGenPercent = oldGen.getUsed() * 100.0 / oldGen.getMax();
+                    sender.sendMessage(ChatColor.YELLOW + "Old Gen after GC: " + getMemoryColor(oldGenPercent) +
+                        TextFormat.percent(oldGenPercent) + ChatColor.WHITE + " (" + TextFormat.bytes(oldGen.getUsed()) + ")");
+                }
+                sender.sendMessage(ChatColor.YELLOW + "GC Pauses (15m p50/p99/max): " + ChatColor.WHITE +
+                    gcMonitor.getPausePercentile(0.50) + "/" + gcMonitor.getPausePercentile(0.99) + "/" +
+                    gcMonitor.getMaxPause() + "ms" + ChatColor.GRAY + " (" + gcMonitor.getPauseCount() + " pauses)");
+                sender.sendMessage(ChatColor.YELLOW + "Allocation Rate: " + ChatColor.WHITE +
+                    TextFormat.bytes((long) gcMonitor.getAllocationRate()) + "/s");
                 
                 // Server info
-                int onlinePlayers = Bukkit.getOnlinePlayers().size();
-                int maxPlayers = Bukkit.getMaxPlayers();
+                int onlinePlayers = metrics.getOnlinePlayers();
+                int maxPlayers = metrics.getMaxPlayers();
                 sender.sendMessage(ChatColor.YELLOW + "Players Online: " + ChatColor.AQUA + onlinePlayers + "/" + maxPlayers);
                 
+                // World info
+                sender.sendMessage(ChatColor.YELLOW + "Loaded Chunks: " + ChatColor.AQUA + metrics.getLoadedChunks() +
+                    ChatColor.YELLOW + ", Entities: " + ChatColor.AQUA + metrics.getEntities());
+                for (EntityCounter.WorldCounts world : entityCounter.getWorlds().values()) {
+                    StringBuilder types = new StringBuilder();
+                    List<Map.Entry<EntityType, Integer>> typeCounts = world.getTypeCounts();
+                    for (int i = 0; i < Math.min(3, typeCounts.size()); i++) {
+                        if (i > 0) types.append(", ");
+                        types.append(typeCounts.get(i).getKey().name().toLowerCase()).append(' ').append(typeCounts.get(i).getValue());
+                    }
+                    sender.sendMessage(ChatColor.GRAY + "  " + world.getWorldName() + ": " + ChatColor.WHITE +
+                        world.getChunks() + " chunks, " + world.getEntities() + " entities" +
+                        (types.length() > 0 ? ChatColor.GRAY + " (" + types + ")" : ""));
+                }
+                
                 // Plugin count
                 List<Plugin> plugins = List.of(Bukkit.getPluginManager().getPlugins());
                 sender.sendMessage(ChatColor.YELLOW + "Loaded Plugins: " + ChatColor.GREEN + plugins.size());
@@ -126,29 +433,236 @@ public class Main extends JavaPlugin implements Listener {
     }
     
     public double getCpuUsage() {
-        if (osBean instanceof com.sun.management.OperatingSystemMXBean) {
-            return ((com.sun.management.OperatingSystemMXBean) osBean).getProcessCpuLoad() * 100;
+        return metricsSampler.getSnapshot().getCpuUsage();
+    }
+    
+    // /rm profile start [intervalMs] | stop
+    private boolean handleProfileCommand(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("resourcemonitor.profile")) {
+            sender.sendMessage(ChatColor.RED + "You don't have permission to use the profiler!");
+            return true;
+        }
+        
+        String action = args.length > 1 ? args[1].toLowerCase() : "";
+        if (action.equals("start")) {
+            int interval = StackProfiler.DEFAULT_INTERVAL_MS;
+            if (args.length > 2) {
+                try {
+                    interval = Integer.parseInt(args[2]);
+                } catch (NumberFormatException e) {
+                    sender.sendMessage(ChatColor.RED + "Invalid interval: " + args[2]);
+                    return true;
+                }
+                if (interval < 1 || interval > 1000) {
+                    sender.sendMessage(ChatColor.RED + "Interval must be between 1 and 1000 ms");
+                    return true;
+                }
+            }
+            
+            if (stackProfiler.start(interval)) {
+                pluginProfiler.refreshCpuTiming();
+                sender.sendMessage(ChatColor.GREEN + "Profiler started, sampling the main thread every " + interval + "ms");
+                sender.sendMessage(ChatColor.GRAY + "Use /rm profile stop to write the flame graph file");
+            } else {
+                sender.sendMessage(ChatColor.RED + "The profiler is already running!");
+            }
+        } else if (action.equals("stop")) {
+            long seconds = (System.currentTimeMillis() - stackProfiler.getStartedAt()) / 1000;
+            StackTrie samples = stackProfiler.stop();
+            pluginProfiler.refreshCpuTiming();
+            if (samples == null) {
+                sender.sendMessage(ChatColor.RED + "The profiler is not running!");
+                return true;
+            }
+            
+            sender.sendMessage(ChatColor.YELLOW + "Profiler stopped after " + seconds + "s, writing " + samples.getTotalSamples() + " samples...");
+            
+            // Write the file off the main thread
+            Bukkit.getScheduler().runTaskAsynchronously(this, () -> {
+                try {
+                    File file = stackProfiler.export(samples);
+                    Bukkit.getScheduler().runTask(this, () -> {
+                        sender.sendMessage(ChatColor.GREEN + "Profile saved to " + ChatColor.WHITE + file.getPath());
+                        sender.sendMessage(ChatColor.GRAY + "Busy samples: " + samples.getTotalSamples() +
+                                ", idle samples: " + samples.getIdleSamples() +
+                                ", unique frames: " + samples.getFrameCount());
+                    });
+                } catch (IOException e) {
+                    getLogger().warning("Could not write profile: " + e.getMessage());
+                    Bukkit.getScheduler().runTask(this, () ->
+                        sender.sendMessage(ChatColor.RED + "Could not write profile: " + e.getMessage()));
+                }
+            });
+        } else {
+            sender.sendMessage(ChatColor.YELLOW + "Usage: /rm profile start [intervalMs] | stop");
+        }
+        return true;
+    }
+    
+    // /rm events start | stop
+    private boolean handleEventsCommand(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("resourcemonitor.profile")) {
+            sender.sendMessage(ChatColor.RED + "You don't have permission to use the profiler!");
+            return true;
+        }
+        
+        String action = args.length > 1 ? args[1].toLowerCase() : "";
+        if (action.equals("start")) {
+            if (pluginProfiler.startEventTiming()) {
+                sender.sendMessage(ChatColor.GREEN + "Event timing started for every listener");
+                sender.sendMessage(ChatColor.GRAY + "See the Events page under Plugin Details, /rm events stop to end it");
+            } else {
+                sender.sendMessage(ChatColor.RED + "Event timing is already running!");
+            }
+        } else if (action.equals("stop")) {
+            if (pluginProfiler.stopEventTiming()) {
+                sender.sendMessage(ChatColor.YELLOW + "Event timing stopped, the last results stay on the Events page");
+            } else {
+                sender.sendMessage(ChatColor.RED + "Event timing is not running!");
+            }
+        } else {
+            sender.sendMessage(ChatColor.YELLOW + "Usage: /rm events start | stop");
+        }
+        return true;
+    }
+    
+    // /rm tasks
+    private boolean handleTasksCommand(CommandSender sender) {
+        if (!sender.hasPermission("resourcemonitor.listplugins")) {
+            sender.sendMessage(ChatColor.RED + "You don't have permission to view plugin details!");
+            return true;
+        }
+        if (schedulerInspector.getInspectedAt() == 0) {
+            sender.sendMessage(ChatColor.YELLOW + "The scheduler hasn't been inspected yet, try again in a few seconds");
+            return true;
+        }
+        
+        sender.sendMessage(ChatColor.GREEN + "=== Scheduler Tasks ===");
+        sender.sendMessage(ChatColor.YELLOW + "Pending: " + ChatColor.WHITE + schedulerInspector.getTotalTasks() +
+            ChatColor.YELLOW + "  Async workers busy: " + ChatColor.WHITE + schedulerInspector.getTotalWorkers());
+        List<PluginTasks> plugins = schedulerInspector.getPlugins();
+        for (int i = 0; i < Math.min(10, plugins.size()); i++) {
+            PluginTasks tasks = plugins.get(i);
+            String line = ChatColor.YELLOW + tasks.getPluginName() + ": " + ChatColor.WHITE + tasks.getSyncTasks() + " sync, " +
+                tasks.getAsyncTasks() + " async, " + TextFormat.decimal(tasks.getSyncMsPerTick()) + " ms/tick";
+            if (tasks.isGrowing()) {
+                line += ChatColor.RED + " (+" + tasks.getGrowth() + " tasks, still growing)";
+            }
+            sender.sendMessage(line);
+        }
+        if (plugins.size() > 10) {
+            sender.sendMessage(ChatColor.GRAY + "... and " + (plugins.size() - 10) + " more, see Scheduler Tasks under Plugin Details");
+        }
+        sender.sendMessage(ChatColor.GRAY + "Tasks are timed once a profiler scan (every 5s) has seen them pending, " +
+            "so runTask/runTaskLater tasks that run sooner are not counted");
+        return true;
+    }
+    
+    // /rm reload
+    private boolean handleReloadCommand(CommandSender sender) {
+        if (!sender.hasPermission("resourcemonitor.reload")) {
+            sender.sendMessage(ChatColor.RED + "You don't have permission to reload the config!");
+            return true;
+        }
+        
+        reloadSettings();
+        sender.sendMessage(ChatColor.GREEN + "ResourceMonitor config reloaded");
+        sender.sendMessage(ChatColor.GRAY + "Sampling every " + intervals.getSampleTicks() + " ticks" +
+            (intervals.isAdaptive() ? " (adaptive)" : "") + ", overlay every " + intervals.getOverlayTicks() +
+            " ticks, GUI every " + intervals.getGuiRefreshTicks() + " ticks, " + alertEngine.getRuleCount() + " alert rules");
+        return true;
+    }
+    
+    // /rm history [hours]
+    private boolean handleHistoryCommand(CommandSender sender, String[] args) {
+        if (!getConfig().getBoolean("history.enabled", true)) {
+            sender.sendMessage(ChatColor.RED + "Metrics history is disabled in the config!");
+            return true;
+        }
+        
+        int hours = 1;
+        if (args.length > 1) {
+            try {
+                hours = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                sender.sendMessage(ChatColor.RED + "Invalid number of hours: " + args[1]);
+                return true;
+            }
+            if (hours < 1 || hours > 24 * 365) {
+                sender.sendMessage(ChatColor.RED + "Hours must be between 1 and " + (24 * 365));
+                return true;
+            }
+        }
+        
+        long to = System.currentTimeMillis();
+        long from = to - hours * 3_600_000L;
+        int span = hours;
+        
+        // Segment files are read off the main thread
+        Bukkit.getScheduler().runTaskAsynchronously(this, () -> {
+            List<HistoryPoint> points = metricsStore.query(from, to);
+            Bukkit.getScheduler().runTask(this, () -> sendHistory(sender, points, from, to, span));
+        });
+        return true;
+    }
+    
+    // Prints the history in 12 rows, each the average of its slice with the worst MSPT
+    private void sendHistory(CommandSender sender, List<HistoryPoint> points, long from, long to, int hours) {
+        sender.sendMessage(ChatColor.GREEN + "=== Server History (last " + hours + "h) ===");
+        if (points.isEmpty()) {
+            sender.sendMessage(ChatColor.GRAY + "No history recorded for this period yet");
+            return;
+        }
+        
+        int rows = 12;
+        long slice = Math.max(1, (to - from) / rows);
+        SimpleDateFormat timeFormat = new SimpleDateFormat(hours > 24 ? "MM-dd HH:mm" : "HH:mm");
+        int index = 0;
+        for (int row = 0; row < rows; row++) {
+            long end = from + (row + 1) * slice;
+            double tps = 0, cpu = 0, worstMspt = 0;
+            long heap = 0;
+            int players = 0, count = 0;
+            while (index < points.size() && points.get(index).getTimestamp() < end) {
+                HistoryPoint point = points.get(index++);
+                tps += point.getTps();
+                cpu += point.getCpuUsage();
+                heap += point.getHeapUsed();
+                players = Math.max(players, point.getPlayers());
+                worstMspt = Math.max(worstMspt, point.getMspt());
+                count++;
+            }
+            if (count == 0) continue;
+            
+            tps /= count;
+            cpu /= count;
+            sender.sendMessage(ChatColor.GRAY + timeFormat.format(new Date(from + row * slice)) + " " +
+                ChatColor.YELLOW + "TPS " + getTpsColor(tps) + TextFormat.decimal(tps) +
+                ChatColor.YELLOW + " MSPT " + getMsptColor(worstMspt) + TextFormat.decimal(worstMspt) +
+                ChatColor.YELLOW + " CPU " + getCpuColor(cpu) + TextFormat.percent(cpu) +
+                ChatColor.YELLOW + " RAM " + ChatColor.WHITE + TextFormat.bytes(heap / count) +
+                ChatColor.YELLOW + " Players " + ChatColor.AQUA + players);
         }
-        return osBean.getSystemLoadAverage();
     }
     
     public String getCpuColor(double cpuUsage) {
-        if (cpuUsage < 30) return ChatColor.GREEN.toString();
-        else if (cpuUsage < 70) return ChatColor.YELLOW.toString();
-        else return ChatColor.RED.toString();
+        return thresholds.cpuColor(cpuUsage);
     }
     
     public String getMemoryColor(double memoryUsage) {
-        if (memoryUsage < 50) return ChatColor.GREEN.toString();
-        else if (memoryUsage < 80) return ChatColor.YELLOW.toString();
-        else return ChatColor.RED.toString();
+        return thresholds.memoryColor(memoryUsage);
+    }
+    
+    public String getThrottleColor(double throttledPercent) {
+        return thresholds.throttledColor(throttledPercent);
     }
     
-    private String formatBytes(long bytes) {
-        if (bytes < 1024) return bytes + " B";
-        int exp = (int) (Math.log(bytes) / Math.log(1024));
-        String pre = "KMGTPE".charAt(exp - 1) + "";
-        return df.format(bytes / Math.pow(1024, exp)) + " " + pre + "B";
+    public String getTpsColor(double tps) {
+        return thresholds.tpsColor(tps);
+    }
+    
+    public String getMsptColor(double mspt) {
+        return thresholds.msptColor(mspt);
     }
     
     // Hotkey system - F3+R simulation via chat commands
@@ -199,4 +713,84 @@ public class Main extends JavaPlugin implements Listener {
     public ResourceMonitorGUI getGUI() {
         return gui;
     }
+    
+    public TickMonitor getTickMonitor() {
+        return tickMonitor;
+    }
+    
+    public ContainerMonitor getContainerMonitor() {
+        return containerMonitor;
+    }
+    
+    public EntityCounter getEntityCounter() {
+        return entityCounter;
+    }
+    
+    public ChunkHotspotIndex getHotspotIndex() {
+        return hotspotIndex;
+    }
+    
+    public MetricsSampler getMetricsSampler() {
+        return metricsSampler;
+    }
+    
+    public OverlayBroadcaster getOverlayBroadcaster() {
+        return overlayBroadcaster;
+    }
+    
+    public SessionRegistry getSessions() {
+        return sessions;
+    }
+    
+    public Thresholds getThresholds() {
+        return thresholds;
+    }
+    
+    public Intervals getIntervals() {
+        return intervals;
+    }
+    
+    public AlertEngine getAlertEngine() {
+        return alertEngine;
+    }
+    
+    public PluginProfiler getPluginProfiler() {
+        return pluginProfiler;
+    }
+    
+    public PluginBrowser getPluginBrowser() {
+        return pluginBrowser;
+    }
+    
+    public SchedulerInspector getSchedulerInspector() {
+        return schedulerInspector;
+    }
+    
+    public StackProfiler getStackProfiler() {
+        return stackProfiler;
+    }
+    
+    public SpikeWatchdog getSpikeWatchdog() {
+        return spikeWatchdog;
+    }
+    
+    public ThreadSampler getThreadSampler() {
+        return threadSampler;
+    }
+    
+    public NativeMemoryTracker getNativeMemoryTracker() {
+        return nativeMemoryTracker;
+    }
+    
+    public GcMonitor getGcMonitor() {
+        return gcMonitor;
+    }
+    
+    public MetricsExporter getMetricsExporter() {
+        return metricsExporter;
+    }
+    
+    public MetricsStore getMetricsStore() {
+        return metricsStore;
+    }
 }
\ No newline at end of file
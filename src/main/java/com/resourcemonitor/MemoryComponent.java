@@ -0,0 +1,43 @@
+package com.resourcemonitor;
+
+// One part of the process's memory and how fast it has been growing
+public final class MemoryComponent {
+    
+    private final String key;
+    private final String name;
+    private final long bytes;
+    private final double growthPerHour1h;
+    private final double growthPerHour6h;
+    
+    public MemoryComponent(String key, String name, long bytes, double growthPerHour1h, double growthPerHour6h) {
+        this.key = key;
+        this.name = name;
+        this.bytes = bytes;
+        this.growthPerHour1h = growthPerHour1h;
+        this.growthPerHour6h = growthPerHour6h;
+    }
+    
+    // Label for exported metrics, like "metaspace"
+    public String getKey() {
+        return key;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    // Negative when it couldn't be measured
+    public long getBytes() {
+        return bytes;
+    }
+    
+    // Bytes per hour fitted over the last hour, NaN until there are enough samples
+    public double getGrowthPerHour1h() {
+        return growthPerHour1h;
+    }
+    
+    // Bytes per hour fitted over the last six hours, NaN until there are enough samples
+    public double getGrowthPerHour6h() {
+        return growthPerHour6h;
+    }
+}
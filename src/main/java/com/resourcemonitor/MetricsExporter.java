@@ -0,0 +1,317 @@
+package com.resourcemonitor;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Serves the sampled metrics in OpenMetrics text format for Prometheus.
+// Scrapes are answered on one background thread from the published
+// snapshots only, rendered into a reused buffer, and the encoded response is
+// reused as-is until a new snapshot is published.
+public class MetricsExporter {
+    
+    private static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+    private static final String[] WINDOW_NAMES = {"5s", "1m", "5m", "15m"};
+    
+    private final Main plugin;
+    private final String host;
+    private final int port;
+    
+    private HttpServer server;
+    private ExecutorService executor;
+    
+    // Render state, only touched by the exporter thread
+    private final StringBuilder text = new StringBuilder(16 * 1024);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private ByteBuffer body = ByteBuffer.allocate(16 * 1024);
+    private MetricsSnapshot renderedSnapshot;
+    private Map<String, PluginTiming> renderedTimings;
+    
+    public MetricsExporter(Main plugin, String host, int port) {
+        this.plugin = plugin;
+        this.host = host;
+        this.port = port;
+    }
+    
+    public synchronized void start() throws IOException {
+        stop();
+        
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ResourceMonitor Metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        server.createContext("/metrics", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+    
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("HEAD")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            
+            render();
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if (method.equals("HEAD")) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.limit());
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body.array(), 0, body.limit());
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+    
+    // Re-renders only when the sampler or profiler published something new;
+    // the GC counters ride along with the next sample
+    private void render() {
+        MetricsSnapshot snapshot = plugin.getMetricsSampler().getSnapshot();
+        Map<String, PluginTiming> timings = plugin.getPluginProfiler().getTimings();
+        if (snapshot == renderedSnapshot && timings == renderedTimings) return;
+        
+        text.setLength(0);
+        writeMetrics(snapshot, timings);
+        encode();
+        renderedSnapshot = snapshot;
+        renderedTimings = timings;
+    }
+    
+    private void encode() {
+        while (true) {
+            body.clear();
+            encoder.reset();
+            CoderResult result = encoder.encode(CharBuffer.wrap(text), body, true);
+            if (!result.isOverflow()) {
+                encoder.flush(body);
+                body.flip();
+                return;
+            }
+            body = ByteBuffer.allocate(body.capacity() * 2);
+        }
+    }
+    
+    private void writeMetrics(MetricsSnapshot snapshot, Map<String, PluginTiming> timings) {
+        header("resourcemonitor_tps", "gauge", "Ticks per second over the window");
+        for (int w = 0; w < WINDOW_NAMES.length; w++) {
+            sample("resourcemonitor_tps", "window", WINDOW_NAMES[w], snapshot.getTps(w));
+        }
+        header("resourcemonitor_mspt", "gauge", "Average milliseconds per tick over the window");
+        for (int w = 0; w < WINDOW_NAMES.length; w++) {
+            sample("resourcemonitor_mspt", "window", WINDOW_NAMES[w], snapshot.getMspt(w));
+        }
+        header("resourcemonitor_mspt_quantile", "gauge", "Milliseconds per tick percentiles over the last minute");
+        sample("resourcemonitor_mspt_quantile", "quantile", "0.5", snapshot.getMsptP50());
+        sample("resourcemonitor_mspt_quantile", "quantile", "0.95", snapshot.getMsptP95());
+        sample("resourcemonitor_mspt_quantile", "quantile", "0.99", snapshot.getMsptP99());
+        sample("resourcemonitor_mspt_quantile", "quantile", "1", snapshot.getMsptMax());
+        
+        gauge("resourcemonitor_cpu_usage_percent", "Process CPU usage", snapshot.getCpuUsage());
+        gauge("resourcemonitor_system_load_average", "System load average", snapshot.getSystemLoad());
+        gauge("resourcemonitor_heap_used_bytes", "Used heap", snapshot.getUsedMemory());
+        gauge("resourcemonitor_heap_committed_bytes", "Committed heap", snapshot.getTotalMemory());
+        gauge("resourcemonitor_heap_max_bytes", "Maximum heap", snapshot.getMaxMemory());
+        gauge("resourcemonitor_players_online", "Online players", snapshot.getOnlinePlayers());
+        gauge("resourcemonitor_players_max", "Player slots", snapshot.getMaxPlayers());
+        gauge("resourcemonitor_worlds_loaded", "Loaded worlds", snapshot.getWorlds());
+        gauge("resourcemonitor_chunks_loaded", "Loaded chunks", snapshot.getLoadedChunks());
+        gauge("resourcemonitor_entities", "Entities in all worlds", snapshot.getEntities());
+        
+        // Control group figures, only what could be read
+        ContainerUsage container = snapshot.getContainer();
+        if (container.hasCpuLimit()) {
+            gauge("resourcemonitor_container_cpu_limit_cores", "CPU quota of the container", container.getCpuLimitCores());
+        }
+        if (container.getThrottledPercent() >= 0) {
+            gauge("resourcemonitor_container_cpu_throttled_percent", "Percent of quota periods in which the container was throttled",
+                    container.getThrottledPercent());
+            header("resourcemonitor_container_cpu_throttled_seconds", "counter", "Time the container was throttled since it started");
+            text.append("resourcemonitor_container_cpu_throttled_seconds_total ");
+            appendValue(text, container.getThrottledTotalMillis() / 1000.0);
+            text.append('\n');
+        }
+        if (container.getRss() >= 0) {
+            gauge("resourcemonitor_process_resident_bytes", "Resident set size of the server process", container.getRss());
+        }
+        if (container.getMemoryUsage() >= 0) {
+            gauge("resourcemonitor_container_memory_usage_bytes", "Memory charged to the container, including page cache",
+                    container.getMemoryUsage());
+        }
+        if (container.hasMemoryLimit()) {
+            gauge("resourcemonitor_container_memory_limit_bytes", "Memory limit of the container", container.getMemoryLimit());
+        }
+        
+        // Per world counts are kept current by the entity counter and hotspot scan
+        Collection<EntityCounter.WorldCounts> worlds = plugin.getEntityCounter().getWorlds().values();
+        header("resourcemonitor_world_chunks_loaded", "gauge", "Loaded chunks per world");
+        for (EntityCounter.WorldCounts counts : worlds) {
+            sample("resourcemonitor_world_chunks_loaded", "world", counts.getWorldName(), counts.getChunks());
+        }
+        header("resourcemonitor_world_players", "gauge", "Players per world");
+        for (EntityCounter.WorldCounts counts : worlds) {
+            sample("resourcemonitor_world_players", "world", counts.getWorldName(), counts.getPlayers());
+        }
+        header("resourcemonitor_world_entities", "gauge", "Entities per world and category");
+        for (EntityCounter.WorldCounts counts : worlds) {
+            int[] categories = counts.getCategoryCounts();
+            for (EntityCategory category : EntityCategory.values()) {
+                sample("resourcemonitor_world_entities", "world", counts.getWorldName(),
+                        "category", category.name().toLowerCase(Locale.ROOT), categories[category.ordinal()]);
+            }
+        }
+        ChunkHotspotIndex hotspotIndex = plugin.getHotspotIndex();
+        if (hotspotIndex.getLastPassFinished() > 0) {
+            header("resourcemonitor_world_tile_entities", "gauge", "Tile entities per world from the last chunk scan");
+            for (Map.Entry<String, Integer> entry : hotspotIndex.getTileEntities().entrySet()) {
+                sample("resourcemonitor_world_tile_entities", "world", entry.getKey(), entry.getValue());
+            }
+        }
+        
+        GcMonitor gcMonitor = plugin.getGcMonitor();
+        List<GcMonitor.CollectorStats> collectors = gcMonitor.getCollectors();
+        header("resourcemonitor_gc_collections", "counter", "Collections since the plugin was enabled");
+        for (GcMonitor.CollectorStats stats : collectors) {
+            sample("resourcemonitor_gc_collections_total", "collector", stats.getName(), stats.getCount());
+        }
+        header("resourcemonitor_gc_pause_seconds", "counter", "Time spent in collection pauses since the plugin was enabled");
+        for (GcMonitor.CollectorStats stats : collectors) {
+            if (stats.isConcurrent()) continue;
+            sample("resourcemonitor_gc_pause_seconds_total", "collector", stats.getName(), stats.getTotalPauseMs() / 1000.0);
+        }
+        gauge("resourcemonitor_gc_allocation_rate_bytes", "Heap bytes allocated per second over the last 15 minutes", gcMonitor.getAllocationRate());
+        
+        List<MemoryComponent> components = plugin.getNativeMemoryTracker().getComponents();
+        header("resourcemonitor_memory_component_bytes", "gauge", "Process memory by component, unaccounted native is RSS minus the rest");
+        for (MemoryComponent component : components) {
+            sample("resourcemonitor_memory_component_bytes", "component", component.getKey(), component.getBytes());
+        }
+        header("resourcemonitor_memory_component_growth_bytes_per_hour", "gauge", "Growth of each component fitted over the last hour");
+        for (MemoryComponent component : components) {
+            if (!Double.isNaN(component.getGrowthPerHour1h())) {
+                sample("resourcemonitor_memory_component_growth_bytes_per_hour", "component", component.getKey(),
+                        component.getGrowthPerHour1h());
+            }
+        }
+        
+        header("resourcemonitor_plugin_tick_ms", "gauge", "Main thread milliseconds per tick spent in the plugin over the last minute");
+        for (PluginTiming timing : timings.values()) {
+            sample("resourcemonitor_plugin_tick_ms", "plugin", timing.getPluginName(), timing.getMsPerTick());
+        }
+        header("resourcemonitor_plugin_event_ms", "gauge", "Milliseconds per tick spent in the plugin's event listeners");
+        for (PluginTiming timing : timings.values()) {
+            sample("resourcemonitor_plugin_event_ms", "plugin", timing.getPluginName(), timing.getEventMsPerTick());
+        }
+        header("resourcemonitor_plugin_task_ms", "gauge", "Milliseconds per tick spent in the plugin's sync tasks");
+        for (PluginTiming timing : timings.values()) {
+            sample("resourcemonitor_plugin_task_ms", "plugin", timing.getPluginName(), timing.getTaskMsPerTick());
+        }
+        header("resourcemonitor_plugin_async_ms_per_second", "gauge", "Milliseconds per second spent in the plugin's async work");
+        for (PluginTiming timing : timings.values()) {
+            sample("resourcemonitor_plugin_async_ms_per_second", "plugin", timing.getPluginName(), timing.getAsyncMsPerSecond());
+        }
+        header("resourcemonitor_plugin_calls_per_tick", "gauge", "Listener and task calls per tick");
+        for (PluginTiming timing : timings.values()) {
+            sample("resourcemonitor_plugin_calls_per_tick", "plugin", timing.getPluginName(), timing.getCallsPerTick());
+        }
+        
+        // The inspector publishes every five seconds, often enough to ride along with the sample
+        List<PluginTasks> scheduled = plugin.getSchedulerInspector().getPlugins();
+        header("resourcemonitor_plugin_scheduled_tasks", "gauge", "Pending scheduler tasks owned by the plugin");
+        for (PluginTasks tasks : scheduled) {
+            sample("resourcemonitor_plugin_scheduled_tasks", "plugin", tasks.getPluginName(), tasks.getTaskCount());
+        }
+        
+        text.append("# EOF\n");
+    }
+    
+    private void header(String name, String type, String help) {
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    }
+    
+    private void gauge(String name, String help, double value) {
+        header(name, "gauge", help);
+        text.append(name).append(' ');
+        appendValue(text, value);
+        text.append('\n');
+    }
+    
+    private void sample(String name, String label, String labelValue, double value) {
+        text.append(name).append('{');
+        appendLabel(label, labelValue);
+        text.append("} ");
+        appendValue(text, value);
+        text.append('\n');
+    }
+    
+    private void sample(String name, String label, String labelValue, String label2, String labelValue2, double value) {
+        text.append(name).append('{');
+        appendLabel(label, labelValue);
+        text.append(',');
+        appendLabel(label2, labelValue2);
+        text.append("} ");
+        appendValue(text, value);
+        text.append('\n');
+    }
+    
+    private void appendLabel(String label, String labelValue) {
+        text.append(label).append("=\"");
+        for (int i = 0; i < labelValue.length(); i++) {
+            char c = labelValue.charAt(i);
+            if (c == '\\' || c == '"') {
+                text.append('\\').append(c);
+            } else if (c == '\n') {
+                text.append("\\n");
+            } else {
+                text.append(c);
+            }
+        }
+        text.append('"');
+    }
+    
+    // OpenMetrics spells the special values NaN, +Inf and -Inf; Java's
+    // Infinity would make the whole scrape unparseable
+    static void appendValue(StringBuilder text, double value) {
+        if (Double.isNaN(value)) {
+            text.append("NaN");
+        } else if (Double.isInfinite(value)) {
+            text.append(value > 0 ? "+Inf" : "-Inf");
+        } else if (value == (long) value) {
+            text.append((long) value);
+        } else {
+            text.append(value);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.resourcemonitor;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+
+// Collects every figure the plugin displays once per interval and publishes
+// it as an immutable MetricsSnapshot, so the cost stays the same no matter
+// how many players are watching the GUI or the overlay. The sample period
+// comes from Intervals and may change from one sample to the next.
+public class MetricsSampler {
+    
+    private static final long WORLD_PERIOD = 100L; // ticks, main thread
+    
+    private final TickMonitor tickMonitor;
+    private final EntityCounter entityCounter;
+    private final OperatingSystemMXBean osBean;
+    private final ContainerMonitor containerMonitor;
+    private final double[] tps = new double[4];
+    private final double[] mspt = new double[4];
+    
+    private volatile MetricsSnapshot snapshot;
+    
+    // Server figures must be read on the main thread, the async sampler picks them up
+    private volatile int onlinePlayers;
+    private volatile int maxPlayers;
+    private volatile int worlds;
+    private volatile int plugins;
+    private volatile int enabledPlugins;
+    private volatile String serverVersion = "";
+    private volatile int viewDistance;
+    
+    private volatile Intervals intervals;
+    private volatile long samplePeriod;
+    
+    private Plugin plugin;
+    private BukkitTask sampleTask;
+    private BukkitTask worldTask;
+    private int generation; // bumped by stop() so a sample still running can't book another chain
+    
+    public MetricsSampler(TickMonitor tickMonitor, EntityCounter entityCounter, ContainerMonitor containerMonitor, Intervals intervals) {
+        this.tickMonitor = tickMonitor;
+        this.entityCounter = entityCounter;
+        this.containerMonitor = containerMonitor;
+        this.intervals = intervals;
+        this.samplePeriod = intervals.getSampleTicks();
+        this.osBean = ManagementFactory.getOperatingSystemMXBean();
+    }
+    
+    public synchronized void start(Plugin plugin) {
+        stop();
+        this.plugin = plugin;
+        serverVersion = Bukkit.getVersion().split(" ")[0];
+        viewDistance = Bukkit.getViewDistance();
+        
+        // Publish a first snapshot right away so renderers never see null
+        sampleWorlds();
+        sample();
+        
+        worldTask = Bukkit.getScheduler().runTaskTimer(plugin, this::sampleWorlds, WORLD_PERIOD, WORLD_PERIOD);
+        schedule(intervals.getSampleTicks(), generation);
+    }
+    
+    public synchronized void stop() {
+        plugin = null;
+        generation++;
+        if (sampleTask != null) {
+            sampleTask.cancel();
+            sampleTask = null;
+        }
+        if (worldTask != null) {
+            worldTask.cancel();
+            worldTask = null;
+        }
+    }
+    
+    public MetricsSnapshot getSnapshot() {
+        return snapshot;
+    }
+    
+    // Takes effect from the next sample
+    public void setIntervals(Intervals intervals) {
+        this.intervals = intervals;
+    }
+    
+    // Ticks until the next sample, as last chosen
+    public long getSamplePeriod() {
+        return samplePeriod;
+    }
+    
+    // A one-shot task that books the next one, so the delay can follow the
+    // server's state instead of a fixed timer. cancel() can't stop a sample
+    // that is already running, so a chain from before the last stop() ends
+    // here instead of running next to the new one.
+    private synchronized void schedule(long delay, int chain) {
+        if (plugin == null || chain != generation) return;
+        samplePeriod = delay;
+        sampleTask = Bukkit.getScheduler().runTaskLaterAsynchronously(plugin, () -> sampleAndReschedule(chain), delay);
+    }
+    
+    private void sampleAndReschedule(int chain) {
+        sample();
+        schedule(intervals.nextSampleTicks(snapshot), chain);
+    }
+    
+    // Static system information, read once
+    public String getOsName() {
+        return osBean.getName();
+    }
+    
+    public String getOsVersion() {
+        return osBean.getVersion();
+    }
+    
+    public String getArch() {
+        return osBean.getArch();
+    }
+    
+    // Read from the server on the main thread when the sampler starts
+    public String getServerVersion() {
+        return serverVersion;
+    }
+    
+    public int getViewDistance() {
+        return viewDistance;
+    }
+    
+    private void sampleWorlds() {
+        this.onlinePlayers = Bukkit.getOnlinePlayers().size();
+        this.maxPlayers = Bukkit.getMaxPlayers();
+        this.worlds = Bukkit.getWorlds().size();
+        
+        Plugin[] loaded = Bukkit.getPluginManager().getPlugins();
+        int enabled = 0;
+        for (Plugin candidate : loaded) {
+            if (candidate.isEnabled()) {
+                enabled++;
+            }
+        }
+        this.plugins = loaded.length;
+        this.enabledPlugins = enabled;
+    }
+    
+    synchronized void sample() {
+        ContainerUsage container = containerMonitor.sample();
+        
+        // Against the host's cores a throttled container can look idle
+        double cpuUsage = container.getCpuPercentOfLimit() >= 0 ? container.getCpuPercentOfLimit() : getCpuUsage();
+        if (cpuUsage < 0) cpuUsage = 0;
+        
+        Runtime runtime = Runtime.getRuntime();
+        long totalMemory = runtime.totalMemory();
+        long freeMemory = runtime.freeMemory();
+        
+        for (int w = 0; w < tps.length; w++) {
+            tps[w] = tickMonitor.getTps(w);
+            mspt[w] = tickMonitor.getMspt(w);
+        }
+        
+        snapshot = new MetricsSnapshot(System.currentTimeMillis(),
+                cpuUsage, osBean.getSystemLoadAverage(), osBean.getAvailableProcessors(),
+                totalMemory - freeMemory, freeMemory, totalMemory, runtime.maxMemory(),
+                onlinePlayers, maxPlayers, worlds, entityCounter.getLoadedChunks(), entityCounter.getEntities(),
+                plugins, enabledPlugins,
+                tps, mspt,
+                tickMonitor.getMsptPercentile(0.50), tickMonitor.getMsptPercentile(0.95),
+                tickMonitor.getMsptPercentile(0.99), tickMonitor.getMaxMspt(),
+                container);
+    }
+    
+    private double getCpuUsage() {
+        try {
+            // Try to use the com.sun.management.OperatingSystemMXBean if available
+            if (osBean instanceof com.sun.management.OperatingSystemMXBean) {
+                com.sun.management.OperatingSystemMXBean sunOsBean =
+                    (com.sun.management.OperatingSystemMXBean) osBean;
+                return sunOsBean.getProcessCpuLoad() * 100;
+            }
+        } catch (Exception e) {
+            // Fallback if com.sun.management is not available
+        }
+        
+        // Fallback: estimate based on system load average
+        try {
+            double loadAverage = osBean.getSystemLoadAverage();
+            if (loadAverage >= 0) {
+                return Math.min(100, (loadAverage / osBean.getAvailableProcessors()) * 100);
+            }
+        } catch (Exception e) {
+            // If all else fails, return 0
+        }
+        
+        return 0;
+    }
+}
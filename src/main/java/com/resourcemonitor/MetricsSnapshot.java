@@ -0,0 +1,165 @@
+package com.resourcemonitor;
+
+// Immutable set of server figures collected by the MetricsSampler.
+// Renderers only ever read one of these, never the MXBeans directly.
+public final class MetricsSnapshot {
+    
+    private final long timestamp;
+    
+    // CPU
+    private final double cpuUsage;
+    private final double systemLoad;
+    private final int availableProcessors;
+    
+    // Heap
+    private final long usedMemory;
+    private final long freeMemory;
+    private final long totalMemory;
+    private final long maxMemory;
+    
+    // Server
+    private final int onlinePlayers;
+    private final int maxPlayers;
+    private final int worlds;
+    private final int loadedChunks;
+    private final int entities;
+    private final int plugins;
+    private final int enabledPlugins;
+    
+    // Ticks
+    private final double[] tps;
+    private final double[] mspt;
+    private final double msptP50;
+    private final double msptP95;
+    private final double msptP99;
+    private final double msptMax;
+    
+    // Control group limits and process RSS
+    private final ContainerUsage container;
+    
+    public MetricsSnapshot(long timestamp, double cpuUsage, double systemLoad, int availableProcessors,
+                           long usedMemory, long freeMemory, long totalMemory, long maxMemory,
+                           int onlinePlayers, int maxPlayers, int worlds, int loadedChunks, int entities,
+                           int plugins, int enabledPlugins,
+                           double[] tps, double[] mspt, double msptP50, double msptP95, double msptP99, double msptMax,
+                           ContainerUsage container) {
+        this.timestamp = timestamp;
+        this.cpuUsage = cpuUsage;
+        this.systemLoad = systemLoad;
+        this.availableProcessors = availableProcessors;
+        this.usedMemory = usedMemory;
+        this.freeMemory = freeMemory;
+        this.totalMemory = totalMemory;
+        this.maxMemory = maxMemory;
+        this.onlinePlayers = onlinePlayers;
+        this.maxPlayers = maxPlayers;
+        this.worlds = worlds;
+        this.loadedChunks = loadedChunks;
+        this.entities = entities;
+        this.plugins = plugins;
+        this.enabledPlugins = enabledPlugins;
+        this.tps = tps.clone();
+        this.mspt = mspt.clone();
+        this.msptP50 = msptP50;
+        this.msptP95 = msptP95;
+        this.msptP99 = msptP99;
+        this.msptMax = msptMax;
+        this.container = container;
+    }
+    
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    // Process CPU usage in percent (0-100), of the container's CPU quota when it has one
+    public double getCpuUsage() {
+        return cpuUsage;
+    }
+    
+    // System load average, negative if the OS doesn't provide one
+    public double getSystemLoad() {
+        return systemLoad;
+    }
+    
+    public int getAvailableProcessors() {
+        return availableProcessors;
+    }
+    
+    public long getUsedMemory() {
+        return usedMemory;
+    }
+    
+    public long getFreeMemory() {
+        return freeMemory;
+    }
+    
+    public long getTotalMemory() {
+        return totalMemory;
+    }
+    
+    public long getMaxMemory() {
+        return maxMemory;
+    }
+    
+    public double getMemoryUsagePercent() {
+        return maxMemory > 0 ? (double) usedMemory / maxMemory * 100 : 0;
+    }
+    
+    public int getOnlinePlayers() {
+        return onlinePlayers;
+    }
+    
+    public int getMaxPlayers() {
+        return maxPlayers;
+    }
+    
+    public int getWorlds() {
+        return worlds;
+    }
+    
+    public int getLoadedChunks() {
+        return loadedChunks;
+    }
+    
+    public int getEntities() {
+        return entities;
+    }
+    
+    public int getPlugins() {
+        return plugins;
+    }
+    
+    public int getEnabledPlugins() {
+        return enabledPlugins;
+    }
+    
+    // TPS for one of the TickMonitor windows
+    public double getTps(int window) {
+        return tps[window];
+    }
+    
+    // Average MSPT for one of the TickMonitor windows
+    public double getMspt(int window) {
+        return mspt[window];
+    }
+    
+    public double getMsptP50() {
+        return msptP50;
+    }
+    
+    public double getMsptP95() {
+        return msptP95;
+    }
+    
+    public double getMsptP99() {
+        return msptP99;
+    }
+    
+    public double getMsptMax() {
+        return msptMax;
+    }
+    
+    public ContainerUsage getContainer() {
+        return container;
+    }
+}
@@ -0,0 +1,370 @@
+package com.resourcemonitor;
+
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Keeps a history of the sampled metrics in fixed-width records appended to
+// memory-mapped segment files. Each sample goes to the per-second tier and is
+// averaged into the per-minute and per-hour tiers, which keep their data for
+// much longer. Every record carries the number of samples behind it, so
+// averages over records, in coarser tiers and across restarts, are weighted
+// by samples. Appends only write primitives into the mapped buffer and run
+// on an async task.
+public class MetricsStore {
+    
+    private static final long RECORD_PERIOD = 20L; // ticks, async
+    
+    // Segment layout: header, then fixed-width records
+    private static final int MAGIC = 0x524D5453; // "RMTS"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 16; // magic, version, resolution seconds, record count
+    private static final int COUNT_OFFSET = 12;
+    // timestamp(8) tps(4) mspt(4) cpu(4) heap(8) players(4) chunks(4) entities(4) samples(4)
+    static final int RECORD_SIZE = 44;
+    private static final int V1_RECORD_SIZE = 40; // without samples, each counts as one
+    
+    // Query results are kept below this many points by picking a coarser tier
+    private static final int MAX_QUERY_POINTS = 10_000;
+    
+    private final Main plugin;
+    private final Tier[] tiers;
+    
+    private long lastSnapshotTime = 0;
+    private BukkitTask recordTask;
+    
+    public MetricsStore(Main plugin) {
+        this(plugin, new File(plugin.getDataFolder(), "history"));
+    }
+    
+    MetricsStore(Main plugin, File folder) {
+        this.plugin = plugin;
+        
+        // 1 second samples for a day, 1 minute for a month, 1 hour for two years
+        Tier hours = new Tier(new File(folder, "hour"), 3_600_000L, 720, 24, null);
+        Tier minutes = new Tier(new File(folder, "minute"), 60_000L, 1440, 30, hours);
+        Tier seconds = new Tier(new File(folder, "second"), 1_000L, 3600, 24, minutes);
+        this.tiers = new Tier[] { seconds, minutes, hours };
+    }
+    
+    public void start() {
+        stop();
+        open();
+        recordTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::record, RECORD_PERIOD, RECORD_PERIOD);
+    }
+    
+    // Resumes the newest segment of each tier
+    synchronized void open() {
+        for (Tier tier : tiers) {
+            tier.open();
+        }
+    }
+    
+    public void stop() {
+        if (recordTask != null) {
+            recordTask.cancel();
+            recordTask = null;
+        }
+        
+        synchronized (this) {
+            // Write out partly filled buckets so a restart loses nothing,
+            // finest first so each one still feeds the next. A restart within
+            // the same bucket writes it again, read() merges the two.
+            for (Tier tier : tiers) {
+                tier.flush();
+                tier.close();
+            }
+        }
+    }
+    
+    public boolean isRunning() {
+        return recordTask != null;
+    }
+    
+    private void record() {
+        MetricsSnapshot snapshot = plugin.getMetricsSampler().getSnapshot();
+        if (snapshot.getTimestamp() == lastSnapshotTime) return;
+        lastSnapshotTime = snapshot.getTimestamp();
+        
+        append(snapshot.getTimestamp(),
+                (float) snapshot.getTps(TickMonitor.WINDOW_5S),
+                (float) snapshot.getMspt(TickMonitor.WINDOW_5S),
+                (float) snapshot.getCpuUsage(),
+                snapshot.getUsedMemory(),
+                snapshot.getOnlinePlayers(), snapshot.getLoadedChunks(), snapshot.getEntities());
+    }
+    
+    public synchronized void append(long timestamp, float tps, float mspt, float cpu, long heap,
+                                    int players, int chunks, int entities) {
+        tiers[0].offer(timestamp, tps, mspt, cpu, heap, players, chunks, entities, 1);
+    }
+    
+    // Reads the records between two times (epoch millis) from the finest tier
+    // that keeps the result a reasonable size. That tier may not reach back to
+    // the start yet, on a fresh install it is still the one with the data.
+    public List<HistoryPoint> query(long from, long to) {
+        Tier tier = tiers[tiers.length - 1];
+        for (Tier candidate : tiers) {
+            if ((to - from) / candidate.resolution <= MAX_QUERY_POINTS) {
+                tier = candidate;
+                break;
+            }
+        }
+        return tier.read(from, to);
+    }
+    
+    // One resolution level: the segments on disk, the segment being appended
+    // to and the bucket that is being averaged from the finer tier
+    private final class Tier {
+        final File folder;
+        final long resolution;
+        final int recordsPerSegment;
+        final int maxSegments;
+        final Tier next;
+        
+        MappedByteBuffer segment;
+        int count;
+        boolean failed = false;
+        
+        // Bucket being averaged
+        long bucketStart = -1;
+        int samples;
+        double tpsSum, msptSum, cpuSum;
+        long heapSum, playersSum, chunksSum, entitiesSum;
+        
+        Tier(File folder, long resolution, int recordsPerSegment, int maxSegments, Tier next) {
+            this.folder = folder;
+            this.resolution = resolution;
+            this.recordsPerSegment = recordsPerSegment;
+            this.maxSegments = maxSegments;
+            this.next = next;
+        }
+        
+        // Resumes the newest segment if it still has room
+        void open() {
+            failed = false;
+            File[] files = listSegments();
+            if (files.length == 0) return;
+            
+            File newest = files[files.length - 1];
+            try {
+                // Check the header first, mapping an older, shorter segment would grow it
+                try (RandomAccessFile raf = new RandomAccessFile(newest, "r")) {
+                    if (raf.length() < HEADER_SIZE || raf.readInt() != MAGIC || raf.readInt() != VERSION) return;
+                }
+                MappedByteBuffer buffer = map(newest);
+                if (buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION) {
+                    int existing = buffer.getInt(COUNT_OFFSET);
+                    if (existing < recordsPerSegment) {
+                        segment = buffer;
+                        count = existing;
+                    }
+                }
+            } catch (IOException e) {
+                plugin.getLogger().warning("Could not open history segment " + newest + ": " + e.getMessage());
+            }
+        }
+        
+        void close() {
+            if (segment != null) {
+                segment.force();
+                segment = null;
+            }
+            bucketStart = -1;
+            samples = 0;
+        }
+        
+        // A record of the finer tier stands for the samples behind it
+        void offer(long time, float tps, float mspt, float cpu, long heap, int players, int chunks, int entities, int weight) {
+            long bucket = time - time % resolution;
+            if (samples > 0 && bucket != bucketStart) {
+                flush();
+            }
+            
+            bucketStart = bucket;
+            samples += weight;
+            tpsSum += (double) tps * weight;
+            msptSum += (double) mspt * weight;
+            cpuSum += (double) cpu * weight;
+            heapSum += heap * weight;
+            playersSum += (long) players * weight;
+            chunksSum += (long) chunks * weight;
+            entitiesSum += (long) entities * weight;
+        }
+        
+        // Writes the averaged bucket and passes it on to the coarser tier
+        void flush() {
+            if (samples > 0) {
+                float tps = (float) (tpsSum / samples);
+                float mspt = (float) (msptSum / samples);
+                float cpu = (float) (cpuSum / samples);
+                long heap = heapSum / samples;
+                int players = (int) (playersSum / samples);
+                int chunks = (int) (chunksSum / samples);
+                int entities = (int) (entitiesSum / samples);
+                
+                write(bucketStart, tps, mspt, cpu, heap, players, chunks, entities, samples);
+                if (next != null) {
+                    next.offer(bucketStart, tps, mspt, cpu, heap, players, chunks, entities, samples);
+                }
+                
+                samples = 0;
+                tpsSum = msptSum = cpuSum = 0;
+                heapSum = playersSum = chunksSum = entitiesSum = 0;
+            }
+        }
+        
+        private void write(long time, float tps, float mspt, float cpu, long heap, int players, int chunks, int entities,
+                           int weight) {
+            if (failed) return;
+            if (segment == null || count == recordsPerSegment) {
+                if (!roll(time)) return;
+            }
+            
+            int pos = HEADER_SIZE + count * RECORD_SIZE;
+            segment.putLong(pos, time);
+            segment.putFloat(pos + 8, tps);
+            segment.putFloat(pos + 12, mspt);
+            segment.putFloat(pos + 16, cpu);
+            segment.putLong(pos + 20, heap);
+            segment.putInt(pos + 28, players);
+            segment.putInt(pos + 32, chunks);
+            segment.putInt(pos + 36, entities);
+            segment.putInt(pos + 40, weight);
+            
+            // Publish the record only after it is complete
+            count++;
+            segment.putInt(COUNT_OFFSET, count);
+        }
+        
+        // Starts a new segment named after its first record and drops the oldest
+        private boolean roll(long time) {
+            if (segment != null) {
+                segment.force();
+            }
+            
+            try {
+                if (!folder.isDirectory() && !folder.mkdirs()) {
+                    throw new IOException("Could not create " + folder);
+                }
+                MappedByteBuffer buffer = map(new File(folder, String.format("%013d.seg", time)));
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putInt(8, (int) (resolution / 1000));
+                buffer.putInt(COUNT_OFFSET, 0);
+                segment = buffer;
+                count = 0;
+            } catch (IOException e) {
+                // Keep the plugin running without this tier
+                failed = true;
+                segment = null;
+                plugin.getLogger().warning("Metrics history disabled for " + folder.getName() + ": " + e.getMessage());
+                return false;
+            }
+            
+            File[] files = listSegments();
+            for (int i = 0; i < files.length - maxSegments; i++) {
+                if (!files[i].delete()) {
+                    plugin.getLogger().warning("Could not delete old history segment " + files[i].getName());
+                }
+            }
+            return true;
+        }
+        
+        private MappedByteBuffer map(File file) throws IOException {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                // The mapping stays valid after the channel is closed
+                return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) recordsPerSegment * RECORD_SIZE);
+            }
+        }
+        
+        private File[] listSegments() {
+            File[] files = folder.listFiles((dir, name) -> name.endsWith(".seg"));
+            if (files == null) return new File[0];
+            Arrays.sort(files); // zero padded start times sort by name
+            return files;
+        }
+        
+        // Reads through the file rather than the mapping so queries never
+        // have to wait for the writer
+        List<HistoryPoint> read(long from, long to) {
+            List<HistoryPoint> points = new ArrayList<>();
+            int lastWeight = 0;
+            File[] files = listSegments();
+            
+            for (int i = 0; i < files.length; i++) {
+                // A segment ends where the next one starts
+                if (segmentStart(files[i]) > to) break;
+                if (i + 1 < files.length && segmentStart(files[i + 1]) < from) continue;
+                
+                try (RandomAccessFile raf = new RandomAccessFile(files[i], "r")) {
+                    ByteBuffer buffer = ByteBuffer.allocate((int) raf.length());
+                    FileChannel channel = raf.getChannel();
+                    while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                        // Keep reading until the whole file is in the buffer
+                    }
+                    if (buffer.position() < HEADER_SIZE || buffer.getInt(0) != MAGIC) continue;
+                    
+                    boolean weighted = buffer.getInt(4) >= 2;
+                    int recordSize = weighted ? RECORD_SIZE : V1_RECORD_SIZE;
+                    int records = Math.min(buffer.getInt(COUNT_OFFSET), (buffer.position() - HEADER_SIZE) / recordSize);
+                    for (int r = 0; r < records; r++) {
+                        int pos = HEADER_SIZE + r * recordSize;
+                        long time = buffer.getLong(pos);
+                        if (time < from || time > to) continue;
+                        HistoryPoint point = new HistoryPoint(time,
+                                buffer.getFloat(pos + 8), buffer.getFloat(pos + 12), buffer.getFloat(pos + 16),
+                                buffer.getLong(pos + 20),
+                                buffer.getInt(pos + 28), buffer.getInt(pos + 32), buffer.getInt(pos + 36));
+                        
+                        int weight = weighted ? Math.max(1, buffer.getInt(pos + 40)) : 1;
+                        
+                        // The halves of a bucket split by a restart are written one after the other
+                        int last = points.size() - 1;
+                        if (last >= 0 && points.get(last).getTimestamp() == time) {
+                            points.set(last, merge(points.get(last), lastWeight, point, weight));
+                            lastWeight += weight;
+                        } else {
+                            points.add(point);
+                            lastWeight = weight;
+                        }
+                    }
+                } catch (IOException e) {
+                    plugin.getLogger().warning("Could not read history segment " + files[i].getName() + ": " + e.getMessage());
+                }
+            }
+            return points;
+        }
+        
+        // Average of two records weighted by their samples
+        private HistoryPoint merge(HistoryPoint a, int weightA, HistoryPoint b, int weightB) {
+            double total = weightA + weightB;
+            return new HistoryPoint(a.getTimestamp(),
+                    ((a.getTps() * weightA + b.getTps() * weightB) / total),
+                    ((a.getMspt() * weightA + b.getMspt() * weightB) / total),
+                    ((a.getCpuUsage() * weightA + b.getCpuUsage() * weightB) / total),
+                    Math.round((a.getHeapUsed() * (double) weightA + b.getHeapUsed() * (double) weightB) / total),
+                    (int) Math.round((a.getPlayers() * weightA + b.getPlayers() * (double) weightB) / total),
+                    (int) Math.round((a.getChunks() * weightA + b.getChunks() * (double) weightB) / total),
+                    (int) Math.round((a.getEntities() * weightA + b.getEntities() * (double) weightB) / total));
+        }
+        
+        private long segmentStart(File file) {
+            String name = file.getName();
+            try {
+                return Long.parseLong(name.substring(0, name.length() - 4));
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+    }
+}
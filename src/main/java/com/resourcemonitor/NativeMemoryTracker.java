@@ -0,0 +1,232 @@
+package com.resourcemonitor;
+
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Splits the process's resident memory into what the JVM can account for:
+// committed heap, metaspace, code cache, direct and mapped buffers, Netty's
+// own direct memory and thread stacks. Whatever RSS holds beyond that is
+// "unaccounted native": malloc arenas, native libraries, GC structures. A
+// reading is kept every minute for six hours so each component gets a growth
+// rate, which shows a native leak long before the kernel's OOM killer does.
+public class NativeMemoryTracker {
+    
+    private static final long SAMPLE_PERIOD = 1200L; // ticks, one minute
+    private static final int HISTORY = 360; // six hours of minutes
+    private static final int MIN_FIT_SAMPLES = 10;
+    private static final long DEFAULT_STACK_SIZE = 1024L * 1024L; // 64-bit HotSpot
+    
+    static final int HEAP = 0;
+    static final int METASPACE = 1;
+    static final int CODE_CACHE = 2;
+    static final int DIRECT = 3;
+    static final int MAPPED = 4;
+    static final int NETTY = 5;
+    static final int THREAD_STACKS = 6;
+    static final int UNACCOUNTED = 7;
+    static final int RSS = 8;
+    private static final String[] KEYS = {
+        "heap", "metaspace", "code_cache", "direct", "mapped", "netty_direct", "thread_stacks", "unaccounted_native", "rss"
+    };
+    private static final String[] NAMES = {
+        "Heap (committed)", "Metaspace", "Code cache", "Direct buffers", "Mapped buffers",
+        "Netty direct", "Thread stacks", "Unaccounted native", "Process RSS"
+    };
+    
+    private final Main plugin;
+    private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final List<BufferPoolMXBean> bufferPools = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class);
+    private final long stackSize = configuredStackSize();
+    private final Method nettyUsedDirectMemory = findNettyCounter();
+    
+    // One row per component, one column per minute; guarded by this
+    private final long[][] history = new long[NAMES.length][HISTORY];
+    private final long[] sampledAt = new long[HISTORY];
+    private int next;
+    private int count;
+    
+    private BukkitTask task;
+    
+    public NativeMemoryTracker(Main plugin) {
+        this.plugin = plugin;
+    }
+    
+    public synchronized void start() {
+        if (task != null) return;
+        task = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::record, 0L, SAMPLE_PERIOD);
+    }
+    
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+    
+    public long getStackSize() {
+        return stackSize;
+    }
+    
+    public boolean hasNettyCounter() {
+        return nettyUsedDirectMemory != null;
+    }
+    
+    private synchronized void record() {
+        long[] values = measure();
+        for (int c = 0; c < values.length; c++) {
+            history[c][next] = values[c];
+        }
+        sampledAt[next] = System.currentTimeMillis();
+        next = (next + 1) % HISTORY;
+        count = Math.min(count + 1, HISTORY);
+    }
+    
+    // Current values with growth rates from the recorded minutes; components
+    // this JVM can't measure are left out
+    public synchronized List<MemoryComponent> getComponents() {
+        long[] values = measure();
+        List<MemoryComponent> components = new ArrayList<>(NAMES.length);
+        for (int c = 0; c < NAMES.length; c++) {
+            if (values[c] < 0) continue;
+            components.add(new MemoryComponent(KEYS[c], NAMES[c], values[c], growthPerHour(c, 60), growthPerHour(c, HISTORY)));
+        }
+        return components;
+    }
+    
+    private long[] measure() {
+        long[] values = new long[NAMES.length];
+        values[HEAP] = memoryBean.getHeapMemoryUsage().getCommitted();
+        
+        long metaspace = 0;
+        long codeCache = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.NON_HEAP || !pool.isValid()) continue;
+            long committed = pool.getUsage().getCommitted();
+            String name = pool.getName();
+            if (name.startsWith("CodeHeap") || name.equals("Code Cache")) {
+                codeCache += committed;
+            } else {
+                metaspace += committed; // Metaspace and Compressed Class Space
+            }
+        }
+        values[METASPACE] = metaspace;
+        values[CODE_CACHE] = codeCache;
+        
+        values[DIRECT] = -1;
+        values[MAPPED] = -1;
+        for (BufferPoolMXBean pool : bufferPools) {
+            String name = pool.getName().toLowerCase(Locale.ROOT);
+            if (name.equals("direct")) {
+                values[DIRECT] = pool.getMemoryUsed();
+            } else if (name.equals("mapped")) {
+                values[MAPPED] = pool.getMemoryUsed();
+            }
+        }
+        values[NETTY] = nettyDirectMemory();
+        values[THREAD_STACKS] = threadBean.getThreadCount() * stackSize;
+        
+        // RSS comes with the metrics sample, at most one sample period old
+        MetricsSnapshot snapshot = plugin.getMetricsSampler().getSnapshot();
+        long rss = snapshot != null ? snapshot.getContainer().getRss() : -1;
+        values[RSS] = rss;
+        if (rss >= 0) {
+            // Mapped files are only partly resident, so they aren't taken off
+            long accounted = values[HEAP] + metaspace + codeCache + Math.max(0, values[DIRECT]) +
+                Math.max(0, values[NETTY]) + values[THREAD_STACKS];
+            values[UNACCOUNTED] = Math.max(0, rss - accounted);
+        } else {
+            values[UNACCOUNTED] = -1;
+        }
+        return values;
+    }
+    
+    // Least squares slope over the newest samples in the window, in bytes per hour
+    private double growthPerHour(int component, int window) {
+        int samples = Math.min(count, window);
+        if (samples < MIN_FIT_SAMPLES) return Double.NaN;
+        
+        long origin = sampledAt[(next - samples + HISTORY) % HISTORY];
+        double sumX = 0, sumY = 0, sumXY = 0, sumXX = 0;
+        int used = 0;
+        for (int i = 0; i < samples; i++) {
+            int slot = (next - samples + i + HISTORY) % HISTORY;
+            long value = history[component][slot];
+            if (value < 0) continue;
+            double x = (sampledAt[slot] - origin) / 3_600_000.0;
+            sumX += x;
+            sumY += value;
+            sumXY += x * value;
+            sumXX += x * x;
+            used++;
+        }
+        double denominator = used * sumXX - sumX * sumX;
+        if (used < MIN_FIT_SAMPLES || denominator <= 0) return Double.NaN;
+        return (used * sumXY - sumX * sumY) / denominator;
+    }
+    
+    private long nettyDirectMemory() {
+        if (nettyUsedDirectMemory == null) return -1;
+        try {
+            return (long) nettyUsedDirectMemory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return -1;
+        }
+    }
+    
+    // Netty counts the direct memory it allocates without a Cleaner itself,
+    // those buffers never show up in the direct buffer pool
+    private static Method findNettyCounter() {
+        try {
+            ClassLoader loader = Bukkit.getServer().getClass().getClassLoader();
+            Class<?> platform = Class.forName("io.netty.util.internal.PlatformDependent", false, loader);
+            Method method = platform.getMethod("usedDirectMemory");
+            return (long) method.invoke(null) >= 0 ? method : null;
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            return null;
+        }
+    }
+    
+    // -Xss or -XX:ThreadStackSize (in KB) from the command line
+    private static long configuredStackSize() {
+        long size = DEFAULT_STACK_SIZE;
+        try {
+            for (String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+                if (argument.startsWith("-Xss")) {
+                    size = parseSize(argument.substring(4), 1);
+                } else if (argument.startsWith("-XX:ThreadStackSize=")) {
+                    size = parseSize(argument.substring(20), 1024);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Keep the default
+        }
+        return size > 0 ? size : DEFAULT_STACK_SIZE;
+    }
+    
+    private static long parseSize(String value, long unit) {
+        String lower = value.trim().toLowerCase(Locale.ROOT);
+        int suffix = lower.isEmpty() ? -1 : "kmg".indexOf(lower.charAt(lower.length() - 1));
+        long multiplier = unit;
+        if (suffix >= 0) {
+            multiplier = 1L << (10 * (suffix + 1));
+            lower = lower.substring(0, lower.length() - 1);
+        }
+        try {
+            return Long.parseLong(lower) * multiplier;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
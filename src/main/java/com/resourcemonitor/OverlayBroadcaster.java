@@ -0,0 +1,100 @@
+package com.resourcemonitor;
+
+import net.md_5.bungee.api.ChatMessageType;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.TextComponent;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// One scheduler task for every overlay viewer: the action bar text is built
+// once per refresh and the same components are sent to all subscribers.
+public class OverlayBroadcaster implements Runnable {
+    
+    private final ResourceMonitorGUI gui;
+    private final Set<UUID> subscribers = ConcurrentHashMap.newKeySet();
+    
+    private BukkitTask task;
+    private MetricsSnapshot lastSnapshot;
+    private String overlayText;
+    private BaseComponent[] overlayComponents;
+    
+    public OverlayBroadcaster(ResourceMonitorGUI gui) {
+        this.gui = gui;
+    }
+    
+    public void start(Plugin plugin, long period) {
+        stop();
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this, 0L, period);
+    }
+    
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+    
+    public void subscribe(Player player) {
+        subscribers.add(player.getUniqueId());
+        // Show it right away instead of waiting for the next refresh
+        send(player, buildComponents());
+    }
+    
+    public void unsubscribe(UUID playerId) {
+        subscribers.remove(playerId);
+    }
+    
+    public boolean isSubscribed(UUID playerId) {
+        return subscribers.contains(playerId);
+    }
+    
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+    
+    @Override
+    public void run() {
+        if (subscribers.isEmpty()) return;
+        
+        BaseComponent[] components = buildComponents();
+        
+        Iterator<UUID> it = subscribers.iterator();
+        while (it.hasNext()) {
+            Player player = Bukkit.getPlayer(it.next());
+            if (player == null || !player.isOnline()) {
+                it.remove();
+                continue;
+            }
+            send(player, components);
+        }
+    }
+    
+    private BaseComponent[] buildComponents() {
+        // Only rebuild when the sampler has published new figures
+        MetricsSnapshot snapshot = gui.getMetrics();
+        if (snapshot != lastSnapshot || overlayComponents == null) {
+            overlayText = gui.buildOverlayText(snapshot);
+            overlayComponents = TextComponent.fromLegacyText(overlayText);
+            lastSnapshot = snapshot;
+        }
+        return overlayComponents;
+    }
+    
+    private void send(Player player, BaseComponent[] components) {
+        // Use a combination of methods for top-left positioning
+        try {
+            // Method 1: Try action bar for better positioning
+            player.spigot().sendMessage(ChatMessageType.ACTION_BAR, components);
+        } catch (Exception e) {
+            // Method 2: Use title with empty main title for top positioning
+            player.sendTitle(" ", overlayText, 0, 35, 5);
+        }
+    }
+}
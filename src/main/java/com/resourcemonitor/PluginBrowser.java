@@ -0,0 +1,162 @@
+package com.resourcemonitor;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.event.server.PluginEnableEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+// Backs the Plugin Details pages. The sorted and filtered plugin order is
+// kept until a plugin is enabled or disabled (or, when sorting by cost, until
+// the profiler publishes new timings), and each plugin's item is built the
+// first time its page is shown. Opening a page builds at most one page of
+// items, however many plugins the server runs. Main thread only.
+public class PluginBrowser implements Listener {
+    
+    public static final int PAGE_SIZE = 45;
+    private static final int MAX_ORDERS = 32;
+    
+    public enum Sort {
+        LOAD_ORDER("Load Order"),
+        NAME("Name"),
+        ENABLED("Enabled First"),
+        COST("Tick Usage");
+        
+        private final String label;
+        
+        Sort(String label) {
+            this.label = label;
+        }
+        
+        public String getLabel() {
+            return label;
+        }
+        
+        public Sort next() {
+            return values()[(ordinal() + 1) % values().length];
+        }
+    }
+    
+    // A built item and the timings it shows
+    private static final class CachedItem {
+        final ItemStack item;
+        final Map<String, PluginTiming> timings;
+        
+        CachedItem(ItemStack item, Map<String, PluginTiming> timings) {
+            this.item = item;
+            this.timings = timings;
+        }
+    }
+    
+    private final Main plugin;
+    private final Map<String, CachedItem> items = new HashMap<>();
+    private final Map<String, List<Plugin>> orders = new HashMap<>(); // by sort and search
+    private Map<String, PluginTiming> orderedTimings; // what the cost orders were sorted by
+    
+    public PluginBrowser(Main plugin) {
+        this.plugin = plugin;
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginEnable(PluginEnableEvent event) {
+        invalidate();
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginDisable(PluginDisableEvent event) {
+        // The plugin is still enabled while the event runs, so nothing is
+        // rebuilt until the next page is opened
+        invalidate();
+    }
+    
+    public void invalidate() {
+        items.clear();
+        orders.clear();
+    }
+    
+    // Plugins matching the search, in the given order
+    public List<Plugin> getPlugins(Sort sort, String search) {
+        Map<String, PluginTiming> timings = plugin.getPluginProfiler().getTimings();
+        if (orderedTimings != timings) {
+            // Only cost orders go stale with new timings
+            orders.keySet().removeIf(key -> key.startsWith(Sort.COST.name()));
+            orderedTimings = timings;
+        }
+        
+        String query = search != null ? search.toLowerCase(Locale.ROOT) : "";
+        String key = sort.name() + '\0' + query;
+        List<Plugin> order = orders.get(key);
+        if (order == null) {
+            if (orders.size() >= MAX_ORDERS) {
+                orders.clear();
+            }
+            order = sort(sort, query, timings);
+            orders.put(key, order);
+        }
+        return order;
+    }
+    
+    private List<Plugin> sort(Sort sort, String query, Map<String, PluginTiming> timings) {
+        List<Plugin> plugins = new ArrayList<>();
+        for (Plugin candidate : Bukkit.getPluginManager().getPlugins()) {
+            if (query.isEmpty() || candidate.getName().toLowerCase(Locale.ROOT).contains(query)) {
+                plugins.add(candidate);
+            }
+        }
+        
+        switch (sort) {
+            case NAME:
+                plugins.sort(Comparator.comparing(Plugin::getName, String.CASE_INSENSITIVE_ORDER));
+                break;
+            case ENABLED:
+                plugins.sort(Comparator.comparing(Plugin::isEnabled).reversed()
+                    .thenComparing(Plugin::getName, String.CASE_INSENSITIVE_ORDER));
+                break;
+            case COST:
+                plugins.sort(Comparator.comparingDouble((Plugin p) -> msPerTick(timings, p)).reversed());
+                break;
+            default:
+                break;
+        }
+        return Collections.unmodifiableList(plugins);
+    }
+    
+    private static double msPerTick(Map<String, PluginTiming> timings, Plugin plugin) {
+        PluginTiming timing = timings.get(plugin.getName());
+        return timing != null ? timing.getMsPerTick() : 0;
+    }
+    
+    // The plugin's item, built on first use and again once the profiler has
+    // published new timings
+    public ItemStack getItem(Plugin shown, Function<Plugin, ItemStack> builder) {
+        Map<String, PluginTiming> timings = plugin.getPluginProfiler().getTimings();
+        CachedItem cached = items.get(shown.getName());
+        if (cached == null || cached.timings != timings) {
+            cached = new CachedItem(builder.apply(shown), timings);
+            items.put(shown.getName(), cached);
+        }
+        return cached.item;
+    }
+    
+    public static int pageCount(List<Plugin> plugins) {
+        return Math.max(1, (plugins.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+    }
+    
+    // The plugins on one page, without copying the list
+    public static List<Plugin> page(List<Plugin> plugins, int page) {
+        int from = Math.min(plugins.size(), page * PAGE_SIZE);
+        return plugins.subList(from, Math.min(plugins.size(), from + PAGE_SIZE));
+    }
+}
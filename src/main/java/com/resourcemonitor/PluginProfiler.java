@@ -0,0 +1,431 @@
+package com.resourcemonitor;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginEnableEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.RegisteredListener;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Measures how much time each plugin spends in its event listeners and
+// scheduler tasks. Listeners are swapped for ProfiledListeners in every
+// HandlerList and the Runnable inside each pending task is swapped for a
+// ProfiledTask; the counters are rolled up into per-plugin ms/tick figures
+// over the last minute. Each call is charged its self time: when a handler
+// fires an event that another plugin handles, the nested handler's time goes
+// to that plugin only, so the shares of all plugins add up to the time spent.
+// Tasks are wrapped by the periodic scan, so a runTask or runTaskLater task
+// that runs before the next scan is not timed at all.
+public class PluginProfiler implements Listener {
+    
+    private static final long SCAN_PERIOD = 100L; // ticks, main thread
+    private static final long ROLLUP_PERIOD = 100L; // ticks, async
+    private static final int WINDOW_SLOTS = 12; // 12 rollups of 5 seconds = 1 minute
+    
+    // Counter indexes
+    private static final int EVENT_WALL = 0;
+    private static final int TASK_WALL = 1;
+    private static final int MAIN_CPU = 2;
+    private static final int ASYNC_WALL = 3;
+    private static final int CALLS = 4;
+    private static final int COUNTERS = 5;
+    
+    private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME_SUPPORTED =
+            THREAD_BEAN.isCurrentThreadCpuTimeSupported() && THREAD_BEAN.isThreadCpuTimeEnabled();
+    
+    // Two CPU time reads per call are a JNI round trip each, too much for every
+    // PlayerMoveEvent, so CPU time is only taken when configured or while the
+    // stack profiler or event timing runs; wall time is always taken
+    private static volatile boolean cpuTiming = false;
+    
+    // Wall and CPU time of the profiled calls finished so far on each thread,
+    // inclusive; a call subtracts what grew during it to get its self time
+    private static final ThreadLocal<long[]> NESTED = ThreadLocal.withInitial(() -> new long[2]);
+    static final int NESTED_WALL = 0;
+    static final int NESTED_CPU = 1;
+    
+    private final Main plugin;
+    private final TickMonitor tickMonitor;
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+    private final Map<Class<?>, List<Field>> taskFields = new HashMap<>(); // main thread only
+    
+    private volatile Map<String, PluginTiming> timings = Collections.emptyMap();
+    private volatile EventTimings eventTimings; // the running or last finished event timing
+    private volatile boolean eventTimingActive = false;
+    private volatile boolean cpuTimeConfigured = false;
+    
+    // Rollup state, only touched by the rollup task
+    private final long[] tickRing = new long[WINDOW_SLOTS];
+    private final long[] nanosRing = new long[WINDOW_SLOTS];
+    private int slot = 0;
+    private long lastTickCount;
+    private long lastRollupNanos;
+    
+    private boolean taskWrappingFailed = false;
+    private BukkitTask scanTask;
+    private BukkitTask rollupTask;
+    
+    public PluginProfiler(Main plugin, TickMonitor tickMonitor) {
+        this.plugin = plugin;
+        this.tickMonitor = tickMonitor;
+    }
+    
+    // Time spent by one plugin, written from any thread
+    static final class Counters {
+        final String pluginName;
+        final LongAdder[] totals = new LongAdder[COUNTERS];
+        final long[] last = new long[COUNTERS];
+        final long[][] ring = new long[COUNTERS][WINDOW_SLOTS];
+        
+        Counters(String pluginName) {
+            this.pluginName = pluginName;
+            for (int i = 0; i < COUNTERS; i++) {
+                totals[i] = new LongAdder();
+            }
+        }
+        
+        void recordEvent(long wall, long cpu) {
+            totals[EVENT_WALL].add(wall);
+            totals[MAIN_CPU].add(cpu);
+            totals[CALLS].increment();
+        }
+        
+        void recordTask(long wall, long cpu) {
+            totals[TASK_WALL].add(wall);
+            totals[MAIN_CPU].add(cpu);
+            totals[CALLS].increment();
+        }
+        
+        void recordAsync(long wall, long cpu) {
+            totals[ASYNC_WALL].add(wall);
+        }
+        
+        // Moves the growth since the last rollup into the ring slot and
+        // returns the sum over the window
+        long[] roll(int slot) {
+            long[] window = new long[COUNTERS];
+            for (int i = 0; i < COUNTERS; i++) {
+                long total = totals[i].sum();
+                ring[i][slot] = total - last[i];
+                last[i] = total;
+                for (long value : ring[i]) {
+                    window[i] += value;
+                }
+            }
+            return window;
+        }
+    }
+    
+    // -1 while CPU timing is off
+    static long cpuStart() {
+        return cpuTiming ? THREAD_BEAN.getCurrentThreadCpuTime() : -1;
+    }
+    
+    static long cpuSince(long start) {
+        return start >= 0 ? THREAD_BEAN.getCurrentThreadCpuTime() - start : 0;
+    }
+    
+    static long[] nestedTimes() {
+        return NESTED.get();
+    }
+    
+    // Self time of a call that took inclusive in total, given the thread's
+    // nested total when it began; books the inclusive time for its caller.
+    // CPU timing switched on during a call can make the difference negative.
+    static long selfTime(long[] nested, int index, long nestedAtStart, long inclusive) {
+        long self = inclusive - (nested[index] - nestedAtStart);
+        nested[index] = nestedAtStart + inclusive;
+        return Math.max(0, self);
+    }
+    
+    // From profiler.cpu-time in the config
+    public void setCpuTimeConfigured(boolean configured) {
+        cpuTimeConfigured = configured;
+        refreshCpuTiming();
+    }
+    
+    // Call after the stack profiler or event timing starts or stops
+    public void refreshCpuTiming() {
+        cpuTiming = CPU_TIME_SUPPORTED &&
+            (cpuTimeConfigured || eventTimingActive || plugin.getStackProfiler().isRunning());
+    }
+    
+    public boolean isCpuTiming() {
+        return cpuTiming;
+    }
+    
+    public void start() {
+        stop();
+        lastTickCount = tickMonitor.getTickCount();
+        lastRollupNanos = System.nanoTime();
+        
+        // Wait one tick so plugins enabled after us are included
+        scanTask = Bukkit.getScheduler().runTaskTimer(plugin, this::scan, 1L, SCAN_PERIOD);
+        rollupTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::rollup, ROLLUP_PERIOD, ROLLUP_PERIOD);
+    }
+    
+    public void stop() {
+        if (scanTask != null) {
+            scanTask.cancel();
+            scanTask = null;
+        }
+        if (rollupTask != null) {
+            rollupTask.cancel();
+            rollupTask = null;
+        }
+        stopEventTiming();
+        restore();
+    }
+    
+    public PluginTiming getTiming(String pluginName) {
+        return timings.getOrDefault(pluginName, PluginTiming.NONE);
+    }
+    
+    public Map<String, PluginTiming> getTimings() {
+        return timings;
+    }
+    
+    // Starts per listener latency histograms; main thread
+    public boolean startEventTiming() {
+        if (eventTimingActive) return false;
+        
+        eventTimings = new EventTimings();
+        eventTimingActive = true;
+        attachEventTimings(eventTimings);
+        refreshCpuTiming();
+        return true;
+    }
+    
+    public boolean stopEventTiming() {
+        if (!eventTimingActive) return false;
+        
+        eventTimingActive = false;
+        attachEventTimings(null);
+        refreshCpuTiming();
+        return true;
+    }
+    
+    public boolean isEventTimingActive() {
+        return eventTimingActive;
+    }
+    
+    // Null until event timing has been started once
+    public EventTimings getEventTimings() {
+        return eventTimings;
+    }
+    
+    private void attachEventTimings(EventTimings timings) {
+        for (HandlerList handlers : HandlerList.getHandlerLists()) {
+            for (RegisteredListener listener : handlers.getRegisteredListeners()) {
+                if (listener instanceof ProfiledListener) {
+                    ProfiledListener profiled = (ProfiledListener) listener;
+                    profiled.eventStats = null;
+                    profiled.eventTimings = timings;
+                }
+            }
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginEnable(PluginEnableEvent event) {
+        // Pick up the new plugin's listeners and tasks on the next tick
+        if (scanTask != null) {
+            Bukkit.getScheduler().runTask(plugin, this::scan);
+        }
+    }
+    
+    private Counters countersFor(Plugin owner) {
+        return counters.computeIfAbsent(owner.getName(), Counters::new);
+    }
+    
+    private void scan() {
+        wrapListeners();
+        wrapTasks();
+    }
+    
+    private void wrapListeners() {
+        for (HandlerList handlers : HandlerList.getHandlerLists()) {
+            RegisteredListener[] listeners = handlers.getRegisteredListeners();
+            boolean unwrapped = false;
+            for (RegisteredListener listener : listeners) {
+                if (!(listener instanceof ProfiledListener)) {
+                    unwrapped = true;
+                    break;
+                }
+            }
+            if (!unwrapped) continue;
+            
+            // Re-register everything in the original order so call order is kept.
+            // HandlerList's register, unregister and bake lock the list itself, so
+            // holding that lock keeps async events from baking a half-empty array.
+            synchronized (handlers) {
+                listeners = handlers.getRegisteredListeners();
+                for (RegisteredListener listener : listeners) {
+                    handlers.unregister(listener);
+                }
+                for (RegisteredListener listener : listeners) {
+                    if (listener instanceof ProfiledListener) {
+                        handlers.register(listener);
+                    } else {
+                        ProfiledListener profiled = new ProfiledListener(listener, countersFor(listener.getPlugin()));
+                        if (eventTimingActive) {
+                            profiled.eventTimings = eventTimings;
+                        }
+                        handlers.register(profiled);
+                    }
+                }
+            }
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void wrapTasks() {
+        if (taskWrappingFailed) return;
+        
+        for (BukkitTask task : Bukkit.getScheduler().getPendingTasks()) {
+            if (task.isCancelled() || task.getOwner() == null) continue;
+            try {
+                for (Field field : getTaskFields(task.getClass())) {
+                    Object value = field.get(task);
+                    if (value == null || value instanceof ProfiledTask) continue;
+                    
+                    Counters owner = countersFor(task.getOwner());
+                    if (field.getType() == Runnable.class) {
+                        field.set(task, new ProfiledTask((Runnable) value, owner, task.isSync()));
+                    } else {
+                        field.set(task, new ProfiledTask((Consumer<BukkitTask>) value, owner, task.isSync()));
+                    }
+                }
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // Not a CraftBukkit-style scheduler, keep profiling listeners only
+                taskWrappingFailed = true;
+                plugin.getLogger().warning("Scheduler task timing is not available on this server: " + e);
+                return;
+            }
+        }
+    }
+    
+    // What a pending task runs, a ProfiledTask once it has been wrapped; null
+    // when the scheduler's tasks can't be read. Main thread.
+    Object getTaskWork(BukkitTask task) {
+        if (taskWrappingFailed) return null;
+        try {
+            for (Field field : getTaskFields(task.getClass())) {
+                Object value = field.get(task);
+                if (value != null) return value;
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Fall through
+        }
+        return null;
+    }
+    
+    // The Runnable/Consumer fields a scheduler task keeps its work in
+    private List<Field> getTaskFields(Class<?> type) {
+        List<Field> fields = taskFields.get(type);
+        if (fields != null) return fields;
+        
+        fields = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) continue;
+                if (field.getType() == Runnable.class || field.getType() == Consumer.class) {
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+        }
+        taskFields.put(type, fields);
+        return fields;
+    }
+    
+    // Puts the original listeners and runnables back
+    private void restore() {
+        for (HandlerList handlers : HandlerList.getHandlerLists()) {
+            RegisteredListener[] listeners = handlers.getRegisteredListeners();
+            boolean wrapped = false;
+            for (RegisteredListener listener : listeners) {
+                if (listener instanceof ProfiledListener) {
+                    wrapped = true;
+                    break;
+                }
+            }
+            if (!wrapped) continue;
+            
+            // Swapped under the list's own lock, as in wrapListeners
+            synchronized (handlers) {
+                listeners = handlers.getRegisteredListeners();
+                for (RegisteredListener listener : listeners) {
+                    handlers.unregister(listener);
+                }
+                for (RegisteredListener listener : listeners) {
+                    handlers.register(listener instanceof ProfiledListener
+                            ? ((ProfiledListener) listener).getDelegate() : listener);
+                }
+            }
+        }
+        
+        if (taskWrappingFailed) return;
+        for (BukkitTask task : Bukkit.getScheduler().getPendingTasks()) {
+            try {
+                for (Field field : getTaskFields(task.getClass())) {
+                    Object value = field.get(task);
+                    if (value instanceof ProfiledTask) {
+                        field.set(task, ((ProfiledTask) value).getDelegate());
+                    }
+                }
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return;
+            }
+        }
+    }
+    
+    private synchronized void rollup() {
+        long ticks = tickMonitor.getTickCount();
+        long now = System.nanoTime();
+        tickRing[slot] = ticks - lastTickCount;
+        nanosRing[slot] = now - lastRollupNanos;
+        lastTickCount = ticks;
+        lastRollupNanos = now;
+        
+        long windowTicks = 0;
+        long windowNanos = 0;
+        for (int i = 0; i < WINDOW_SLOTS; i++) {
+            windowTicks += tickRing[i];
+            windowNanos += nanosRing[i];
+        }
+        double tickDivisor = Math.max(1, windowTicks) * 1_000_000.0;
+        double seconds = Math.max(1, windowNanos) / 1_000_000_000.0;
+        
+        Map<String, PluginTiming> result = new HashMap<>();
+        for (Counters c : counters.values()) {
+            long[] window = c.roll(slot);
+            result.put(c.pluginName, new PluginTiming(c.pluginName,
+                    window[EVENT_WALL] / tickDivisor,
+                    window[TASK_WALL] / tickDivisor,
+                    window[MAIN_CPU] / tickDivisor,
+                    window[ASYNC_WALL] / 1_000_000.0 / seconds,
+                    (double) window[CALLS] / Math.max(1, windowTicks)));
+        }
+        
+        slot = (slot + 1) % WINDOW_SLOTS;
+        timings = Collections.unmodifiableMap(result);
+    }
+}
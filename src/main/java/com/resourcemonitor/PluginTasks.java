@@ -0,0 +1,68 @@
+package com.resourcemonitor;
+
+import java.util.List;
+
+// What one plugin has queued in the scheduler, from the last inspection
+public final class PluginTasks {
+    
+    private final String pluginName;
+    private final int syncTasks;
+    private final int asyncTasks;
+    private final int activeWorkers;
+    private final double syncMsPerTick;
+    private final boolean growing;
+    private final int growth;
+    private final List<TaskStats> tasks;
+    
+    public PluginTasks(String pluginName, int syncTasks, int asyncTasks, int activeWorkers, double syncMsPerTick,
+                       boolean growing, int growth, List<TaskStats> tasks) {
+        this.pluginName = pluginName;
+        this.syncTasks = syncTasks;
+        this.asyncTasks = asyncTasks;
+        this.activeWorkers = activeWorkers;
+        this.syncMsPerTick = syncMsPerTick;
+        this.growing = growing;
+        this.growth = growth;
+        this.tasks = tasks;
+    }
+    
+    public String getPluginName() {
+        return pluginName;
+    }
+    
+    public int getTaskCount() {
+        return syncTasks + asyncTasks;
+    }
+    
+    public int getSyncTasks() {
+        return syncTasks;
+    }
+    
+    public int getAsyncTasks() {
+        return asyncTasks;
+    }
+    
+    // Async tasks running on a worker thread right now
+    public int getActiveWorkers() {
+        return activeWorkers;
+    }
+    
+    public double getSyncMsPerTick() {
+        return syncMsPerTick;
+    }
+    
+    // The task count went up and never down over the leak window
+    public boolean isGrowing() {
+        return growing;
+    }
+    
+    // Change in task count over the leak window
+    public int getGrowth() {
+        return growth;
+    }
+    
+    // By task class, costliest first
+    public List<TaskStats> getTasks() {
+        return tasks;
+    }
+}
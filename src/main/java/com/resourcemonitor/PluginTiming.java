@@ -0,0 +1,64 @@
+package com.resourcemonitor;
+
+// Measured cost of one plugin over the profiler's rolling window
+public final class PluginTiming {
+    
+    public static final PluginTiming NONE = new PluginTiming("", 0, 0, 0, 0, 0);
+    
+    private static final double TICK_MS = 50.0;
+    
+    private final String pluginName;
+    private final double eventMsPerTick;
+    private final double taskMsPerTick;
+    private final double cpuMsPerTick;
+    private final double asyncMsPerSecond;
+    private final double callsPerTick;
+    
+    public PluginTiming(String pluginName, double eventMsPerTick, double taskMsPerTick,
+                        double cpuMsPerTick, double asyncMsPerSecond, double callsPerTick) {
+        this.pluginName = pluginName;
+        this.eventMsPerTick = eventMsPerTick;
+        this.taskMsPerTick = taskMsPerTick;
+        this.cpuMsPerTick = cpuMsPerTick;
+        this.asyncMsPerSecond = asyncMsPerSecond;
+        this.callsPerTick = callsPerTick;
+    }
+    
+    public String getPluginName() {
+        return pluginName;
+    }
+    
+    // Main thread wall time spent in event listeners
+    public double getEventMsPerTick() {
+        return eventMsPerTick;
+    }
+    
+    // Main thread wall time spent in scheduler tasks
+    public double getTaskMsPerTick() {
+        return taskMsPerTick;
+    }
+    
+    // Main thread wall time, events and tasks combined
+    public double getMsPerTick() {
+        return eventMsPerTick + taskMsPerTick;
+    }
+    
+    // Share of a 50ms tick used by this plugin
+    public double getPercentOfTick() {
+        return getMsPerTick() / TICK_MS * 100;
+    }
+    
+    // Main thread CPU time, events and tasks combined
+    public double getCpuMsPerTick() {
+        return cpuMsPerTick;
+    }
+    
+    // Wall time spent in async events and async tasks
+    public double getAsyncMsPerSecond() {
+        return asyncMsPerSecond;
+    }
+    
+    public double getCallsPerTick() {
+        return callsPerTick;
+    }
+}
@@ -0,0 +1,56 @@
+package com.resourcemonitor;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.plugin.RegisteredListener;
+
+// Stands in for a plugin's RegisteredListener in its HandlerList and times
+// every call before handing the event to the original registration. The
+// plugin is charged self time; the latency histograms of event timing keep
+// the whole call, as that is how long the handler held up the event.
+class ProfiledListener extends RegisteredListener {
+    
+    private final RegisteredListener delegate;
+    private final PluginProfiler.Counters counters;
+    
+    // Set while event timing is on, see EventTimings
+    volatile EventTimings eventTimings;
+    volatile EventTimings.ListenerStats eventStats;
+    
+    ProfiledListener(RegisteredListener delegate, PluginProfiler.Counters counters) {
+        super(delegate.getListener(), (listener, event) -> delegate.callEvent(event),
+              delegate.getPriority(), delegate.getPlugin(), delegate.isIgnoringCancelled());
+        this.delegate = delegate;
+        this.counters = counters;
+    }
+    
+    RegisteredListener getDelegate() {
+        return delegate;
+    }
+    
+    @Override
+    public void callEvent(Event event) throws EventException {
+        long[] nested = PluginProfiler.nestedTimes();
+        long nestedWall = nested[PluginProfiler.NESTED_WALL];
+        long nestedCpu = nested[PluginProfiler.NESTED_CPU];
+        long cpuStart = PluginProfiler.cpuStart();
+        long start = System.nanoTime();
+        try {
+            delegate.callEvent(event);
+        } finally {
+            long wall = System.nanoTime() - start;
+            long cpu = PluginProfiler.cpuSince(cpuStart);
+            long selfWall = PluginProfiler.selfTime(nested, PluginProfiler.NESTED_WALL, nestedWall, wall);
+            long selfCpu = PluginProfiler.selfTime(nested, PluginProfiler.NESTED_CPU, nestedCpu, cpu);
+            if (event.isAsynchronous()) {
+                counters.recordAsync(selfWall, selfCpu);
+            } else {
+                counters.recordEvent(selfWall, selfCpu);
+            }
+            EventTimings timings = eventTimings;
+            if (timings != null) {
+                timings.record(this, event.getClass(), wall);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.resourcemonitor;
+
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Replaces the Runnable (or Consumer) held by a scheduled Bukkit task and
+// times each run before calling the original. The plugin is charged self
+// time, as for listeners; the inspector's per task figures are whole runs.
+class ProfiledTask implements Runnable, Consumer<BukkitTask> {
+    
+    private final Runnable runnable;
+    private final Consumer<BukkitTask> consumer;
+    private final PluginProfiler.Counters counters;
+    private final boolean sync;
+    
+    // This task's own totals for the scheduler inspector. The scheduler
+    // queues an async repeating task again before its last run has finished,
+    // so runs of one task can overlap on several threads.
+    final LongAdder runs = new LongAdder();
+    final LongAdder wallNanos = new LongAdder();
+    final AtomicLong maxNanos = new AtomicLong(); // reset by each inspection
+    
+    // Totals at the previous inspection, main thread only
+    long seenRuns;
+    long seenWallNanos;
+    
+    ProfiledTask(Runnable runnable, PluginProfiler.Counters counters, boolean sync) {
+        this.runnable = runnable;
+        this.consumer = null;
+        this.counters = counters;
+        this.sync = sync;
+    }
+    
+    ProfiledTask(Consumer<BukkitTask> consumer, PluginProfiler.Counters counters, boolean sync) {
+        this.runnable = null;
+        this.consumer = consumer;
+        this.counters = counters;
+        this.sync = sync;
+    }
+    
+    // The original Runnable or Consumer, used to restore the task
+    Object getDelegate() {
+        return runnable != null ? runnable : consumer;
+    }
+    
+    @Override
+    public void run() {
+        long[] nested = PluginProfiler.nestedTimes();
+        long nestedWall = nested[PluginProfiler.NESTED_WALL];
+        long nestedCpu = nested[PluginProfiler.NESTED_CPU];
+        long cpuStart = PluginProfiler.cpuStart();
+        long start = System.nanoTime();
+        try {
+            runnable.run();
+        } finally {
+            record(nested, nestedWall, nestedCpu, System.nanoTime() - start, PluginProfiler.cpuSince(cpuStart));
+        }
+    }
+    
+    @Override
+    public void accept(BukkitTask task) {
+        long[] nested = PluginProfiler.nestedTimes();
+        long nestedWall = nested[PluginProfiler.NESTED_WALL];
+        long nestedCpu = nested[PluginProfiler.NESTED_CPU];
+        long cpuStart = PluginProfiler.cpuStart();
+        long start = System.nanoTime();
+        try {
+            consumer.accept(task);
+        } finally {
+            record(nested, nestedWall, nestedCpu, System.nanoTime() - start, PluginProfiler.cpuSince(cpuStart));
+        }
+    }
+    
+    private void record(long[] nested, long nestedWall, long nestedCpu, long wall, long cpu) {
+        runs.increment();
+        wallNanos.add(wall);
+        maxNanos.accumulateAndGet(wall, Math::max);
+        long selfWall = PluginProfiler.selfTime(nested, PluginProfiler.NESTED_WALL, nestedWall, wall);
+        long selfCpu = PluginProfiler.selfTime(nested, PluginProfiler.NESTED_CPU, nestedCpu, cpu);
+        if (sync) {
+            counters.recordTask(selfWall, selfCpu);
+        } else {
+            counters.recordAsync(selfWall, selfCpu);
+        }
+    }
+}
@@ -3,12 +3,16 @@ package com.resourcemonitor;
 
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
+import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.player.AsyncPlayerChatEvent;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
@@ -16,24 +20,29 @@ import org.bukkit.plugin.Plugin;
 import org.bukkit.scheduler.BukkitRunnable;
 
 import java.lang.management.ManagementFactory;
-import java.lang.management.OperatingSystemMXBean;
-import java.text.DecimalFormat;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ResourceMonitorGUI implements Listener {
     
     private final Main plugin;
-    private final DecimalFormat df = new DecimalFormat("#.##");
     
-    // Window management
-    private final Map<UUID, WindowState> windowStates = new HashMap<>();
-    private final Map<UUID, BukkitRunnable> autoRefreshTasks = new HashMap<>();
-    private final Map<UUID, BukkitRunnable> overlayTasks = new HashMap<>();
-    private final Map<UUID, Boolean> welcomeShown = new HashMap<>();
+    // Window management, read by the async refresh tasks
+    private final Map<UUID, WindowState> windowStates = new ConcurrentHashMap<>();
+    private final Map<UUID, BukkitRunnable> autoRefreshTasks = new ConcurrentHashMap<>();
+    private volatile RenderCache renderCache = new RenderCache(null);
     
     public ResourceMonitorGUI(Main plugin) {
         this.plugin = plugin;
@@ -42,13 +51,30 @@ public class ResourceMonitorGUI implements Listener {
     private static class WindowState {
         boolean isMinimized = false;
         boolean isDragging = false;
-        boolean isOverlayMode = false;
-        int windowSize = 54; // Can be 9, 18, 27, 36, 45, 54
+        volatile int windowSize = 54; // Can be 9, 18, 27, 36, 45, 54
         String currentView = "main"; // main, plugins, minimized, overlay
+        PluginBrowser.Sort pluginSort = PluginBrowser.Sort.LOAD_ORDER;
+        String pluginSearch = null; // null shows every plugin
+        int pluginPage = 0;
+        volatile boolean awaitingPluginSearch = false; // the next chat line is a search
+        int taskPage = 0;
+        List<ChunkHotspot> shownHotspots = Collections.emptyList(); // by slot on the hotspot page
+        // What the data slots currently show, replaced on the main thread
+        volatile Map<Integer, ItemView> renderedItems = Collections.emptyMap();
         
         WindowState() {}
     }
     
+    // Data slot views rendered from one snapshot, shared by every viewer
+    private static final class RenderCache {
+        final MetricsSnapshot snapshot;
+        final Map<Integer, Map<Integer, ItemView>> layouts = new ConcurrentHashMap<>();
+        
+        RenderCache(MetricsSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+    }
+    
     public void openGUI(Player player) {
         WindowState state = windowStates.computeIfAbsent(player.getUniqueId(), k -> new WindowState());
         
@@ -63,6 +89,13 @@ public class ResourceMonitorGUI implements Listener {
         // Window Controls (Top row)
         createWindowControls(gui, player);
         
+        // Data items
+        Map<Integer, ItemView> views = renderDataItems(state.windowSize, getMetrics());
+        for (Map.Entry<Integer, ItemView> entry : views.entrySet()) {
+            gui.setItem(entry.getKey(), entry.getValue().toItemStack());
+        }
+        state.renderedItems = views;
+        
         if (state.windowSize >= 27) {
             // Create elegant border with glass panes
             createBorder(gui, state.windowSize);
@@ -139,7 +172,7 @@ public class ResourceMonitorGUI implements Listener {
         
         List<String> autoRefreshLore = new ArrayList<>();
         if (isAutoRefreshOn) {
-            autoRefreshLore.add(ChatColor.GRAY + "Automatically updates every 10 seconds");
+            autoRefreshLore.add(ChatColor.GRAY + "Automatically updates every " + getRefreshInterval());
             autoRefreshLore.add(ChatColor.GRAY + "Click to disable and stop mouse issues");
         } else {
             autoRefreshLore.add(ChatColor.GRAY + "Manual refresh only - no mouse interference");
@@ -175,23 +208,21 @@ public class ResourceMonitorGUI implements Listener {
         restoreBtn.setItemMeta(restoreMeta);
         miniGui.setItem(0, restoreBtn);
         
+        MetricsSnapshot metrics = getMetrics();
+        
         // Quick CPU info
         ItemStack quickCpu = new ItemStack(Material.REDSTONE);
         ItemMeta cpuMeta = quickCpu.getItemMeta();
-        double cpuUsage = getCpuUsage(ManagementFactory.getOperatingSystemMXBean());
-        if (cpuUsage < 0) cpuUsage = 0;
-        cpuMeta.setDisplayName(ChatColor.GOLD + "CPU: " + getCpuColor(cpuUsage) + df.format(cpuUsage) + "%");
+        double cpuUsage = metrics.getCpuUsage();
+        cpuMeta.setDisplayName(ChatColor.GOLD + "CPU: " + getCpuColor(cpuUsage) + TextFormat.percent(cpuUsage));
         quickCpu.setItemMeta(cpuMeta);
         miniGui.setItem(2, quickCpu);
         
         // Quick Memory info
         ItemStack quickMem = new ItemStack(Material.GOLD_NUGGET);
         ItemMeta memMeta = quickMem.getItemMeta();
-        Runtime runtime = Runtime.getRuntime();
-        long usedMemory = runtime.totalMemory() - runtime.freeMemory();
-        long maxMemory = runtime.maxMemory();
-        double memoryUsagePercent = (double) usedMemory / maxMemory * 100;
-        memMeta.setDisplayName(ChatColor.GOLD + "RAM: " + getMemoryColor(memoryUsagePercent) + df.format(memoryUsagePercent) + "%");
+        double memoryUsagePercent = metrics.getMemoryUsagePercent();
+        memMeta.setDisplayName(ChatColor.GOLD + "RAM: " + getMemoryColor(memoryUsagePercent) + TextFormat.percent(memoryUsagePercent));
         quickMem.setItemMeta(memMeta);
         miniGui.setItem(4, quickMem);
         
@@ -199,7 +230,7 @@ public class ResourceMonitorGUI implements Listener {
         ItemStack quickPlayers = new ItemStack(Material.PLAYER_HEAD);
         ItemMeta playersMeta = quickPlayers.getItemMeta();
         playersMeta.setDisplayName(ChatColor.AQUA + "Players: " + ChatColor.WHITE + 
-                                 Bukkit.getOnlinePlayers().size() + "/" + Bukkit.getMaxPlayers());
+                                 metrics.getOnlinePlayers() + "/" + metrics.getMaxPlayers());
         quickPlayers.setItemMeta(playersMeta);
         miniGui.setItem(6, quickPlayers);
         
@@ -248,25 +279,47 @@ public class ResourceMonitorGUI implements Listener {
         }
     }
     
+    // Renders the data items of a window layout as slot -> view. Server
+    // figures come from the snapshot and the sampler, which read them on the
+    // main thread; the rest are thread safe monitors and MXBeans, so this can
+    // run on an async thread
+    Map<Integer, ItemView> renderDataItems(int windowSize, MetricsSnapshot metrics) {
+        RenderCache cache = renderCache;
+        if (cache.snapshot != metrics) {
+            cache = new RenderCache(metrics);
+            renderCache = cache;
+        }
+        return cache.layouts.computeIfAbsent(windowSize, size -> {
+            Map<Integer, ItemView> views = new LinkedHashMap<>();
+            if (size >= 54) {
+                views.put(11, cpuView(metrics));
+                views.put(13, memoryView(metrics));
+                views.put(15, serverView(metrics));
+                views.put(29, performanceView(metrics));
+                views.put(31, pluginsView(metrics));
+                views.put(33, systemInfoView());
+                views.put(22, spikesView());
+            } else if (size >= 36) {
+                views.put(10, cpuView(metrics));
+                views.put(12, memoryView(metrics));
+                views.put(14, serverView(metrics));
+                views.put(19, pluginsView(metrics));
+                views.put(21, performanceView(metrics));
+                views.put(23, systemInfoView());
+                views.put(16, spikesView());
+            } else if (size >= 27) {
+                views.put(10, cpuView(metrics));
+                views.put(12, memoryView(metrics));
+                views.put(14, pluginsView(metrics));
+            } else {
+                views.put(10, cpuView(metrics));
+                views.put(12, memoryView(metrics));
+            }
+            return Collections.unmodifiableMap(views);
+        });
+    }
+    
     private void createFullLayout(Inventory gui) {
-        // CPU Item
-        gui.setItem(11, createCPUItem());
-        
-        // Memory Item
-        gui.setItem(13, createMemoryItem());
-        
-        // Server Info Item
-        gui.setItem(15, createServerItem());
-        
-        // Performance Item
-        gui.setItem(29, createPerformanceItem());
-        
-        // Plugins Item
-        gui.setItem(31, createPluginsItem());
-        
-        // System Info Item
-        gui.setItem(33, createSystemInfoItem());
-        
         // Refresh Item
         ItemStack refreshItem = new ItemStack(Material.EMERALD);
         ItemMeta refreshMeta = refreshItem.getItemMeta();
@@ -280,13 +333,6 @@ public class ResourceMonitorGUI implements Listener {
     
     private void createMediumLayout(Inventory gui) {
         // Compact layout for 36 slot window
-        gui.setItem(10, createCPUItem());
-        gui.setItem(12, createMemoryItem());
-        gui.setItem(14, createServerItem());
-        gui.setItem(19, createPluginsItem());
-        gui.setItem(21, createPerformanceItem());
-        gui.setItem(23, createSystemInfoItem());
-        
         // Refresh button
         ItemStack refreshItem = new ItemStack(Material.EMERALD);
         ItemMeta refreshMeta = refreshItem.getItemMeta();
@@ -297,16 +343,11 @@ public class ResourceMonitorGUI implements Listener {
     
     private void createSmallLayout(Inventory gui) {
         // Very compact layout for 27 slot window
-        gui.setItem(10, createCPUItem());
-        gui.setItem(12, createMemoryItem());
-        gui.setItem(14, createPluginsItem());
         gui.setItem(22, createQuickRefreshItem());
     }
     
     private void createMinimalLayout(Inventory gui) {
         // Essential items only for 18 slot window
-        gui.setItem(10, createCPUItem());
-        gui.setItem(12, createMemoryItem());
         gui.setItem(16, createQuickRefreshItem());
     }
     
@@ -318,162 +359,183 @@ public class ResourceMonitorGUI implements Listener {
         return refreshItem;
     }
     
-    private ItemStack createCPUItem() {
-        ItemStack item = new ItemStack(Material.REDSTONE_TORCH);
-        ItemMeta meta = item.getItemMeta();
-        
-        OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
-        double cpuUsage = getCpuUsage(osBean);
-        if (cpuUsage < 0) cpuUsage = 0;
+    private ItemView cpuView(MetricsSnapshot metrics) {
+        MetricsSampler sampler = plugin.getMetricsSampler();
+        double cpuUsage = metrics.getCpuUsage();
         
-        meta.setDisplayName(ChatColor.GOLD + "⚡ " + ChatColor.BOLD + "CPU Performance");
         List<String> lore = new ArrayList<>();
         lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
-        lore.add(ChatColor.WHITE + "Usage: " + getCpuColor(cpuUsage) + "■■■■■■■■■■ " + df.format(cpuUsage) + "%");
-        lore.add(ChatColor.WHITE + "Cores: " + ChatColor.AQUA + osBean.getAvailableProcessors() + " cores");
-        lore.add(ChatColor.WHITE + "Architecture: " + ChatColor.AQUA + osBean.getArch());
+        lore.add(ChatColor.WHITE + "Usage: " + getCpuColor(cpuUsage) + "■■■■■■■■■■ " + TextFormat.percent(cpuUsage));
+        lore.add(ChatColor.WHITE + "Cores: " + ChatColor.AQUA + metrics.getAvailableProcessors() + " cores");
+        ContainerUsage container = metrics.getContainer();
+        if (container.hasCpuLimit()) {
+            lore.add(ChatColor.WHITE + "Container Quota: " + ChatColor.AQUA + TextFormat.decimal(container.getCpuLimitCores()) + " cores" +
+                    ChatColor.GRAY + " (usage is a share of it)");
+        }
+        if (container.getThrottledPercent() >= 0) {
+            lore.add(ChatColor.WHITE + "Throttled: " + getThrottleColor(container.getThrottledPercent()) +
+                    TextFormat.percent(container.getThrottledPercent()) + " of periods" + ChatColor.GRAY + " (" +
+                    TextFormat.decimal(container.getThrottledMillisPerSecond()) + "ms/s)");
+        }
+        lore.add(ChatColor.WHITE + "Architecture: " + ChatColor.AQUA + sampler.getArch());
         lore.add(ChatColor.WHITE + "Load Average: " + ChatColor.YELLOW + 
-                df.format(osBean.getSystemLoadAverage() >= 0 ? osBean.getSystemLoadAverage() : 0.0));
+                TextFormat.decimal(metrics.getSystemLoad() >= 0 ? metrics.getSystemLoad() : 0.0));
         lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
-        meta.setLore(lore);
-        item.setItemMeta(meta);
+        if (plugin.getThreadSampler().isRunning()) {
+            lore.add(ChatColor.YELLOW + "► Click to view CPU per thread");
+        }
         
-        return item;
+        return new ItemView(Material.REDSTONE_TORCH, ChatColor.GOLD + "⚡ " + ChatColor.BOLD + "CPU Performance", lore);
     }
     
-    private ItemStack createMemoryItem() {
-        ItemStack item = new ItemStack(Material.GOLD_INGOT);
-        ItemMeta meta = item.getItemMeta();
+    private ItemView memoryView(MetricsSnapshot metrics) {
+        long maxMemory = metrics.getMaxMemory();
+        long freeMemory = metrics.getFreeMemory();
+        long usedMemory = metrics.getUsedMemory();
         
-        Runtime runtime = Runtime.getRuntime();
-        long maxMemory = runtime.maxMemory();
-        long totalMemory = runtime.totalMemory();
-        long freeMemory = runtime.freeMemory();
-        long usedMemory = totalMemory - freeMemory;
-        
-        double memoryUsagePercent = (double) usedMemory / maxMemory * 100;
+        double memoryUsagePercent = metrics.getMemoryUsagePercent();
         String memoryBar = createProgressBar(memoryUsagePercent);
         
-        meta.setDisplayName(ChatColor.GOLD + "⚬ " + ChatColor.BOLD + "Memory Usage");
         List<String> lore = new ArrayList<>();
         lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
         lore.add(ChatColor.WHITE + "Usage: " + getMemoryColor(memoryUsagePercent) + memoryBar + " " + 
-                df.format(memoryUsagePercent) + "%");
-        lore.add(ChatColor.WHITE + "Used: " + getMemoryColor(memoryUsagePercent) + formatBytes(usedMemory));
-        lore.add(ChatColor.WHITE + "Available: " + ChatColor.AQUA + formatBytes(maxMemory));
-        lore.add(ChatColor.WHITE + "Free: " + ChatColor.GREEN + formatBytes(freeMemory));
+                TextFormat.percent(memoryUsagePercent));
+        lore.add(ChatColor.WHITE + "Used: " + getMemoryColor(memoryUsagePercent) + TextFormat.bytes(usedMemory));
+        lore.add(ChatColor.WHITE + "Available: " + ChatColor.AQUA + TextFormat.bytes(maxMemory));
+        lore.add(ChatColor.WHITE + "Free: " + ChatColor.GREEN + TextFormat.bytes(freeMemory));
+        
+        // The container limit counts everything the process maps, not just the heap
+        ContainerUsage container = metrics.getContainer();
+        if (container.getRss() >= 0 && container.hasMemoryLimit()) {
+            double rssPercent = container.getRssPercentOfLimit();
+            lore.add(ChatColor.WHITE + "Process RSS: " + getMemoryColor(rssPercent) + TextFormat.bytes(container.getRss()) +
+                    ChatColor.GRAY + " of " + TextFormat.bytes(container.getMemoryLimit()) + " limit");
+        } else if (container.getRss() >= 0) {
+            lore.add(ChatColor.WHITE + "Process RSS: " + ChatColor.AQUA + TextFormat.bytes(container.getRss()));
+        }
+        
+        // After-GC figures say more about heap health than the live value
+        GcMonitor gcMonitor = plugin.getGcMonitor();
+        MemoryUsage oldGen = gcMonitor.getOldGenAfterGc();
+        if (oldGen != null && oldGen.getMax() > 0) {
+            double oldGenPercent = oldGen.getUsed() * 100.0 / oldGen.getMax();
+            lore.add(ChatColor.WHITE + "Old Gen after GC: " + getMemoryColor(oldGenPercent) + TextFormat.percent(oldGenPercent));
+        }
+        long pauseP99 = gcMonitor.getPausePercentile(0.99);
+        lore.add(ChatColor.WHITE + "GC Pause p99: " + getMsptColor(pauseP99) + pauseP99 + "ms" + ChatColor.GRAY + " (15m)");
         lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
-        meta.setLore(lore);
-        item.setItemMeta(meta);
+        lore.add(ChatColor.YELLOW + "► Click to view GC, memory pools and native memory");
         
-        return item;
+        return new ItemView(Material.GOLD_INGOT, ChatColor.GOLD + "⚬ " + ChatColor.BOLD + "Memory Usage", lore);
     }
     
-    private ItemStack createServerItem() {
-        ItemStack item = new ItemStack(Material.DIAMOND);
-        ItemMeta meta = item.getItemMeta();
-        
-        meta.setDisplayName(ChatColor.AQUA + "◆ " + ChatColor.BOLD + "Server Information");
+    private ItemView serverView(MetricsSnapshot metrics) {
         List<String> lore = new ArrayList<>();
         lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
-        lore.add(ChatColor.WHITE + "Version: " + ChatColor.AQUA + Bukkit.getVersion().split(" ")[0]);
+        lore.add(ChatColor.WHITE + "Version: " + ChatColor.AQUA + plugin.getMetricsSampler().getServerVersion());
         lore.add(ChatColor.WHITE + "Players: " + ChatColor.GREEN + 
-                Bukkit.getOnlinePlayers().size() + ChatColor.GRAY + "/" + ChatColor.YELLOW + Bukkit.getMaxPlayers());
-        lore.add(ChatColor.WHITE + "Worlds: " + ChatColor.AQUA + Bukkit.getWorlds().size() + " loaded");
-        lore.add(ChatColor.WHITE + "View Distance: " + ChatColor.AQUA + Bukkit.getViewDistance() + " chunks");
+                metrics.getOnlinePlayers() + ChatColor.GRAY + "/" + ChatColor.YELLOW + metrics.getMaxPlayers());
+        lore.add(ChatColor.WHITE + "Worlds: " + ChatColor.AQUA + metrics.getWorlds() + " loaded");
+        lore.add(ChatColor.WHITE + "View Distance: " + ChatColor.AQUA + plugin.getMetricsSampler().getViewDistance() + " chunks");
         lore.add(ChatColor.WHITE + "Uptime: " + ChatColor.GREEN + getUptime());
         lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
-        meta.setLore(lore);
-        item.setItemMeta(meta);
+        lore.add(ChatColor.YELLOW + "► Click to view per-world details");
         
-        return item;
+        return new ItemView(Material.DIAMOND, ChatColor.AQUA + "◆ " + ChatColor.BOLD + "Server Information", lore);
     }
     
-    private ItemStack createPerformanceItem() {
-        ItemStack item = new ItemStack(Material.CLOCK);
-        ItemMeta meta = item.getItemMeta();
-        
-        meta.setDisplayName(ChatColor.YELLOW + "⚡ " + ChatColor.BOLD + "Performance Metrics");
+    private ItemView performanceView(MetricsSnapshot metrics) {
         List<String> lore = new ArrayList<>();
         lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
-        lore.add(ChatColor.WHITE + "TPS: " + ChatColor.GREEN + "20.0 " + ChatColor.GRAY + "(Estimated)");
-        lore.add(ChatColor.WHITE + "MSPT: " + ChatColor.GREEN + "< 50ms");
-        lore.add(ChatColor.WHITE + "Chunks: " + ChatColor.AQUA + getTotalChunks() + " loaded");
-        lore.add(ChatColor.WHITE + "Entities: " + ChatColor.YELLOW + getTotalEntities());
+        double tps = metrics.getTps(TickMonitor.WINDOW_1M);
+        double tps5s = metrics.getTps(TickMonitor.WINDOW_5S);
+        double tps5m = metrics.getTps(TickMonitor.WINDOW_5M);
+        double tps15m = metrics.getTps(TickMonitor.WINDOW_15M);
+        double mspt = metrics.getMspt(TickMonitor.WINDOW_1M);
+        lore.add(ChatColor.WHITE + "TPS: " + getTpsColor(tps) + TextFormat.decimal(tps) + ChatColor.GRAY + " (1m)");
+        lore.add(ChatColor.GRAY + "  5s/5m/15m: " +
+                getTpsColor(tps5s) + TextFormat.decimal(tps5s) + ChatColor.GRAY + " / " +
+                getTpsColor(tps5m) + TextFormat.decimal(tps5m) + ChatColor.GRAY + " / " +
+                getTpsColor(tps15m) + TextFormat.decimal(tps15m));
+        lore.add(ChatColor.WHITE + "MSPT: " + getMsptColor(mspt) + TextFormat.decimal(mspt) + "ms" + ChatColor.GRAY + " (1m avg)");
+        lore.add(ChatColor.GRAY + "  p50/p95/p99: " + ChatColor.WHITE +
+                TextFormat.decimal(metrics.getMsptP50()) + "/" +
+                TextFormat.decimal(metrics.getMsptP95()) + "/" +
+                TextFormat.decimal(metrics.getMsptP99()) + "ms");
+        double maxMspt = metrics.getMsptMax();
+        lore.add(ChatColor.GRAY + "  Worst tick: " + getMsptColor(maxMspt) + TextFormat.decimal(maxMspt) + "ms");
+        lore.add(ChatColor.WHITE + "Chunks: " + ChatColor.AQUA + metrics.getLoadedChunks() + " loaded");
+        lore.add(ChatColor.WHITE + "Entities: " + ChatColor.YELLOW + metrics.getEntities());
         lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
-        meta.setLore(lore);
-        item.setItemMeta(meta);
+        lore.add(ChatColor.YELLOW + "► Click to view chunk hotspots");
         
-        return item;
+        return new ItemView(Material.CLOCK, ChatColor.YELLOW + "⚡ " + ChatColor.BOLD + "Performance Metrics", lore);
     }
     
-    private ItemStack createPluginsItem() {
-        ItemStack item = new ItemStack(Material.BOOK);
-        ItemMeta meta = item.getItemMeta();
-        
-        Plugin[] plugins = Bukkit.getPluginManager().getPlugins();
-        int enabledPlugins = 0;
-        int disabledPlugins = 0;
+    private ItemView spikesView() {
+        SpikeWatchdog watchdog = plugin.getSpikeWatchdog();
+        List<LagSpike> spikes = watchdog.getRecentSpikes();
         
-        for (Plugin plugin : plugins) {
-            if (plugin.isEnabled()) {
-                enabledPlugins++;
-            } else {
-                disabledPlugins++;
-            }
+        List<String> lore = new ArrayList<>();
+        lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
+        lore.add(ChatColor.WHITE + "Threshold: " + ChatColor.AQUA + watchdog.getThresholdMillis() + "ms");
+        lore.add(ChatColor.WHITE + "Recent Spikes: " + (spikes.isEmpty() ? ChatColor.GREEN : ChatColor.RED) + spikes.size());
+        if (!spikes.isEmpty()) {
+            LagSpike last = spikes.get(0);
+            lore.add(ChatColor.WHITE + "Last: " + getMsptColor(last.getDurationMs()) + TextFormat.decimal(last.getDurationMs()) + "ms" +
+                    ChatColor.GRAY + " at " + new SimpleDateFormat("HH:mm:ss").format(new Date(last.getTimestamp())));
         }
+        lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
+        lore.add(ChatColor.YELLOW + "► Click to view spike details");
+        
+        return new ItemView(Material.TNT, ChatColor.RED + "⚠ " + ChatColor.BOLD + "Lag Spikes", lore);
+    }
+    
+    private ItemView pluginsView(MetricsSnapshot metrics) {
+        int enabledPlugins = metrics.getEnabledPlugins();
+        int disabledPlugins = metrics.getPlugins() - enabledPlugins;
         
         // Get current CPU usage
-        OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
-        double cpuUsage = getCpuUsage(osBean);
-        if (cpuUsage < 0) cpuUsage = 0;
+        double cpuUsage = metrics.getCpuUsage();
         
-        meta.setDisplayName(ChatColor.GREEN + "⚙ " + ChatColor.BOLD + "Plugin Management");
         List<String> lore = new ArrayList<>();
         lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
-        lore.add(ChatColor.WHITE + "CPU Usage: " + getCpuColor(cpuUsage) + df.format(cpuUsage) + "%");
-        lore.add(ChatColor.WHITE + "Total: " + ChatColor.AQUA + plugins.length + " plugins");
+        lore.add(ChatColor.WHITE + "CPU Usage: " + getCpuColor(cpuUsage) + TextFormat.percent(cpuUsage));
+        lore.add(ChatColor.WHITE + "Total: " + ChatColor.AQUA + metrics.getPlugins() + " plugins");
         lore.add(ChatColor.WHITE + "Enabled: " + ChatColor.GREEN + enabledPlugins);
         lore.add(ChatColor.WHITE + "Disabled: " + ChatColor.RED + disabledPlugins);
         lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
         lore.add(ChatColor.YELLOW + "► Click to view plugin details");
-        meta.setLore(lore);
-        item.setItemMeta(meta);
         
-        return item;
+        return new ItemView(Material.BOOK, ChatColor.GREEN + "⚙ " + ChatColor.BOLD + "Plugin Management", lore);
     }
     
-    private ItemStack createSystemInfoItem() {
-        ItemStack item = new ItemStack(Material.COMPASS);
-        ItemMeta meta = item.getItemMeta();
+    private ItemView systemInfoView() {
+        MetricsSampler sampler = plugin.getMetricsSampler();
         
-        OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
-        
-        meta.setDisplayName(ChatColor.LIGHT_PURPLE + "⚙ " + ChatColor.BOLD + "System Information");
         List<String> lore = new ArrayList<>();
         lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
-        lore.add(ChatColor.WHITE + "OS: " + ChatColor.AQUA + osBean.getName());
-        lore.add(ChatColor.WHITE + "Version: " + ChatColor.AQUA + osBean.getVersion());
-        lore.add(ChatColor.WHITE + "Architecture: " + ChatColor.AQUA + osBean.getArch());
+        lore.add(ChatColor.WHITE + "OS: " + ChatColor.AQUA + sampler.getOsName());
+        lore.add(ChatColor.WHITE + "Version: " + ChatColor.AQUA + sampler.getOsVersion());
+        lore.add(ChatColor.WHITE + "Architecture: " + ChatColor.AQUA + sampler.getArch());
         lore.add(ChatColor.WHITE + "Java: " + ChatColor.YELLOW + System.getProperty("java.version"));
         lore.add(ChatColor.WHITE + "JVM: " + ChatColor.YELLOW + System.getProperty("java.vm.name"));
         lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
-        meta.setLore(lore);
-        item.setItemMeta(meta);
         
-        return item;
+        return new ItemView(Material.COMPASS, ChatColor.LIGHT_PURPLE + "⚙ " + ChatColor.BOLD + "System Information", lore);
     }
     
     @EventHandler
     public void onInventoryClick(InventoryClickEvent event) {
         String title = event.getView().getTitle();
-        if (!title.contains("Resource Monitor") && !title.contains("Plugin Details") && !title.contains("RM Minimized")) {
+        if (!isMonitorView(title)) {
             return;
         }
         
         event.setCancelled(true);
         
-        if (event.getCurrentItem() == null) return;
+        // Slots below belong to the player's own inventory, which reuses the same slot numbers
+        if (event.getCurrentItem() == null || event.getRawSlot() >= event.getView().getTopInventory().getSize()) return;
         
         Player player = (Player) event.getWhoClicked();
         ItemStack clickedItem = event.getCurrentItem();
@@ -498,6 +560,113 @@ public class ResourceMonitorGUI implements Listener {
             return;
         }
         
+        // Handle lag spike navigation
+        if (title.contains("Lag Spikes")) {
+            if (clickedItem.getType() == Material.ARROW) {
+                player.closeInventory();
+                openGUI(player);
+            }
+            return;
+        }
+        
+        // Handle memory page navigation
+        if (title.contains("Memory Details")) {
+            if (clickedItem.getType() == Material.ARROW) {
+                player.closeInventory();
+                openGUI(player);
+            }
+            return;
+        }
+        
+        // Handle world page navigation
+        if (title.contains("World Details")) {
+            if (clickedItem.getType() == Material.ARROW) {
+                player.closeInventory();
+                openGUI(player);
+            }
+            return;
+        }
+        
+        // Handle chunk hotspot navigation
+        if (title.contains("Chunk Hotspots")) {
+            if (clickedItem.getType() == Material.ARROW) {
+                player.closeInventory();
+                openGUI(player);
+            } else if (slot < state.shownHotspots.size()) {
+                teleportToHotspot(player, state.shownHotspots.get(slot));
+            }
+            return;
+        }
+        
+        // Handle plugin details navigation
+        if (title.contains("Plugin Details")) {
+            if (clickedItem.getType() == Material.ARROW) {
+                player.closeInventory();
+                openGUI(player);
+            } else if (slot == 45 && clickedItem.getType() == Material.PAPER) {
+                state.pluginPage = Math.max(0, state.pluginPage - 1);
+                showPluginList(player);
+            } else if (slot == 52 && clickedItem.getType() == Material.PAPER) {
+                state.pluginPage++;
+                showPluginList(player);
+            } else if (clickedItem.getType() == Material.HOPPER) {
+                state.pluginSort = state.pluginSort.next();
+                state.pluginPage = 0;
+                showPluginList(player);
+            } else if (clickedItem.getType() == Material.NAME_TAG) {
+                if (event.isRightClick() && state.pluginSearch != null) {
+                    state.pluginSearch = null;
+                    state.pluginPage = 0;
+                    showPluginList(player);
+                } else {
+                    state.awaitingPluginSearch = true;
+                    player.closeInventory();
+                    player.sendMessage(ChatColor.YELLOW + "Type part of a plugin name in chat, or 'cancel'");
+                }
+            } else if (clickedItem.getType() == Material.REPEATER) {
+                player.closeInventory();
+                showEventTimings(player);
+            } else if (clickedItem.getType() == Material.CLOCK) {
+                state.taskPage = 0;
+                player.closeInventory();
+                showSchedulerTasks(player);
+            }
+            return;
+        }
+        
+        // Handle scheduler task pages
+        if (title.contains("Scheduler Tasks")) {
+            if (slot == 53 && clickedItem.getType() == Material.ARROW) {
+                player.closeInventory();
+                showPluginList(player);
+            } else if (slot == 45 && clickedItem.getType() == Material.PAPER) {
+                state.taskPage = Math.max(0, state.taskPage - 1);
+                showSchedulerTasks(player);
+            } else if (slot == 52 && clickedItem.getType() == Material.PAPER) {
+                state.taskPage++;
+                showSchedulerTasks(player);
+            }
+            return;
+        }
+        
+        // Handle thread page navigation
+        if (title.contains("Thread CPU")) {
+            if (clickedItem.getType() == Material.ARROW) {
+                player.closeInventory();
+                openGUI(player);
+            }
+            return;
+        }
+        
+        // Handle event timing navigation
+        if (title.contains("Event Timings")) {
+            if (clickedItem.getType() == Material.ARROW) {
+                player.closeInventory();
+                showPluginList(player);
+            }
+            return;
+        }
+        
         // Handle window controls
         if (slot == 1 && clickedItem.getType() == Material.GOLD_INGOT) {
             // Minimize button
@@ -525,23 +694,68 @@ public class ResourceMonitorGUI implements Listener {
             // Plugins item clicked
             player.closeInventory();
             showPluginList(player);
-        }
-        
-        // Handle plugin details navigation
-        if (title.contains("Plugin Details") && clickedItem.getType() == Material.ARROW) {
+        } else if (clickedItem.getType() == Material.GOLD_INGOT) {
+            // Memory item clicked
             player.closeInventory();
-            openGUI(player);
+            showMemoryDetails(player);
+        } else if (clickedItem.getType() == Material.DIAMOND) {
+            // Server item clicked
+            player.closeInventory();
+            showWorldDetails(player);
+        } else if (clickedItem.getType() == Material.CLOCK) {
+            // Performance item clicked
+            player.closeInventory();
+            showHotspots(player);
+        } else if (clickedItem.getType() == Material.TNT) {
+            // Lag spikes item clicked
+            player.closeInventory();
+            showSpikeList(player);
+        } else if (clickedItem.getType() == Material.REDSTONE_TORCH && plugin.getThreadSampler().isRunning()) {
+            // CPU item clicked
+            player.closeInventory();
+            showThreads(player);
         }
     }
     
     @EventHandler
     public void onInventoryDrag(InventoryDragEvent event) {
-        String title = event.getView().getTitle();
-        if (title.contains("Resource Monitor") || title.contains("Plugin Details") || title.contains("RM Minimized")) {
+        if (isMonitorView(event.getView().getTitle())) {
             event.setCancelled(true);
         }
     }
     
+    // Takes the plugin search typed after clicking the search button
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerChat(AsyncPlayerChatEvent event) {
+        Player player = event.getPlayer();
+        WindowState state = windowStates.get(player.getUniqueId());
+        if (state == null || !state.awaitingPluginSearch) return;
+        
+        state.awaitingPluginSearch = false;
+        event.setCancelled(true);
+        String search = event.getMessage().trim();
+        
+        // Run on main thread
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            if (!player.isOnline()) return;
+            if (search.isEmpty() || search.equalsIgnoreCase("cancel")) {
+                player.sendMessage(ChatColor.GRAY + "Search cancelled");
+            } else {
+                state.pluginSearch = search;
+                state.pluginPage = 0;
+            }
+            showPluginList(player);
+        });
+    }
+    
+    private boolean isMonitorView(String title) {
+        return title.contains("Resource Monitor") || title.contains("Plugin Details") ||
+               title.contains("RM Minimized") || title.contains("Lag Spikes") ||
+               title.contains("Chunk Hotspots") || title.contains("Memory Details") ||
+               title.contains("World Details") || title.contains("Event Timings") ||
+               title.contains("Thread CPU") || title.contains("Scheduler Tasks");
+    }
+    
     private void cycleWindowSize(Player player) {
         WindowState state = windowStates.computeIfAbsent(player.getUniqueId(), k -> new WindowState());
         
@@ -579,10 +793,7 @@ public class ResourceMonitorGUI implements Listener {
     }
     
     private void toggleOverlayMode(Player player) {
-        UUID playerId = player.getUniqueId();
-        WindowState state = windowStates.computeIfAbsent(playerId, k -> new WindowState());
-        
-        if (state.isOverlayMode) {
+        if (isOverlayActive(player)) {
             // Disable overlay mode
             stopOverlay(player);
             player.sendMessage(ChatColor.RED + "Overlay mode disabled");
@@ -597,91 +808,49 @@ public class ResourceMonitorGUI implements Listener {
     }
     
     private void startOverlay(Player player) {
-        UUID playerId = player.getUniqueId();
-        WindowState state = windowStates.computeIfAbsent(playerId, k -> new WindowState());
-        state.isOverlayMode = true;
-        
-        // Stop any existing overlay task
-        BukkitRunnable existingTask = overlayTasks.get(playerId);
-        if (existingTask != null) {
-            existingTask.cancel();
-        }
-        
-        // Start overlay display task
-        BukkitRunnable overlayTask = new BukkitRunnable() {
-            @Override
-            public void run() {
-                if (!player.isOnline() || !state.isOverlayMode) {
-                    this.cancel();
-                    overlayTasks.remove(playerId);
-                    return;
-                }
-                
-                // Display overlay as action bar and title
-                showOverlayInfo(player);
-            }
-        };
-        
-        overlayTask.runTaskTimer(plugin, 0L, 30L); // Update every 1.5 seconds for smoother updates
-        overlayTasks.put(playerId, overlayTask);
+        plugin.getOverlayBroadcaster().subscribe(player);
     }
     
     private void stopOverlay(Player player) {
-        UUID playerId = player.getUniqueId();
-        WindowState state = windowStates.get(playerId);
-        if (state != null) {
-            state.isOverlayMode = false;
-        }
-        
-        // Stop overlay task
-        BukkitRunnable task = overlayTasks.get(playerId);
-        if (task != null) {
-            task.cancel();
-            overlayTasks.remove(playerId);
-        }
+        plugin.getOverlayBroadcaster().unsubscribe(player.getUniqueId());
         
         // Clear any remaining overlay
         player.sendTitle("", "", 0, 0, 0);
     }
     
-    private void showOverlayInfo(Player player) {
-        // Get current system info
-        OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
-        double cpuUsage = getCpuUsage(osBean);
-        if (cpuUsage < 0) cpuUsage = 0;
-        
-        Runtime runtime = Runtime.getRuntime();
-        long usedMemory = runtime.totalMemory() - runtime.freeMemory();
-        long maxMemory = runtime.maxMemory();
-        double memoryUsagePercent = (double) usedMemory / maxMemory * 100;
+    MetricsSnapshot getMetrics() {
+        return plugin.getMetricsSampler().getSnapshot();
+    }
+    
+    // Built once per refresh by the OverlayBroadcaster and shared by every viewer
+    String buildOverlayText(MetricsSnapshot metrics) {
+        double cpuUsage = metrics.getCpuUsage();
+        double memoryUsagePercent = metrics.getMemoryUsagePercent();
+        double tps = metrics.getTps(TickMonitor.WINDOW_5S);
         
         // Format overlay text - compact and clean
         String cpuColor = getCpuColor(cpuUsage);
         String memColor = getMemoryColor(memoryUsagePercent);
         
-        String overlayText = ChatColor.DARK_GRAY + "[" + ChatColor.GOLD + "RM" + ChatColor.DARK_GRAY + "] " +
-                           ChatColor.WHITE + "CPU: " + cpuColor + df.format(cpuUsage) + "%" + 
-                           ChatColor.GRAY + " | " +
-                           ChatColor.WHITE + "RAM: " + memColor + df.format(memoryUsagePercent) + "%" +
-                           ChatColor.GRAY + " | " +
-                           ChatColor.WHITE + "Players: " + ChatColor.AQUA + Bukkit.getOnlinePlayers().size() +
-                           ChatColor.GRAY + " | " + ChatColor.BLUE + "S Dev";
-        
-        // Use a combination of methods for top-left positioning
-        try {
-            // Method 1: Try action bar for better positioning
-            player.spigot().sendMessage(net.md_5.bungee.api.ChatMessageType.ACTION_BAR, 
-                net.md_5.bungee.api.chat.TextComponent.fromLegacyText(overlayText));
-        } catch (Exception e) {
-            // Method 2: Use title with empty main title for top positioning
-            player.sendTitle(" ", overlayText, 0, 35, 5);
-        }
+        StringBuilder text = new StringBuilder(128);
+        text.append(ChatColor.DARK_GRAY).append('[').append(ChatColor.GOLD).append("RM").append(ChatColor.DARK_GRAY).append("] ");
+        text.append(ChatColor.WHITE).append("TPS: ").append(getTpsColor(tps));
+        TextFormat.appendDecimal(text, tps);
+        text.append(ChatColor.GRAY).append(" | ");
+        text.append(ChatColor.WHITE).append("CPU: ").append(cpuColor);
+        TextFormat.appendPercent(text, cpuUsage);
+        text.append(ChatColor.GRAY).append(" | ");
+        text.append(ChatColor.WHITE).append("RAM: ").append(memColor);
+        TextFormat.appendPercent(text, memoryUsagePercent);
+        text.append(ChatColor.GRAY).append(" | ");
+        text.append(ChatColor.WHITE).append("Players: ").append(ChatColor.AQUA).append(metrics.getOnlinePlayers());
+        text.append(ChatColor.GRAY).append(" | ").append(ChatColor.BLUE).append("S Dev");
+        return text.toString();
     }
     
     // Public methods for hotkey access
     public boolean isOverlayActive(Player player) {
-        WindowState state = windowStates.get(player.getUniqueId());
-        return state != null && state.isOverlayMode;
+        return plugin.getOverlayBroadcaster().isSubscribed(player.getUniqueId());
     }
     
     public void enableOverlay(Player player) {
@@ -692,16 +861,7 @@ public class ResourceMonitorGUI implements Listener {
         stopOverlay(player);
     }
     
-    // Welcome message management
-    public boolean hasSeenWelcome(Player player) {
-        return welcomeShown.getOrDefault(player.getUniqueId(), false);
-    }
-    
-    public void markWelcomeSeen(Player player) {
-        welcomeShown.put(player.getUniqueId(), true);
-    }
-    
-    private void toggleAutoRefresh(Player player) {
+    void toggleAutoRefresh(Player player) {
         UUID playerId = player.getUniqueId();
         BukkitRunnable task = autoRefreshTasks.get(playerId);
         
@@ -714,8 +874,8 @@ public class ResourceMonitorGUI implements Listener {
         } else {
             // Start auto-refresh
             startAutoRefresh(player);
-            player.sendMessage(ChatColor.GREEN + "Auto-refresh enabled (10 second interval)");
-            player.sendTitle(ChatColor.GREEN + "Auto-Refresh ON", ChatColor.GRAY + "Updates every 10 seconds", 10, 40, 10);
+            player.sendMessage(ChatColor.GREEN + "Auto-refresh enabled (" + getRefreshInterval() + " interval)");
+            player.sendTitle(ChatColor.GREEN + "Auto-Refresh ON", ChatColor.GRAY + "Updates every " + getRefreshInterval(), 10, 40, 10);
         }
         
         // Update only the auto-refresh button without closing window
@@ -738,7 +898,7 @@ public class ResourceMonitorGUI implements Listener {
         
         List<String> autoRefreshLore = new ArrayList<>();
         if (isAutoRefreshOn) {
-            autoRefreshLore.add(ChatColor.GRAY + "Automatically updates every 10 seconds");
+            autoRefreshLore.add(ChatColor.GRAY + "Automatically updates every " + getRefreshInterval());
             autoRefreshLore.add(ChatColor.GRAY + "Click to disable and stop mouse issues");
         } else {
             autoRefreshLore.add(ChatColor.GRAY + "Manual refresh only");
@@ -773,117 +933,444 @@ public class ResourceMonitorGUI implements Listener {
                 
                 // Only refresh if player has the window open
                 String title = player.getOpenInventory().getTitle();
-                if (title.contains("Resource Monitor") && !title.contains("Plugin Details")) {
-                    // Update the GUI items without closing/reopening
-                    Bukkit.getScheduler().runTask(plugin, () -> {
-                        updateGUIItems(player);
-                    });
+                if (!title.contains("Resource Monitor") || title.contains("Plugin Details")) {
+                    return;
+                }
+                
+                WindowState state = windowStates.get(playerId);
+                if (state == null) return;
+                
+                // Render here and hand the main thread only the slots that changed
+                int windowSize = state.windowSize;
+                Map<Integer, ItemView> previous = state.renderedItems;
+                Map<Integer, ItemView> current = renderDataItems(windowSize, getMetrics());
+                Map<Integer, ItemView> changed = new HashMap<>();
+                for (Map.Entry<Integer, ItemView> entry : current.entrySet()) {
+                    if (!entry.getValue().equals(previous.get(entry.getKey()))) {
+                        changed.put(entry.getKey(), entry.getValue());
+                    }
                 }
+                if (changed.isEmpty()) return;
+                
+                // Update the GUI items without closing/reopening
+                Bukkit.getScheduler().runTask(plugin, () -> updateGUIItems(player, windowSize, current, changed));
             }
         };
         
-        refreshTask.runTaskTimerAsynchronously(plugin, 100L, 200L); // Refresh every 10 seconds
+        long period = plugin.getIntervals().getGuiRefreshTicks();
+        refreshTask.runTaskTimerAsynchronously(plugin, Math.min(100L, period), period);
         autoRefreshTasks.put(playerId, refreshTask);
     }
     
-    private void updateGUIItems(Player player) {
+    // Restarts running auto-refresh tasks with the current interval, after a reload
+    public void restartAutoRefresh() {
+        for (UUID playerId : new ArrayList<>(autoRefreshTasks.keySet())) {
+            Player player = Bukkit.getPlayer(playerId);
+            if (player != null) {
+                startAutoRefresh(player);
+            } else {
+                endSession(playerId);
+            }
+        }
+    }
+    
+    private String getRefreshInterval() {
+        return TextFormat.duration(plugin.getIntervals().getGuiRefreshTicks() * 50L);
+    }
+    
+    private void updateGUIItems(Player player, int windowSize, Map<Integer, ItemView> current, Map<Integer, ItemView> changed) {
         // Update the inventory items without closing the window
         WindowState state = windowStates.get(player.getUniqueId());
-        if (state == null) return;
+        if (state == null || state.windowSize != windowSize) return;
         
         Inventory currentInventory = player.getOpenInventory().getTopInventory();
-        if (currentInventory == null) return;
+        if (currentInventory == null || !player.getOpenInventory().getTitle().contains("Resource Monitor")) return;
         
-        // Update the main data items only
-        if (state.windowSize >= 54) {
-            currentInventory.setItem(11, createCPUItem());
-            currentInventory.setItem(13, createMemoryItem());
-            currentInventory.setItem(15, createServerItem());
-            currentInventory.setItem(29, createPerformanceItem());
-            currentInventory.setItem(31, createPluginsItem());
-            currentInventory.setItem(33, createSystemInfoItem());
-        } else if (state.windowSize >= 36) {
-            currentInventory.setItem(10, createCPUItem());
-            currentInventory.setItem(12, createMemoryItem());
-            currentInventory.setItem(14, createServerItem());
-            currentInventory.setItem(19, createPluginsItem());
-            currentInventory.setItem(21, createPerformanceItem());
-            currentInventory.setItem(23, createSystemInfoItem());
-        } else if (state.windowSize >= 27) {
-            currentInventory.setItem(10, createCPUItem());
-            currentInventory.setItem(12, createMemoryItem());
-            currentInventory.setItem(14, createPluginsItem());
-        } else {
-            currentInventory.setItem(10, createCPUItem());
-            currentInventory.setItem(12, createMemoryItem());
+        // Update the changed data items only
+        for (Map.Entry<Integer, ItemView> entry : changed.entrySet()) {
+            currentInventory.setItem(entry.getKey(), entry.getValue().toItemStack());
         }
+        state.renderedItems = current;
         
         // Send a subtle action bar message instead of chat
         player.sendTitle("", ChatColor.DARK_GRAY + "» Data updated", 0, 20, 10);
     }
-
+    
     private void closeWindow(Player player) {
-        UUID playerId = player.getUniqueId();
+        endSession(player.getUniqueId());
         
-        // Cancel auto-refresh task
-        BukkitRunnable task = autoRefreshTasks.get(playerId);
+        player.closeInventory();
+        player.sendMessage(ChatColor.GREEN + "Resource Monitor window closed!");
+    }
+    
+    // Drops the window state and stops auto-refresh, also called on quit
+    void endSession(UUID playerId) {
+        BukkitRunnable task = autoRefreshTasks.remove(playerId);
         if (task != null) {
             task.cancel();
-            autoRefreshTasks.remove(playerId);
         }
-        
-        // Remove window state
         windowStates.remove(playerId);
-        
-        player.closeInventory();
-        player.sendMessage(ChatColor.GREEN + "Resource Monitor window closed!");
     }
     
     private void showPluginList(Player player) {
+        WindowState state = windowStates.computeIfAbsent(player.getUniqueId(), k -> new WindowState());
+        PluginProfiler profiler = this.plugin.getPluginProfiler();
+        PluginBrowser browser = this.plugin.getPluginBrowser();
+        List<Plugin> plugins = browser.getPlugins(state.pluginSort, state.pluginSearch);
+        int pages = PluginBrowser.pageCount(plugins);
+        state.pluginPage = Math.min(state.pluginPage, pages - 1);
+        
         // Create a separate GUI for plugin list
-        Inventory pluginGui = Bukkit.createInventory(null, 54, ChatColor.DARK_GREEN + "▋ " + ChatColor.BOLD + "Plugin Details" + ChatColor.RESET + ChatColor.DARK_GREEN + " ▋");
+        Inventory pluginGui = Bukkit.createInventory(null, 54, ChatColor.DARK_GREEN + "▋ " + ChatColor.BOLD + "Plugin Details" +
+                ChatColor.RESET + ChatColor.DARK_GREEN + " ▋ " + ChatColor.GRAY + (state.pluginPage + 1) + "/" + pages);
         
-        Plugin[] plugins = Bukkit.getPluginManager().getPlugins();
+        // Only this page's items are built, the rest wait until their page is shown
+        List<Plugin> page = PluginBrowser.page(plugins, state.pluginPage);
+        for (int i = 0; i < page.size(); i++) {
+            pluginGui.setItem(i, browser.getItem(page.get(i), this::buildPluginItem));
+        }
         
-        for (int i = 0; i < Math.min(plugins.length, 45); i++) {
-            Plugin plugin = plugins[i];
-            ItemStack pluginItem = new ItemStack(plugin.isEnabled() ? getGreenMaterial() : getRedMaterial());
-            ItemMeta meta = pluginItem.getItemMeta();
-            
-            String status = plugin.isEnabled() ? ChatColor.GREEN + "✓ ENABLED" : ChatColor.RED + "✗ DISABLED";
-            meta.setDisplayName(ChatColor.YELLOW + plugin.getName() + " " + status);
+        // Page buttons
+        if (state.pluginPage > 0) {
+            ItemStack previousItem = new ItemStack(Material.PAPER);
+            ItemMeta previousMeta = previousItem.getItemMeta();
+            previousMeta.setDisplayName(ChatColor.YELLOW + "← Previous Page");
+            previousItem.setItemMeta(previousMeta);
+            pluginGui.setItem(45, previousItem);
+        }
+        if (state.pluginPage < pages - 1) {
+            ItemStack nextItem = new ItemStack(Material.PAPER);
+            ItemMeta nextMeta = nextItem.getItemMeta();
+            nextMeta.setDisplayName(ChatColor.YELLOW + "Next Page →");
+            nextItem.setItemMeta(nextMeta);
+            pluginGui.setItem(52, nextItem);
+        }
+        
+        // Search
+        ItemStack searchItem = new ItemStack(Material.NAME_TAG);
+        ItemMeta searchMeta = searchItem.getItemMeta();
+        searchMeta.setDisplayName(ChatColor.AQUA + "⌕ Search: " + ChatColor.WHITE + (state.pluginSearch != null ? state.pluginSearch : "All Plugins"));
+        List<String> searchLore = new ArrayList<>();
+        searchLore.add(ChatColor.WHITE + "Showing: " + ChatColor.AQUA + plugins.size() + ChatColor.GRAY + " of " +
+                Bukkit.getPluginManager().getPlugins().length + " plugins");
+        searchLore.add(ChatColor.GRAY + "Click to search by name in chat");
+        if (state.pluginSearch != null) {
+            searchLore.add(ChatColor.GRAY + "Right-click to clear the search");
+        }
+        searchMeta.setLore(searchLore);
+        searchItem.setItemMeta(searchMeta);
+        pluginGui.setItem(46, searchItem);
+        
+        // Back button
+        ItemStack backItem = new ItemStack(Material.ARROW);
+        ItemMeta backMeta = backItem.getItemMeta();
+        backMeta.setDisplayName(ChatColor.YELLOW + "← Back to Resource Monitor");
+        List<String> backLore = new ArrayList<>();
+        backLore.add(ChatColor.GRAY + "Click to return to main menu");
+        backMeta.setLore(backLore);
+        backItem.setItemMeta(backMeta);
+        pluginGui.setItem(53, backItem);
+        
+        // Sort toggle
+        ItemStack sortItem = new ItemStack(Material.HOPPER);
+        ItemMeta sortMeta = sortItem.getItemMeta();
+        sortMeta.setDisplayName(ChatColor.AQUA + "⇅ Sort: " + ChatColor.WHITE + state.pluginSort.getLabel());
+        List<String> sortLore = new ArrayList<>();
+        sortLore.add(ChatColor.GRAY + "Click to sort by " + state.pluginSort.next().getLabel().toLowerCase());
+        sortLore.add(ChatColor.DARK_GRAY + "Figures cover the last minute");
+        sortMeta.setLore(sortLore);
+        sortItem.setItemMeta(sortMeta);
+        pluginGui.setItem(49, sortItem);
+        
+        // Event timing page
+        ItemStack eventsItem = new ItemStack(Material.REPEATER);
+        ItemMeta eventsMeta = eventsItem.getItemMeta();
+        eventsMeta.setDisplayName(ChatColor.LIGHT_PURPLE + "⌚ Event Timings");
+        List<String> eventsLore = new ArrayList<>();
+        eventsLore.add(ChatColor.GRAY + "Latency per event and listener method");
+        eventsLore.add(profiler.isEventTimingActive() ? ChatColor.GREEN + "Recording" : ChatColor.DARK_GRAY + "Off, start with /rm events start");
+        eventsMeta.setLore(eventsLore);
+        eventsItem.setItemMeta(eventsMeta);
+        pluginGui.setItem(51, eventsItem);
+        
+        // Scheduler task page
+        SchedulerInspector inspector = this.plugin.getSchedulerInspector();
+        ItemStack tasksItem = new ItemStack(Material.CLOCK);
+        ItemMeta tasksMeta = tasksItem.getItemMeta();
+        tasksMeta.setDisplayName(ChatColor.GOLD + "⏲ Scheduler Tasks");
+        List<String> tasksLore = new ArrayList<>();
+        tasksLore.add(ChatColor.GRAY + "Pending tasks per plugin and what they cost");
+        tasksLore.add(ChatColor.WHITE + "Pending: " + ChatColor.AQUA + inspector.getTotalTasks() +
+                ChatColor.GRAY + " | Workers: " + ChatColor.AQUA + inspector.getTotalWorkers());
+        long growing = inspector.getPlugins().stream().filter(PluginTasks::isGrowing).count();
+        if (growing > 0) {
+            tasksLore.add(ChatColor.RED + "⚠ " + growing + " plugin(s) keep adding tasks");
+        }
+        tasksMeta.setLore(tasksLore);
+        tasksItem.setItemMeta(tasksMeta);
+        pluginGui.setItem(47, tasksItem);
+        
+        player.openInventory(pluginGui);
+    }
+    
+    private void showSchedulerTasks(Player player) {
+        WindowState state = windowStates.computeIfAbsent(player.getUniqueId(), k -> new WindowState());
+        SchedulerInspector inspector = plugin.getSchedulerInspector();
+        List<PluginTasks> plugins = inspector.getPlugins();
+        int pages = Math.max(1, (plugins.size() + 44) / 45);
+        state.taskPage = Math.min(state.taskPage, pages - 1);
+        
+        Inventory taskGui = Bukkit.createInventory(null, 54, ChatColor.GOLD + "▋ " + ChatColor.BOLD + "Scheduler Tasks" +
+                ChatColor.RESET + ChatColor.GOLD + " ▋ " + ChatColor.GRAY + (state.taskPage + 1) + "/" + pages);
+        
+        int first = state.taskPage * 45;
+        for (int i = 0; i < Math.min(plugins.size() - first, 45); i++) {
+            PluginTasks tasks = plugins.get(first + i);
+            ItemStack taskItem = new ItemStack(tasks.isGrowing() ? Material.LAVA_BUCKET : Material.CLOCK);
+            ItemMeta meta = taskItem.getItemMeta();
+            meta.setDisplayName((tasks.isGrowing() ? ChatColor.RED + "⚠ " : ChatColor.YELLOW.toString()) + tasks.getPluginName() +
+                    ChatColor.GRAY + " (" + tasks.getTaskCount() + " tasks)");
             
             List<String> lore = new ArrayList<>();
             lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
+            lore.add(ChatColor.WHITE + "Sync: " + ChatColor.AQUA + tasks.getSyncTasks() +
+                    ChatColor.GRAY + " | Async: " + ChatColor.AQUA + tasks.getAsyncTasks() +
+                    ChatColor.GRAY + " | Running: " + ChatColor.AQUA + tasks.getActiveWorkers());
+            lore.add(ChatColor.WHITE + "Main Thread: " + getTickShareColor(tasks.getSyncMsPerTick() * 2) +
+                    TextFormat.decimal(tasks.getSyncMsPerTick()) + "ms/tick");
+            if (tasks.isGrowing()) {
+                lore.add(ChatColor.RED + "Task count grew by " + tasks.getGrowth() + " and never went down");
+                lore.add(ChatColor.RED + "Likely a timer that is never cancelled");
+            }
+            
+            List<TaskStats> stats = tasks.getTasks();
+            if (!stats.isEmpty()) {
+                lore.add(ChatColor.GRAY + "Top tasks:");
+            }
+            for (int t = 0; t < Math.min(stats.size(), 5); t++) {
+                TaskStats task = stats.get(t);
+                String repeating = task.getRepeating() > 0 ? ChatColor.GRAY + ", " + task.getRepeating() + " repeating" : "";
+                lore.add(ChatColor.WHITE + " " + task.getTaskClass() + ChatColor.GRAY + " x" + task.getCount() +
+                        (task.isSync() ? "" : " async") + repeating);
+                if (task.getRunsPerTick() > 0) {
+                    lore.add(ChatColor.GRAY + "   " + TextFormat.decimal(task.getMsPerTick()) + "ms/tick, " +
+                            TextFormat.decimal(task.getAvgMsPerRun()) + "ms avg, " +
+                            getMsptColor(task.getMaxMs()) + TextFormat.decimal(task.getMaxMs()) + "ms max");
+                }
+            }
+            if (stats.size() > 5) {
+                lore.add(ChatColor.DARK_GRAY + " ... " + (stats.size() - 5) + " more task classes");
+            }
+            lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
             
-            // Add CPU usage estimation for this plugin
-            if (plugin.isEnabled()) {
-                double pluginCpuUsage = estimatePluginCpuUsage(plugin);
-                lore.add(ChatColor.WHITE + "CPU Usage: " + getCpuColor(pluginCpuUsage) + df.format(pluginCpuUsage) + "%");
-                lore.add(ChatColor.WHITE + "Memory: " + ChatColor.AQUA + estimatePluginMemoryUsage(plugin));
+            meta.setLore(lore);
+            taskItem.setItemMeta(meta);
+            taskGui.setItem(i, taskItem);
+        }
+        
+        // Page buttons
+        if (state.taskPage > 0) {
+            ItemStack previousItem = new ItemStack(Material.PAPER);
+            ItemMeta previousMeta = previousItem.getItemMeta();
+            previousMeta.setDisplayName(ChatColor.YELLOW + "← Previous Page");
+            previousItem.setItemMeta(previousMeta);
+            taskGui.setItem(45, previousItem);
+        }
+        if (state.taskPage < pages - 1) {
+            ItemStack nextItem = new ItemStack(Material.PAPER);
+            ItemMeta nextMeta = nextItem.getItemMeta();
+            nextMeta.setDisplayName(ChatColor.YELLOW + "Next Page →");
+            nextItem.setItemMeta(nextMeta);
+            taskGui.setItem(52, nextItem);
+        }
+        
+        // Totals and how the figures are taken
+        ItemStack infoItem = new ItemStack(Material.COMPASS);
+        ItemMeta infoMeta = infoItem.getItemMeta();
+        infoMeta.setDisplayName(ChatColor.AQUA + "Scheduler Inspection");
+        List<String> infoLore = new ArrayList<>();
+        if (inspector.getInspectedAt() == 0) {
+            infoLore.add(ChatColor.GRAY + "The first inspection is still pending");
+        } else {
+            infoLore.add(ChatColor.WHITE + "Pending: " + ChatColor.YELLOW + inspector.getTotalTasks() +
+                    ChatColor.GRAY + " tasks from " + plugins.size() + " plugins");
+            infoLore.add(ChatColor.WHITE + "Async workers busy: " + ChatColor.YELLOW + inspector.getTotalWorkers());
+        }
+        infoLore.add(ChatColor.GRAY + "Run times cover the last five seconds");
+        infoLore.add(ChatColor.GRAY + "Counts that only grow for 10 minutes are flagged");
+        infoLore.add(ChatColor.DARK_GRAY + "/rm tasks prints the top plugins");
+        infoMeta.setLore(infoLore);
+        infoItem.setItemMeta(infoMeta);
+        taskGui.setItem(49, infoItem);
+        
+        // Back button
+        ItemStack backItem = new ItemStack(Material.ARROW);
+        ItemMeta backMeta = backItem.getItemMeta();
+        backMeta.setDisplayName(ChatColor.YELLOW + "← Back to Plugin Details");
+        List<String> backLore = new ArrayList<>();
+        backLore.add(ChatColor.GRAY + "Click to return to the plugin list");
+        backMeta.setLore(backLore);
+        backItem.setItemMeta(backMeta);
+        taskGui.setItem(53, backItem);
+        
+        player.openInventory(taskGui);
+    }
+    
+    // One plugin's entry, cached by the browser until the timings or plugins change
+    private ItemStack buildPluginItem(Plugin plugin) {
+        PluginProfiler profiler = this.plugin.getPluginProfiler();
+        ItemStack pluginItem = new ItemStack(plugin.isEnabled() ? getGreenMaterial() : getRedMaterial());
+        ItemMeta meta = pluginItem.getItemMeta();
+        
+        String status = plugin.isEnabled() ? ChatColor.GREEN + "✓ ENABLED" : ChatColor.RED + "✗ DISABLED";
+        meta.setDisplayName(ChatColor.YELLOW + plugin.getName() + " " + status);
+        
+        List<String> lore = new ArrayList<>();
+        lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
+        
+        // Measured main thread cost over the last minute
+        if (plugin.isEnabled()) {
+            PluginTiming timing = profiler.getTiming(plugin.getName());
+            lore.add(ChatColor.WHITE + "Tick Usage: " + getTickShareColor(timing.getPercentOfTick()) +
+                    TextFormat.decimal(timing.getMsPerTick()) + "ms/tick " + ChatColor.GRAY + "(" + TextFormat.decimal(timing.getPercentOfTick()) + "%)");
+            lore.add(ChatColor.GRAY + "  Events: " + ChatColor.WHITE + TextFormat.decimal(timing.getEventMsPerTick()) + "ms" +
+                    ChatColor.GRAY + " | Tasks: " + ChatColor.WHITE + TextFormat.decimal(timing.getTaskMsPerTick()) + "ms");
+            if (profiler.isCpuTiming()) {
+                lore.add(ChatColor.WHITE + "CPU Time: " + ChatColor.AQUA + TextFormat.decimal(timing.getCpuMsPerTick()) + "ms/tick");
             } else {
-                lore.add(ChatColor.WHITE + "CPU Usage: " + ChatColor.GRAY + "N/A (Disabled)");
-                lore.add(ChatColor.WHITE + "Memory: " + ChatColor.GRAY + "N/A (Disabled)");
+                lore.add(ChatColor.WHITE + "CPU Time: " + ChatColor.GRAY + "Off (profiler.cpu-time)");
             }
+            lore.add(ChatColor.WHITE + "Async: " + ChatColor.AQUA + TextFormat.decimal(timing.getAsyncMsPerSecond()) + "ms/s");
+        } else {
+            lore.add(ChatColor.WHITE + "Tick Usage: " + ChatColor.GRAY + "N/A (Disabled)");
+        }
+        
+        lore.add(ChatColor.WHITE + "Version: " + ChatColor.AQUA + plugin.getDescription().getVersion());
+        lore.add(ChatColor.WHITE + "Author(s): " + ChatColor.GRAY + String.join(", ", plugin.getDescription().getAuthors()));
+        
+        if (plugin.getDescription().getDescription() != null) {
+            String description = plugin.getDescription().getDescription();
+            if (description.length() > 40) {
+                description = description.substring(0, 37) + "...";
+            }
+            lore.add(ChatColor.WHITE + "Description: " + ChatColor.GRAY + description);
+        }
+        
+        lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
+        
+        meta.setLore(lore);
+        pluginItem.setItemMeta(meta);
+        return pluginItem;
+    }
+    
+    private void showEventTimings(Player player) {
+        Inventory eventGui = Bukkit.createInventory(null, 54, ChatColor.DARK_PURPLE + "▋ " + ChatColor.BOLD + "Event Timings" + ChatColor.RESET + ChatColor.DARK_PURPLE + " ▋");
+        PluginProfiler profiler = plugin.getPluginProfiler();
+        EventTimings eventTimings = profiler.getEventTimings();
+        
+        List<EventTimings.ListenerStats> stats = eventTimings != null ? eventTimings.getStats() : Collections.emptyList();
+        long seconds = eventTimings != null ? Math.max(1, (System.currentTimeMillis() - eventTimings.getStartedAt()) / 1000) : 1;
+        for (int i = 0; i < Math.min(stats.size(), 45); i++) {
+            EventTimings.ListenerStats listener = stats.get(i);
+            long p99 = listener.getPercentileNanos(0.99);
+            
+            ItemStack eventItem = new ItemStack(Material.PAPER);
+            ItemMeta meta = eventItem.getItemMeta();
+            meta.setDisplayName(ChatColor.YELLOW + "#" + (i + 1) + " " + ChatColor.WHITE + listener.getEventName());
+            
+            List<String> lore = new ArrayList<>();
+            lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
+            lore.add(ChatColor.WHITE + "Plugin: " + ChatColor.AQUA + listener.getPluginName());
+            lore.add(ChatColor.WHITE + "Listener: " + ChatColor.AQUA + listener.getListenerName());
+            lore.add(ChatColor.WHITE + "Calls: " + ChatColor.AQUA + listener.getCalls() +
+                    ChatColor.GRAY + " (" + TextFormat.decimal((double) listener.getCalls() / seconds) + "/s)");
+            lore.add(ChatColor.WHITE + "Total: " + ChatColor.YELLOW + TextFormat.decimal(listener.getTotalNanos() / 1_000_000.0) + "ms");
+            lore.add(ChatColor.WHITE + "Mean: " + ChatColor.WHITE + formatMicros(listener.getMeanNanos()));
+            lore.add(ChatColor.WHITE + "p50/p99: " + ChatColor.WHITE + formatMicros(listener.getPercentileNanos(0.50)) + "/" +
+                    getMsptColor(p99 / 1_000_000.0) + formatMicros(p99));
+            lore.add(ChatColor.WHITE + "Max: " + getMsptColor(listener.getMaxNanos() / 1_000_000.0) + formatMicros(listener.getMaxNanos()));
+            lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
             
-            lore.add(ChatColor.WHITE + "Version: " + ChatColor.AQUA + plugin.getDescription().getVersion());
-            lore.add(ChatColor.WHITE + "Author(s): " + ChatColor.GRAY + String.join(", ", plugin.getDescription().getAuthors()));
+            meta.setLore(lore);
+            eventItem.setItemMeta(meta);
+            eventGui.setItem(i, eventItem);
+        }
+        
+        // Recording state
+        ItemStack infoItem = new ItemStack(Material.COMPASS);
+        ItemMeta infoMeta = infoItem.getItemMeta();
+        infoMeta.setDisplayName(ChatColor.AQUA + "Event Timing");
+        List<String> infoLore = new ArrayList<>();
+        if (eventTimings == null) {
+            infoLore.add(ChatColor.GRAY + "Not started yet");
+        } else {
+            infoLore.add((profiler.isEventTimingActive() ? ChatColor.GREEN + "Recording for " : ChatColor.YELLOW + "Stopped, recorded for ") +
+                    TextFormat.duration(seconds * 1000));
+        }
+        infoLore.add(ChatColor.GRAY + "Top 45 listeners by total time");
+        infoLore.add(ChatColor.DARK_GRAY + "/rm events start | stop");
+        infoMeta.setLore(infoLore);
+        infoItem.setItemMeta(infoMeta);
+        eventGui.setItem(49, infoItem);
+        
+        // Back button
+        ItemStack backItem = new ItemStack(Material.ARROW);
+        ItemMeta backMeta = backItem.getItemMeta();
+        backMeta.setDisplayName(ChatColor.YELLOW + "← Back to Plugin Details");
+        List<String> backLore = new ArrayList<>();
+        backLore.add(ChatColor.GRAY + "Click to return to the plugin list");
+        backMeta.setLore(backLore);
+        backItem.setItemMeta(backMeta);
+        eventGui.setItem(53, backItem);
+        
+        player.openInventory(eventGui);
+    }
+    
+    private void showSpikeList(Player player) {
+        Inventory spikeGui = Bukkit.createInventory(null, 54, ChatColor.DARK_RED + "▋ " + ChatColor.BOLD + "Lag Spikes" + ChatColor.RESET + ChatColor.DARK_RED + " ▋");
+        
+        SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss");
+        List<LagSpike> spikes = plugin.getSpikeWatchdog().getRecentSpikes();
+        
+        for (int i = 0; i < Math.min(spikes.size(), 45); i++) {
+            LagSpike spike = spikes.get(i);
+            ItemStack spikeItem = new ItemStack(Material.PAPER);
+            ItemMeta meta = spikeItem.getItemMeta();
+            
+            meta.setDisplayName(getMsptColor(spike.getDurationMs()) + TextFormat.decimal(spike.getDurationMs()) + "ms tick " +
+                    ChatColor.GRAY + "at " + timeFormat.format(new Date(spike.getTimestamp())));
             
-            if (plugin.getDescription().getDescription() != null) {
-                String description = plugin.getDescription().getDescription();
-                if (description.length() > 40) {
-                    description = description.substring(0, 37) + "...";
+            List<String> lore = new ArrayList<>();
+            lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
+            lore.add(ChatColor.WHITE + "Players: " + ChatColor.AQUA + spike.getPlayers());
+            lore.add(ChatColor.WHITE + "Chunks: " + ChatColor.AQUA + spike.getChunks());
+            lore.add(ChatColor.WHITE + "Entities: " + ChatColor.YELLOW + spike.getEntities());
+            lore.add(ChatColor.WHITE + "Main thread was in:");
+            for (String frame : spike.getMainThreadTop()) {
+                if (frame.length() > 50) {
+                    frame = "..." + frame.substring(frame.length() - 47);
                 }
-                lore.add(ChatColor.WHITE + "Description: " + ChatColor.GRAY + description);
+                lore.add(ChatColor.GRAY + "  " + frame);
+            }
+            if (spike.getDumpFile() != null) {
+                lore.add(ChatColor.WHITE + "Dump: " + ChatColor.DARK_GRAY + "spikes/" + spike.getDumpFile());
             }
-            
-            // Add load time if available
-            lore.add(ChatColor.WHITE + "Load Time: " + ChatColor.YELLOW + getPluginLoadTime(plugin));
             lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
             
             meta.setLore(lore);
-            pluginItem.setItemMeta(meta);
-            pluginGui.setItem(i, pluginItem);
+            spikeItem.setItemMeta(meta);
+            spikeGui.setItem(i, spikeItem);
+        }
+        
+        if (spikes.isEmpty()) {
+            ItemStack noneItem = new ItemStack(Material.LIME_WOOL);
+            ItemMeta noneMeta = noneItem.getItemMeta();
+            noneMeta.setDisplayName(ChatColor.GREEN + "No lag spikes recorded");
+            List<String> noneLore = new ArrayList<>();
+            noneLore.add(ChatColor.GRAY + "Ticks over " + plugin.getSpikeWatchdog().getThresholdMillis() + "ms are listed here");
+            noneMeta.setLore(noneLore);
+            noneItem.setItemMeta(noneMeta);
+            spikeGui.setItem(22, noneItem);
         }
         
         // Back button
@@ -894,53 +1381,430 @@ public class ResourceMonitorGUI implements Listener {
         backLore.add(ChatColor.GRAY + "Click to return to main menu");
         backMeta.setLore(backLore);
         backItem.setItemMeta(backMeta);
-        pluginGui.setItem(53, backItem);
+        spikeGui.setItem(53, backItem);
         
-        player.openInventory(pluginGui);
+        player.openInventory(spikeGui);
     }
     
-    private String getCpuColor(double cpuUsage) {
-        if (cpuUsage < 50) return ChatColor.GREEN.toString();
-        else if (cpuUsage < 80) return ChatColor.YELLOW.toString();
-        else return ChatColor.RED.toString();
+    private void showMemoryDetails(Player player) {
+        Inventory memoryGui = Bukkit.createInventory(null, 54, ChatColor.GOLD + "▋ " + ChatColor.BOLD + "Memory Details" + ChatColor.RESET + ChatColor.GOLD + " ▋");
+        GcMonitor gcMonitor = plugin.getGcMonitor();
+        
+        // Heap health
+        ItemStack heapItem = new ItemStack(Material.GOLD_INGOT);
+        ItemMeta heapMeta = heapItem.getItemMeta();
+        heapMeta.setDisplayName(ChatColor.GOLD + "⚬ " + ChatColor.BOLD + "Heap After GC");
+        List<String> heapLore = new ArrayList<>();
+        heapLore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
+        MemoryUsage oldGen = gcMonitor.getOldGenAfterGc();
+        if (oldGen != null && oldGen.getMax() > 0) {
+            double oldGenPercent = oldGen.getUsed() * 100.0 / oldGen.getMax();
+            heapLore.add(ChatColor.WHITE + "Old Gen: " + getMemoryColor(oldGenPercent) + createProgressBar(oldGenPercent) + " " +
+                    TextFormat.percent(oldGenPercent));
+            heapLore.add(ChatColor.WHITE + "Used: " + ChatColor.AQUA + TextFormat.bytes(oldGen.getUsed()) +
+                    ChatColor.GRAY + " of " + TextFormat.bytes(oldGen.getMax()));
+        } else {
+            heapLore.add(ChatColor.GRAY + "No old generation collection seen yet");
+        }
+        heapLore.add(ChatColor.WHITE + "Allocation Rate: " + ChatColor.YELLOW + TextFormat.bytes((long) gcMonitor.getAllocationRate()) + "/s");
+        heapLore.add(ChatColor.WHITE + "Live Heap: " + ChatColor.AQUA + TextFormat.bytes(getMetrics().getUsedMemory()));
+        heapLore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
+        heapMeta.setLore(heapLore);
+        heapItem.setItemMeta(heapMeta);
+        memoryGui.setItem(10, heapItem);
+        
+        // Pause times
+        ItemStack pauseItem = new ItemStack(Material.CLOCK);
+        ItemMeta pauseMeta = pauseItem.getItemMeta();
+        pauseMeta.setDisplayName(ChatColor.YELLOW + "⚡ " + ChatColor.BOLD + "GC Pauses" + ChatColor.GRAY + " (15m)");
+        List<String> pauseLore = new ArrayList<>();
+        pauseLore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
+        pauseLore.add(ChatColor.WHITE + "Pauses: " + ChatColor.AQUA + gcMonitor.getPauseCount());
+        long p99 = gcMonitor.getPausePercentile(0.99);
+        long maxPause = gcMonitor.getMaxPause();
+        pauseLore.add(ChatColor.WHITE + "p50/p95: " + ChatColor.WHITE + gcMonitor.getPausePercentile(0.50) + "/" +
+                gcMonitor.getPausePercentile(0.95) + "ms");
+        pauseLore.add(ChatColor.WHITE + "p99: " + getMsptColor(p99) + p99 + "ms");
+        pauseLore.add(ChatColor.WHITE + "Longest: " + getMsptColor(maxPause) + maxPause + "ms");
+        pauseLore.add(ChatColor.WHITE + "Time in GC: " + ChatColor.YELLOW + TextFormat.percent(gcMonitor.getPausePercent()));
+        pauseLore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
+        pauseMeta.setLore(pauseLore);
+        pauseItem.setItemMeta(pauseMeta);
+        memoryGui.setItem(12, pauseItem);
+        
+        // Collectors
+        int collectorSlot = 14;
+        for (GcMonitor.CollectorStats collector : gcMonitor.getCollectors()) {
+            if (collectorSlot > 16) break;
+            ItemStack collectorItem = new ItemStack(Material.HOPPER);
+            ItemMeta collectorMeta = collectorItem.getItemMeta();
+            collectorMeta.setDisplayName(ChatColor.AQUA + collector.getName());
+            List<String> collectorLore = new ArrayList<>();
+            collectorLore.add(ChatColor.WHITE + "Collections: " + ChatColor.AQUA + collector.getCount());
+            if (collector.isConcurrent()) {
+                collectorLore.add(ChatColor.GRAY + "Concurrent cycles, pauses are");
+                collectorLore.add(ChatColor.GRAY + "counted on the Pauses collector");
+            } else {
+                collectorLore.add(ChatColor.WHITE + "Total Pause: " + ChatColor.YELLOW + collector.getTotalPauseMs() + "ms");
+                collectorLore.add(ChatColor.WHITE + "Last: " + getMsptColor(collector.getLastPauseMs()) + collector.getLastPauseMs() + "ms" +
+                        ChatColor.GRAY + " (" + collector.getLastAction() + ")");
+            }
+            collectorMeta.setLore(collectorLore);
+            collectorItem.setItemMeta(collectorMeta);
+            memoryGui.setItem(collectorSlot++, collectorItem);
+        }
+        
+        // Where the rest of the process's memory goes
+        int componentSlot = 18;
+        for (MemoryComponent component : plugin.getNativeMemoryTracker().getComponents()) {
+            if (componentSlot > 26) break;
+            boolean unaccounted = component.getKey().equals("unaccounted_native");
+            boolean rss = component.getKey().equals("rss");
+            
+            ItemStack componentItem = new ItemStack(unaccounted ? Material.LAVA_BUCKET : rss ? Material.BEACON : Material.IRON_INGOT);
+            ItemMeta componentMeta = componentItem.getItemMeta();
+            componentMeta.setDisplayName((rss ? ChatColor.GOLD : ChatColor.AQUA) + component.getName());
+            List<String> componentLore = new ArrayList<>();
+            componentLore.add(ChatColor.WHITE + "Size: " + ChatColor.AQUA + TextFormat.bytes(component.getBytes()));
+            componentLore.add(ChatColor.WHITE + "Growth (1h): " + getGrowthColor(component.getBytes(), component.getGrowthPerHour1h()) +
+                    TextFormat.growth(component.getGrowthPerHour1h()));
+            componentLore.add(ChatColor.WHITE + "Growth (6h): " + getGrowthColor(component.getBytes(), component.getGrowthPerHour6h()) +
+                    TextFormat.growth(component.getGrowthPerHour6h()));
+            if (unaccounted) {
+                componentLore.add(ChatColor.DARK_GRAY + "RSS minus everything else listed:");
+                componentLore.add(ChatColor.DARK_GRAY + "malloc, native libraries, GC structures");
+            } else if (component.getKey().equals("thread_stacks")) {
+                componentLore.add(ChatColor.DARK_GRAY + "Threads × " + TextFormat.bytes(plugin.getNativeMemoryTracker().getStackSize()) +
+                        " stack, an upper bound");
+            } else if (component.getKey().equals("mapped")) {
+                componentLore.add(ChatColor.DARK_GRAY + "Mapped files, only partly resident");
+            }
+            componentMeta.setLore(componentLore);
+            componentItem.setItemMeta(componentMeta);
+            memoryGui.setItem(componentSlot++, componentItem);
+        }
+        
+        // Memory pools
+        Map<String, MemoryUsage> afterGc = gcMonitor.getPoolsAfterGc();
+        int poolSlot = 27;
+        for (MemoryPoolMXBean pool : gcMonitor.getPools()) {
+            if (poolSlot > 44) break;
+            MemoryUsage usage = pool.getUsage();
+            boolean heap = pool.getType() == MemoryType.HEAP;
+            
+            ItemStack poolItem = new ItemStack(heap ? Material.CHEST : Material.BOOKSHELF);
+            ItemMeta poolMeta = poolItem.getItemMeta();
+            poolMeta.setDisplayName((heap ? ChatColor.GREEN : ChatColor.LIGHT_PURPLE) + pool.getName());
+            List<String> poolLore = new ArrayList<>();
+            poolLore.add(ChatColor.WHITE + "Used: " + ChatColor.AQUA + TextFormat.bytes(usage.getUsed()));
+            poolLore.add(ChatColor.WHITE + "Committed: " + ChatColor.AQUA + TextFormat.bytes(usage.getCommitted()));
+            poolLore.add(ChatColor.WHITE + "Max: " + ChatColor.AQUA + (usage.getMax() < 0 ? "unlimited" : TextFormat.bytes(usage.getMax())));
+            MemoryUsage after = afterGc.get(pool.getName());
+            if (after != null) {
+                poolLore.add(ChatColor.WHITE + "After Last GC: " + ChatColor.YELLOW + TextFormat.bytes(after.getUsed()));
+            }
+            poolLore.add(ChatColor.DARK_GRAY + (heap ? "Heap" : "Non-heap"));
+            poolMeta.setLore(poolLore);
+            poolItem.setItemMeta(poolMeta);
+            memoryGui.setItem(poolSlot++, poolItem);
+        }
+        
+        // Back button
+        ItemStack backItem = new ItemStack(Material.ARROW);
+        ItemMeta backMeta = backItem.getItemMeta();
+        backMeta.setDisplayName(ChatColor.YELLOW + "← Back to Resource Monitor");
+        List<String> backLore = new ArrayList<>();
+        backLore.add(ChatColor.GRAY + "Click to return to main menu");
+        backMeta.setLore(backLore);
+        backItem.setItemMeta(backMeta);
+        memoryGui.setItem(53, backItem);
+        
+        player.openInventory(memoryGui);
     }
     
-    private String getMemoryColor(double memoryUsage) {
-        if (memoryUsage < 60) return ChatColor.GREEN.toString();
-        else if (memoryUsage < 85) return ChatColor.YELLOW.toString();
-        else return ChatColor.RED.toString();
+    private void showWorldDetails(Player player) {
+        Inventory worldGui = Bukkit.createInventory(null, 54, ChatColor.DARK_AQUA + "▋ " + ChatColor.BOLD + "World Details" + ChatColor.RESET + ChatColor.DARK_AQUA + " ▋");
+        ChunkHotspotIndex index = plugin.getHotspotIndex();
+        
+        // Busiest worlds first
+        List<EntityCounter.WorldCounts> worlds = new ArrayList<>(plugin.getEntityCounter().getWorlds().values());
+        worlds.sort(Comparator.comparingInt(EntityCounter.WorldCounts::getEntities).reversed());
+        
+        for (int i = 0; i < Math.min(worlds.size(), 45); i++) {
+            EntityCounter.WorldCounts counts = worlds.get(i);
+            World world = Bukkit.getWorld(counts.getWorldName());
+            World.Environment environment = world != null ? world.getEnvironment() : World.Environment.NORMAL;
+            
+            ItemStack worldItem = new ItemStack(environment == World.Environment.NETHER ? Material.NETHERRACK :
+                    environment == World.Environment.THE_END ? Material.END_STONE : Material.GRASS_BLOCK);
+            ItemMeta meta = worldItem.getItemMeta();
+            meta.setDisplayName(ChatColor.AQUA + "◆ " + ChatColor.BOLD + counts.getWorldName());
+            
+            List<String> lore = new ArrayList<>();
+            lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
+            lore.add(ChatColor.WHITE + "Players: " + ChatColor.GREEN + counts.getPlayers());
+            lore.add(ChatColor.WHITE + "Loaded Chunks: " + ChatColor.AQUA + counts.getChunks());
+            lore.add(ChatColor.WHITE + "Entities: " + ChatColor.YELLOW + counts.getEntities());
+            int[] categories = counts.getCategoryCounts();
+            for (EntityCategory category : EntityCategory.values()) {
+                if (category == EntityCategory.PLAYERS || categories[category.ordinal()] == 0) continue;
+                lore.add(ChatColor.GRAY + "  " + category.getDisplayName() + ": " + ChatColor.WHITE + categories[category.ordinal()]);
+            }
+            if (index.getLastPassFinished() > 0) {
+                int tiles = index.getTileEntities(counts.getWorldName());
+                lore.add(ChatColor.WHITE + "Tile Entities: " + ChatColor.YELLOW + tiles);
+            }
+            if (counts.getChunks() > 0) {
+                lore.add(ChatColor.WHITE + "Entities/Chunk: " + ChatColor.AQUA +
+                        TextFormat.decimal((double) counts.getEntities() / counts.getChunks()));
+            }
+            lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
+            
+            meta.setLore(lore);
+            worldItem.setItemMeta(meta);
+            worldGui.setItem(i, worldItem);
+        }
+        
+        // Explain what is and isn't measured
+        ItemStack infoItem = new ItemStack(Material.COMPASS);
+        ItemMeta infoMeta = infoItem.getItemMeta();
+        infoMeta.setDisplayName(ChatColor.AQUA + "World Counts");
+        List<String> infoLore = new ArrayList<>();
+        infoLore.add(ChatColor.GRAY + "Chunks and entities are kept up to date from events");
+        infoLore.add(ChatColor.GRAY + "Tile entities come from the chunk hotspot scan");
+        infoLore.add(ChatColor.DARK_GRAY + "Per-world tick time is not exposed by the server");
+        infoMeta.setLore(infoLore);
+        infoItem.setItemMeta(infoMeta);
+        worldGui.setItem(49, infoItem);
+        
+        // Back button
+        ItemStack backItem = new ItemStack(Material.ARROW);
+        ItemMeta backMeta = backItem.getItemMeta();
+        backMeta.setDisplayName(ChatColor.YELLOW + "← Back to Resource Monitor");
+        List<String> backLore = new ArrayList<>();
+        backLore.add(ChatColor.GRAY + "Click to return to main menu");
+        backMeta.setLore(backLore);
+        backItem.setItemMeta(backMeta);
+        worldGui.setItem(53, backItem);
+        
+        player.openInventory(worldGui);
     }
     
-    private double getCpuUsage(OperatingSystemMXBean osBean) {
-        try {
-            // Try to use the com.sun.management.OperatingSystemMXBean if available
-            if (osBean instanceof com.sun.management.OperatingSystemMXBean) {
-                com.sun.management.OperatingSystemMXBean sunOsBean = 
-                    (com.sun.management.OperatingSystemMXBean) osBean;
-                return sunOsBean.getProcessCpuLoad() * 100;
-            }
-        } catch (Exception e) {
-            // Fallback if com.sun.management is not available
+    private void showThreads(Player player) {
+        Inventory threadGui = Bukkit.createInventory(null, 54, ChatColor.DARK_RED + "▋ " + ChatColor.BOLD + "Thread CPU" + ChatColor.RESET + ChatColor.DARK_RED + " ▋");
+        ThreadSampler sampler = plugin.getThreadSampler();
+        
+        // Groups on the first two rows, the busiest single threads below
+        List<ThreadUsage> groups = sampler.getGroups();
+        for (int i = 0; i < Math.min(groups.size(), 18); i++) {
+            ThreadUsage group = groups.get(i);
+            ItemStack groupItem = new ItemStack(Material.REDSTONE_BLOCK);
+            ItemMeta meta = groupItem.getItemMeta();
+            meta.setDisplayName(ChatColor.GOLD + "◆ " + ChatColor.BOLD + group.getName());
+            
+            List<String> lore = new ArrayList<>();
+            lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
+            lore.add(ChatColor.WHITE + "CPU: " + getThreadCpuColor(group.getCpuPercent()) + TextFormat.percent(group.getCpuPercent()) +
+                    ChatColor.GRAY + " of one core");
+            lore.add(ChatColor.WHITE + "Threads: " + ChatColor.AQUA + group.getThreads());
+            lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
+            
+            meta.setLore(lore);
+            groupItem.setItemMeta(meta);
+            threadGui.setItem(i, groupItem);
         }
         
-        // Fallback: estimate based on system load average
-        try {
-            double loadAverage = osBean.getSystemLoadAverage();
-            if (loadAverage >= 0) {
-                return Math.min(100, (loadAverage / osBean.getAvailableProcessors()) * 100);
+        List<ThreadUsage> threads = sampler.getTopThreads(27);
+        for (int i = 0; i < threads.size(); i++) {
+            ThreadUsage thread = threads.get(i);
+            ItemStack threadItem = new ItemStack(Material.REDSTONE);
+            ItemMeta meta = threadItem.getItemMeta();
+            meta.setDisplayName(ChatColor.YELLOW + "#" + (i + 1) + " " + ChatColor.WHITE + thread.getName());
+            
+            List<String> lore = new ArrayList<>();
+            lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
+            lore.add(ChatColor.WHITE + "CPU: " + getThreadCpuColor(thread.getCpuPercent()) + TextFormat.percent(thread.getCpuPercent()) +
+                    ChatColor.GRAY + " of one core");
+            lore.add(ChatColor.WHITE + "Group: " + ChatColor.AQUA + thread.getGroup());
+            lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
+            
+            meta.setLore(lore);
+            threadItem.setItemMeta(meta);
+            threadGui.setItem(18 + i, threadItem);
+        }
+        
+        // Totals and how the figures are taken
+        ItemStack infoItem = new ItemStack(Material.COMPASS);
+        ItemMeta infoMeta = infoItem.getItemMeta();
+        infoMeta.setDisplayName(ChatColor.AQUA + "Thread Sampling");
+        List<String> infoLore = new ArrayList<>();
+        if (groups.isEmpty()) {
+            infoLore.add(ChatColor.GRAY + "The first sample is still being taken");
+        } else {
+            infoLore.add(ChatColor.WHITE + "Total: " + ChatColor.YELLOW + TextFormat.percent(sampler.getTotalPercent()) +
+                    ChatColor.GRAY + " over " + sampler.getThreadCount() + " threads");
+        }
+        infoLore.add(ChatColor.GRAY + "CPU time per thread over the last second");
+        infoLore.add(ChatColor.GRAY + "100% is one core fully busy");
+        infoLore.add(ChatColor.DARK_GRAY + "GC and JIT time is counted under JVM");
+        infoMeta.setLore(infoLore);
+        infoItem.setItemMeta(infoMeta);
+        threadGui.setItem(49, infoItem);
+        
+        // Back button
+        ItemStack backItem = new ItemStack(Material.ARROW);
+        ItemMeta backMeta = backItem.getItemMeta();
+        backMeta.setDisplayName(ChatColor.YELLOW + "← Back to Resource Monitor");
+        List<String> backLore = new ArrayList<>();
+        backLore.add(ChatColor.GRAY + "Click to return to main menu");
+        backMeta.setLore(backLore);
+        backItem.setItemMeta(backMeta);
+        threadGui.setItem(53, backItem);
+        
+        player.openInventory(threadGui);
+    }
+    
+    private void showHotspots(Player player) {
+        Inventory hotspotGui = Bukkit.createInventory(null, 54, ChatColor.DARK_GREEN + "▋ " + ChatColor.BOLD + "Chunk Hotspots" + ChatColor.RESET + ChatColor.DARK_GREEN + " ▋");
+        
+        WindowState state = windowStates.computeIfAbsent(player.getUniqueId(), k -> new WindowState());
+        ChunkHotspotIndex index = plugin.getHotspotIndex();
+        List<ChunkHotspot> hotspots = index.getHotspots();
+        boolean canTeleport = player.hasPermission("resourcemonitor.teleport");
+        
+        for (int i = 0; i < Math.min(hotspots.size(), 45); i++) {
+            ChunkHotspot hotspot = hotspots.get(i);
+            ItemStack hotspotItem = new ItemStack(hotspot.getTileEntities() > hotspot.getEntities() ? Material.HOPPER : Material.GRASS_BLOCK);
+            ItemMeta meta = hotspotItem.getItemMeta();
+            
+            meta.setDisplayName(ChatColor.YELLOW + "#" + (i + 1) + " " + ChatColor.WHITE + hotspot.getWorldName() +
+                    ChatColor.GRAY + " [" + hotspot.getX() + ", " + hotspot.getZ() + "]");
+            
+            List<String> lore = new ArrayList<>();
+            lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
+            lore.add(ChatColor.WHITE + "Entities: " + getHotspotColor(hotspot.getEntities()) + hotspot.getEntities());
+            for (String type : hotspot.getTopEntityTypes()) {
+                lore.add(ChatColor.GRAY + "  " + type);
+            }
+            lore.add(ChatColor.WHITE + "Tile Entities: " + getHotspotColor(hotspot.getTileEntities()) + hotspot.getTileEntities());
+            for (String type : hotspot.getTopTileTypes()) {
+                lore.add(ChatColor.GRAY + "  " + type);
+            }
+            lore.add(ChatColor.WHITE + "Blocks: " + ChatColor.AQUA + (hotspot.getX() * 16) + ", " + (hotspot.getZ() * 16));
+            lore.add(ChatColor.GRAY + "▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬▬");
+            if (canTeleport) {
+                lore.add(ChatColor.YELLOW + "► Click to teleport");
             }
-        } catch (Exception e) {
-            // If all else fails, return 0
+            
+            meta.setLore(lore);
+            hotspotItem.setItemMeta(meta);
+            hotspotGui.setItem(i, hotspotItem);
         }
+        state.shownHotspots = hotspots;
+        
+        // Scan info
+        ItemStack infoItem = new ItemStack(Material.COMPASS);
+        ItemMeta infoMeta = infoItem.getItemMeta();
+        infoMeta.setDisplayName(ChatColor.AQUA + "Chunk Scan");
+        List<String> infoLore = new ArrayList<>();
+        if (index.getLastPassFinished() == 0) {
+            infoLore.add(ChatColor.GRAY + "The first scan is still running");
+        } else {
+            long seconds = (System.currentTimeMillis() - index.getLastPassFinished()) / 1000;
+            infoLore.add(ChatColor.GRAY + "Last scan finished " + seconds + "s ago");
+        }
+        infoLore.add(ChatColor.GRAY + "Top " + ChunkHotspotIndex.TOP_CHUNKS + " chunks by entities + tile entities");
+        infoMeta.setLore(infoLore);
+        infoItem.setItemMeta(infoMeta);
+        hotspotGui.setItem(49, infoItem);
         
-        return 0;
+        // Back button
+        ItemStack backItem = new ItemStack(Material.ARROW);
+        ItemMeta backMeta = backItem.getItemMeta();
+        backMeta.setDisplayName(ChatColor.YELLOW + "← Back to Resource Monitor");
+        List<String> backLore = new ArrayList<>();
+        backLore.add(ChatColor.GRAY + "Click to return to main menu");
+        backMeta.setLore(backLore);
+        backItem.setItemMeta(backMeta);
+        hotspotGui.setItem(53, backItem);
+        
+        player.openInventory(hotspotGui);
     }
     
-    private String formatBytes(long bytes) {
-        if (bytes < 1024) return bytes + " B";
-        int exp = (int) (Math.log(bytes) / Math.log(1024));
-        String pre = "KMGTPE".charAt(exp - 1) + "";
-        return df.format(bytes / Math.pow(1024, exp)) + " " + pre + "B";
+    private void teleportToHotspot(Player player, ChunkHotspot hotspot) {
+        if (!player.hasPermission("resourcemonitor.teleport")) {
+            player.sendMessage(ChatColor.RED + "You don't have permission to teleport to chunks!");
+            return;
+        }
+        
+        World world = Bukkit.getWorld(hotspot.getWorldName());
+        if (world == null) {
+            player.sendMessage(ChatColor.RED + "World " + hotspot.getWorldName() + " is no longer loaded");
+            return;
+        }
+        
+        // Middle of the chunk, on top of the highest block
+        int blockX = hotspot.getX() * 16 + 8;
+        int blockZ = hotspot.getZ() * 16 + 8;
+        Location target = new Location(world, blockX + 0.5, world.getHighestBlockYAt(blockX, blockZ) + 1, blockZ + 0.5);
+        
+        player.closeInventory();
+        player.teleport(target);
+        player.sendMessage(ChatColor.GREEN + "Teleported to chunk " + hotspot.getX() + ", " + hotspot.getZ() +
+                " in " + hotspot.getWorldName());
+    }
+    
+    private String getHotspotColor(int count) {
+        if (count < 100) return ChatColor.GREEN.toString();
+        else if (count < 500) return ChatColor.YELLOW.toString();
+        else return ChatColor.RED.toString();
+    }
+    
+    private String getCpuColor(double cpuUsage) {
+        return plugin.getThresholds().cpuColor(cpuUsage);
+    }
+    
+    private String getMemoryColor(double memoryUsage) {
+        return plugin.getThresholds().memoryColor(memoryUsage);
+    }
+    
+    private String getTickShareColor(double percentOfTick) {
+        if (percentOfTick < 5) return ChatColor.GREEN.toString();
+        else if (percentOfTick < 20) return ChatColor.YELLOW.toString();
+        else return ChatColor.RED.toString();
+    }
+    
+    // A thread at 100% keeps a whole core busy
+    private String getThreadCpuColor(double percentOfCore) {
+        if (percentOfCore < 25) return ChatColor.GREEN.toString();
+        else if (percentOfCore < 75) return ChatColor.YELLOW.toString();
+        else return ChatColor.RED.toString();
+    }
+    
+    private String getThrottleColor(double throttledPercent) {
+        return plugin.getThresholds().throttledColor(throttledPercent);
+    }
+    
+    // Growing by more than 1% of its size an hour is worth a look, 5% is a leak
+    private String getGrowthColor(long bytes, double growthPerHour) {
+        if (Double.isNaN(growthPerHour) || bytes <= 0) return ChatColor.GRAY.toString();
+        double percentPerHour = growthPerHour * 100.0 / bytes;
+        if (percentPerHour <= 1) return ChatColor.GREEN.toString();
+        else if (percentPerHour <= 5) return ChatColor.YELLOW.toString();
+        else return ChatColor.RED.toString();
+    }
+    
+    private String getTpsColor(double tps) {
+        return plugin.getThresholds().tpsColor(tps);
+    }
+    
+    private String getMsptColor(double mspt) {
+        return plugin.getThresholds().msptColor(mspt);
+    }
+    
+    private String formatMicros(double nanos) {
+        if (nanos >= 1_000_000) return TextFormat.decimal(nanos / 1_000_000.0) + "ms";
+        return TextFormat.decimal(nanos / 1000.0) + "µs";
     }
     
     private String createProgressBar(double percentage) {
@@ -960,21 +1824,7 @@ public class ResourceMonitorGUI implements Listener {
     
     private String getUptime() {
         long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
-        long hours = uptime / (1000 * 60 * 60);
-        long minutes = (uptime % (1000 * 60 * 60)) / (1000 * 60);
-        return hours + "h " + minutes + "m";
-    }
-    
-    private int getTotalChunks() {
-        return Bukkit.getWorlds().stream()
-                .mapToInt(world -> world.getLoadedChunks().length)
-                .sum();
-    }
-    
-    private int getTotalEntities() {
-        return Bukkit.getWorlds().stream()
-                .mapToInt(world -> world.getEntities().size())
-                .sum();
+        return TextFormat.duration(uptime);
     }
     
     private Material getGreenMaterial() {
@@ -1002,50 +1852,4 @@ public class ResourceMonitorGUI implements Listener {
             }
         }
     }
-    
-    private double estimatePluginCpuUsage(Plugin plugin) {
-        // This is a simplified estimation based on plugin characteristics
-        // In reality, you'd need more sophisticated monitoring
-        double baseCpuUsage = 0.1; // Base CPU usage
-        
-        // Estimate based on plugin features
-        if (plugin.getDescription().getDepend() != null) {
-            baseCpuUsage += plugin.getDescription().getDepend().size() * 0.05;
-        }
-        
-        // Add some randomness to simulate real CPU usage variation
-        double variance = (Math.random() - 0.5) * 0.2;
-        baseCpuUsage += variance;
-        
-        // Ensure it's within reasonable bounds
-        baseCpuUsage = Math.max(0.01, Math.min(5.0, baseCpuUsage));
-        
-        return baseCpuUsage;
-    }
-    
-    private String estimatePluginMemoryUsage(Plugin plugin) {
-        // Estimate memory usage based on plugin complexity
-        long baseMemory = 1024 * 1024; // 1MB base
-        
-        // Add memory based on plugin features
-        if (plugin.getDescription().getDepend() != null) {
-            baseMemory += plugin.getDescription().getDepend().size() * 512 * 1024; // 512KB per dependency
-        }
-        
-        // Add some variation
-        baseMemory += (long)(Math.random() * 2 * 1024 * 1024); // Up to 2MB variation
-        
-        return formatBytes(baseMemory);
-    }
-    
-    private String getPluginLoadTime(Plugin plugin) {
-        // Simulate load time based on plugin complexity
-        double loadTime = 50 + (Math.random() * 200); // 50-250ms
-        
-        if (plugin.getDescription().getDepend() != null) {
-            loadTime += plugin.getDescription().getDepend().size() * 25; // 25ms per dependency
-        }
-        
-        return df.format(loadTime) + "ms";
-    }
 }
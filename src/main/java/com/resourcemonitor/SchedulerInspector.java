@@ -0,0 +1,303 @@
+package com.resourcemonitor;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.bukkit.scheduler.BukkitWorker;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Takes stock of the scheduler every five seconds: pending tasks and busy
+// async workers per plugin, grouped by the class each task runs. Run times
+// come from the ProfiledTask the plugin profiler put in each task. Every
+// minute the task count of each plugin is recorded, and a plugin whose count
+// went up and never down for ten minutes or more is flagged, which is how
+// forgotten per-player timers show themselves.
+public class SchedulerInspector {
+    
+    private static final long INSPECT_PERIOD = 100L; // ticks, main thread
+    private static final int PASSES_PER_MINUTE = 12;
+    private static final int HISTORY_MINUTES = 30;
+    private static final int MIN_LEAK_MINUTES = 10;
+    private static final int MIN_LEAK_GROWTH = 10;
+    private static final long UNKNOWN_PERIOD = Long.MIN_VALUE;
+    
+    private final Main plugin;
+    private final TickMonitor tickMonitor;
+    
+    // Main thread only
+    private final Map<Class<?>, Field> periodFields = new HashMap<>(); // null value: no period field
+    private final Map<String, int[]> countHistory = new HashMap<>(); // tasks per minute, -1 before first seen
+    private int historySlot;
+    private int historyCount;
+    private int passes;
+    private long lastTick = -1;
+    
+    private volatile List<PluginTasks> result = Collections.emptyList();
+    private volatile int totalTasks;
+    private volatile int totalWorkers;
+    private volatile long inspectedAt;
+    
+    private BukkitTask task;
+    
+    public SchedulerInspector(Main plugin, TickMonitor tickMonitor) {
+        this.plugin = plugin;
+        this.tickMonitor = tickMonitor;
+    }
+    
+    // Tasks of one plugin and class, summed during a pass
+    private static final class Tally {
+        final String taskClass;
+        final boolean sync;
+        int count;
+        int repeating;
+        long runs;
+        long wallNanos;
+        long maxNanos;
+        
+        Tally(String taskClass, boolean sync) {
+            this.taskClass = taskClass;
+            this.sync = sync;
+        }
+    }
+    
+    private static final class PluginTally {
+        final String name;
+        final Map<String, Tally> tallies = new LinkedHashMap<>();
+        int sync;
+        int async;
+        int workers;
+        
+        PluginTally(String name) {
+            this.name = name;
+        }
+    }
+    
+    public synchronized void start() {
+        if (task != null) return;
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this::inspect, INSPECT_PERIOD, INSPECT_PERIOD);
+    }
+    
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+    
+    // Plugins with leaking-looking task counts first, then by main thread cost
+    public List<PluginTasks> getPlugins() {
+        return result;
+    }
+    
+    public int getTotalTasks() {
+        return totalTasks;
+    }
+    
+    public int getTotalWorkers() {
+        return totalWorkers;
+    }
+    
+    // Wall clock time of the last pass, 0 before the first
+    public long getInspectedAt() {
+        return inspectedAt;
+    }
+    
+    private void inspect() {
+        long tick = tickMonitor.getTickCount();
+        long ticks = lastTick >= 0 ? Math.max(1, tick - lastTick) : 0;
+        lastTick = tick;
+        
+        BukkitScheduler scheduler = Bukkit.getScheduler();
+        PluginProfiler profiler = plugin.getPluginProfiler();
+        Map<String, PluginTally> plugins = new HashMap<>();
+        int total = 0;
+        for (BukkitTask pending : scheduler.getPendingTasks()) {
+            Plugin owner = pending.getOwner();
+            if (owner == null || pending.isCancelled()) continue;
+            
+            Object work = profiler.getTaskWork(pending);
+            ProfiledTask profiled = work instanceof ProfiledTask ? (ProfiledTask) work : null;
+            Object delegate = profiled != null ? profiled.getDelegate() : work;
+            String taskClass = className(delegate != null ? delegate.getClass() : pending.getClass());
+            
+            PluginTally pluginTally = plugins.computeIfAbsent(owner.getName(), PluginTally::new);
+            boolean sync = pending.isSync();
+            if (sync) {
+                pluginTally.sync++;
+            } else {
+                pluginTally.async++;
+            }
+            Tally tally = pluginTally.tallies.computeIfAbsent((sync ? "s:" : "a:") + taskClass, k -> new Tally(taskClass, sync));
+            tally.count++;
+            
+            long period = periodOf(pending);
+            if (period == UNKNOWN_PERIOD || tally.repeating < 0) {
+                tally.repeating = -1;
+            } else if (period > 0) {
+                tally.repeating++;
+            }
+            
+            if (profiled != null) {
+                long runs = profiled.runs.sum();
+                long wall = profiled.wallNanos.sum();
+                tally.runs += runs - profiled.seenRuns;
+                tally.wallNanos += wall - profiled.seenWallNanos;
+                tally.maxNanos = Math.max(tally.maxNanos, profiled.maxNanos.getAndSet(0));
+                profiled.seenRuns = runs;
+                profiled.seenWallNanos = wall;
+            }
+            total++;
+        }
+        int workers = 0;
+        for (BukkitWorker worker : scheduler.getActiveWorkers()) {
+            if (worker.getOwner() == null) continue;
+            plugins.computeIfAbsent(worker.getOwner().getName(), PluginTally::new).workers++;
+            workers++;
+        }
+        
+        if (passes++ % PASSES_PER_MINUTE == 0) {
+            recordCounts(plugins);
+        }
+        
+        List<PluginTasks> inspected = new ArrayList<>(plugins.size());
+        for (PluginTally pluginTally : plugins.values()) {
+            inspected.add(summarize(pluginTally, ticks));
+        }
+        inspected.sort(Comparator.comparing(PluginTasks::isGrowing).reversed()
+            .thenComparing(Comparator.comparingDouble(PluginTasks::getSyncMsPerTick).reversed())
+            .thenComparing(Comparator.comparingInt(PluginTasks::getTaskCount).reversed()));
+        
+        result = Collections.unmodifiableList(inspected);
+        totalTasks = total;
+        totalWorkers = workers;
+        inspectedAt = System.currentTimeMillis();
+    }
+    
+    private PluginTasks summarize(PluginTally pluginTally, long ticks) {
+        List<TaskStats> tasks = new ArrayList<>(pluginTally.tallies.size());
+        double syncMsPerTick = 0;
+        for (Tally tally : pluginTally.tallies.values()) {
+            double msPerTick = ticks > 0 ? tally.wallNanos / 1_000_000.0 / ticks : 0;
+            double runsPerTick = ticks > 0 ? (double) tally.runs / ticks : 0;
+            tasks.add(new TaskStats(tally.taskClass, tally.sync, tally.count, tally.repeating,
+                msPerTick, runsPerTick, tally.maxNanos / 1_000_000.0));
+            if (tally.sync) {
+                syncMsPerTick += msPerTick;
+            }
+        }
+        tasks.sort(Comparator.comparingDouble(TaskStats::getMsPerTick).reversed()
+            .thenComparing(Comparator.comparingInt(TaskStats::getCount).reversed()));
+        
+        int[] history = countHistory.get(pluginTally.name);
+        int growth = 0;
+        boolean growing = false;
+        if (history != null) {
+            int[] counts = chronological(history);
+            if (counts.length > 0) {
+                growth = counts[counts.length - 1] - counts[0];
+                growing = counts.length >= MIN_LEAK_MINUTES && growth >= MIN_LEAK_GROWTH && neverShrinks(counts);
+            }
+        }
+        return new PluginTasks(pluginTally.name, pluginTally.sync, pluginTally.async, pluginTally.workers,
+            syncMsPerTick, growing, growth, Collections.unmodifiableList(tasks));
+    }
+    
+    private void recordCounts(Map<String, PluginTally> plugins) {
+        for (PluginTally pluginTally : plugins.values()) {
+            countHistory.computeIfAbsent(pluginTally.name, k -> {
+                int[] history = new int[HISTORY_MINUTES];
+                Arrays.fill(history, -1);
+                return history;
+            });
+        }
+        Iterator<Map.Entry<String, int[]>> it = countHistory.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, int[]> entry = it.next();
+            PluginTally pluginTally = plugins.get(entry.getKey());
+            int count = pluginTally != null ? pluginTally.sync + pluginTally.async : 0;
+            entry.getValue()[historySlot] = count;
+            
+            // Forget plugins that have had no tasks for the whole window
+            if (Arrays.stream(entry.getValue()).allMatch(c -> c <= 0)) {
+                it.remove();
+            }
+        }
+        historySlot = (historySlot + 1) % HISTORY_MINUTES;
+        historyCount = Math.min(historyCount + 1, HISTORY_MINUTES);
+    }
+    
+    // Recorded minutes oldest first, without the minutes before the plugin showed up
+    private int[] chronological(int[] history) {
+        int[] counts = new int[historyCount];
+        int size = 0;
+        for (int i = 0; i < historyCount; i++) {
+            int value = history[(historySlot - historyCount + i + HISTORY_MINUTES) % HISTORY_MINUTES];
+            if (value >= 0) {
+                counts[size++] = value;
+            }
+        }
+        return Arrays.copyOf(counts, size);
+    }
+    
+    private static boolean neverShrinks(int[] counts) {
+        for (int i = 1; i < counts.length; i++) {
+            if (counts[i] < counts[i - 1]) return false;
+        }
+        return true;
+    }
+    
+    // CraftBukkit keeps the period in a field, -1 for tasks that run once
+    private long periodOf(BukkitTask pending) {
+        Class<?> type = pending.getClass();
+        Field field;
+        if (periodFields.containsKey(type)) {
+            field = periodFields.get(type);
+        } else {
+            field = findPeriodField(type);
+            periodFields.put(type, field);
+        }
+        if (field == null) return UNKNOWN_PERIOD;
+        try {
+            return field.getLong(pending);
+        } catch (IllegalAccessException | RuntimeException e) {
+            return UNKNOWN_PERIOD;
+        }
+    }
+    
+    private static Field findPeriodField(Class<?> type) {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            try {
+                Field field = c.getDeclaredField("period");
+                if (field.getType() != long.class) return null;
+                field.setAccessible(true);
+                return field;
+            } catch (NoSuchFieldException e) {
+                // Try the superclass
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+    
+    // "PlayerTimer", "MyPlugin$1", "MyPlugin (lambda)"
+    private static String className(Class<?> type) {
+        String name = type.getName();
+        int lambda = name.indexOf("$$Lambda");
+        if (lambda >= 0) {
+            name = name.substring(0, lambda) + " (lambda)";
+        }
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+}
@@ -0,0 +1,173 @@
+package com.resourcemonitor;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Per player state that lives for one session. Everything a player leaves
+// behind in the GUI and overlay is dropped when they quit, and the only
+// thing kept across sessions, whether they have seen the welcome message,
+// is stored as 16 byte UUID records in a file. The file is read once into a
+// sorted array of the same 16 bytes per player, so a login is a binary search
+// instead of a read of everyone ever seen; only players new since then are
+// kept as UUID objects.
+public class SessionRegistry implements Listener {
+    
+    private static final Comparator<UUID> ORDER =
+            Comparator.comparingLong(UUID::getMostSignificantBits).thenComparingLong(UUID::getLeastSignificantBits);
+    
+    private final Main plugin;
+    private final File welcomeFile;
+    private final Set<UUID> welcomeSeen = ConcurrentHashMap.newKeySet();
+    
+    // Everyone in the file, guarded by this: most and least bits of each
+    // UUID in turn, in ORDER; null until first needed
+    private long[] seenIndex;
+    private final Set<UUID> seenSinceLoad = new HashSet<>();
+    
+    public SessionRegistry(Main plugin) {
+        this(plugin, new File(plugin.getDataFolder(), "welcome-seen.dat"));
+    }
+    
+    SessionRegistry(Main plugin, File welcomeFile) {
+        this.plugin = plugin;
+        this.welcomeFile = welcomeFile;
+    }
+    
+    // Reads the file and picks up players who were already online, e.g.
+    // after a reload
+    public void start() {
+        List<UUID> online = new ArrayList<>();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            online.add(player.getUniqueId());
+        }
+        
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            loadIndex();
+            for (UUID playerId : online) {
+                loadWelcomeSeen(playerId);
+            }
+        });
+    }
+    
+    public boolean hasSeenWelcome(Player player) {
+        return welcomeSeen.contains(player.getUniqueId());
+    }
+    
+    public void markWelcomeSeen(Player player) {
+        UUID playerId = player.getUniqueId();
+        if (welcomeSeen.add(playerId)) {
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> appendWelcomeSeen(playerId));
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) return;
+        loadWelcomeSeen(event.getUniqueId());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        UUID playerId = event.getPlayer().getUniqueId();
+        plugin.getGUI().endSession(playerId);
+        plugin.getOverlayBroadcaster().unsubscribe(playerId);
+        welcomeSeen.remove(playerId);
+    }
+    
+    private void loadWelcomeSeen(UUID playerId) {
+        if (containsWelcomeSeen(playerId)) {
+            welcomeSeen.add(playerId);
+        }
+    }
+    
+    synchronized boolean containsWelcomeSeen(UUID playerId) {
+        loadIndex();
+        if (seenSinceLoad.contains(playerId)) return true;
+        
+        long most = playerId.getMostSignificantBits();
+        long least = playerId.getLeastSignificantBits();
+        int low = 0;
+        int high = seenIndex.length / 2 - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = Long.compare(seenIndex[2 * mid], most);
+            if (cmp == 0) {
+                cmp = Long.compare(seenIndex[2 * mid + 1], least);
+            }
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private synchronized void loadIndex() {
+        if (seenIndex == null) {
+            seenIndex = readIndex();
+        }
+    }
+    
+    private long[] readIndex() {
+        if (!welcomeFile.exists()) return new long[0];
+        
+        List<UUID> ids = new ArrayList<>((int) Math.min(Integer.MAX_VALUE, welcomeFile.length() / 16));
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(welcomeFile), 64 * 1024))) {
+            while (true) {
+                long most = in.readLong();
+                long least = in.readLong();
+                ids.add(new UUID(most, least));
+            }
+        } catch (EOFException e) {
+            // End of the file, or a record cut short by a crash
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not read " + welcomeFile.getName() + ": " + e.getMessage());
+        }
+        
+        UUID[] sorted = ids.toArray(new UUID[0]);
+        Arrays.sort(sorted, ORDER);
+        long[] index = new long[sorted.length * 2];
+        for (int i = 0; i < sorted.length; i++) {
+            index[2 * i] = sorted[i].getMostSignificantBits();
+            index[2 * i + 1] = sorted[i].getLeastSignificantBits();
+        }
+        return index;
+    }
+    
+    synchronized void appendWelcomeSeen(UUID playerId) {
+        if (containsWelcomeSeen(playerId)) return;
+        seenSinceLoad.add(playerId);
+        welcomeFile.getParentFile().mkdirs();
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(welcomeFile, true))) {
+            out.writeLong(playerId.getMostSignificantBits());
+            out.writeLong(playerId.getLeastSignificantBits());
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not write " + welcomeFile.getName() + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.resourcemonitor;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+
+// Watches the tick sampler from a background thread. When the current tick
+// has been running longer than the threshold it dumps every thread while the
+// tick is still in progress, writes the dump to the spikes folder and keeps
+// a short list of recent spikes for the GUI.
+public class SpikeWatchdog {
+    
+    private static final int RECENT_SPIKES = 45;
+    private static final int TOP_FRAMES = 5;
+    
+    private final Main plugin;
+    private final TickMonitor tickMonitor;
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final Deque<LagSpike> recentSpikes = new ArrayDeque<>(); // newest first, guarded by itself
+    
+    // Read by the watchdog thread, changed by a config reload
+    private volatile long thresholdNanos;
+    private volatile long pollMillis;
+    private volatile int maxFiles;
+    
+    private Thread watchdogThread;
+    private volatile boolean running = false;
+    
+    public SpikeWatchdog(Main plugin, TickMonitor tickMonitor, long thresholdMillis, long pollMillis, int maxFiles) {
+        this.plugin = plugin;
+        this.tickMonitor = tickMonitor;
+        configure(thresholdMillis, pollMillis, maxFiles);
+    }
+    
+    public void configure(long thresholdMillis, long pollMillis, int maxFiles) {
+        this.thresholdNanos = thresholdMillis * 1_000_000L;
+        this.pollMillis = Math.max(1, pollMillis);
+        this.maxFiles = Math.max(1, maxFiles);
+    }
+    
+    // State of a spike between the capture and the end of the slow tick
+    private static final class Capture {
+        final long tick;
+        final long capturedAt;
+        final MetricsSnapshot metrics;
+        final List<String> mainThreadTop;
+        final File file;
+        long lastElapsed;
+        
+        Capture(long tick, long capturedAt, MetricsSnapshot metrics, List<String> mainThreadTop, File file, long elapsed) {
+            this.tick = tick;
+            this.capturedAt = capturedAt;
+            this.metrics = metrics;
+            this.mainThreadTop = mainThreadTop;
+            this.file = file;
+            this.lastElapsed = elapsed;
+        }
+    }
+    
+    public synchronized void start() {
+        if (watchdogThread != null) return;
+        
+        running = true;
+        watchdogThread = new Thread(this::watch, "ResourceMonitor Watchdog");
+        watchdogThread.setDaemon(true);
+        watchdogThread.start();
+    }
+    
+    public synchronized void stop() {
+        if (watchdogThread == null) return;
+        
+        running = false;
+        watchdogThread.interrupt();
+        watchdogThread = null;
+    }
+    
+    public long getThresholdMillis() {
+        return thresholdNanos / 1_000_000L;
+    }
+    
+    // Most recent spikes first
+    public List<LagSpike> getRecentSpikes() {
+        synchronized (recentSpikes) {
+            return new ArrayList<>(recentSpikes);
+        }
+    }
+    
+    private void watch() {
+        long capturedTick = -1;
+        Capture pending = null;
+        
+        while (running) {
+            try {
+                Thread.sleep(pollMillis);
+            } catch (InterruptedException e) {
+                break;
+            }
+            
+            long tick = tickMonitor.getTickCount();
+            long tickStart = tickMonitor.getLastTickNanos();
+            if (tickStart == 0) continue;
+            
+            // The slow tick has finished
+            if (pending != null && tick != pending.tick) {
+                long duration = tick == pending.tick + 1 ? tickMonitor.getLastIntervalNanos() : pending.lastElapsed;
+                finish(pending, duration);
+                pending = null;
+            }
+            
+            long elapsed = System.nanoTime() - tickStart;
+            if (pending == null && tick != capturedTick && elapsed > thresholdNanos) {
+                capturedTick = tick;
+                pending = capture(tick, elapsed);
+            }
+            if (pending != null) {
+                pending.lastElapsed = elapsed;
+            }
+        }
+    }
+    
+    private Capture capture(long tick, long elapsed) {
+        long now = System.currentTimeMillis();
+        MetricsSnapshot metrics = plugin.getMetricsSampler().getSnapshot();
+        
+        // Grab the main thread first, it is what we care about most
+        Thread mainThread = tickMonitor.getMainThread();
+        ThreadInfo mainInfo = mainThread != null ? threadBean.getThreadInfo(mainThread.getId(), Integer.MAX_VALUE) : null;
+        ThreadInfo[] allThreads = threadBean.dumpAllThreads(
+                threadBean.isObjectMonitorUsageSupported(), threadBean.isSynchronizerUsageSupported());
+        
+        List<String> top = new ArrayList<>();
+        if (mainInfo != null) {
+            StackTraceElement[] stack = mainInfo.getStackTrace();
+            for (int i = 0; i < Math.min(TOP_FRAMES, stack.length); i++) {
+                top.add(stack[i].getClassName() + "." + stack[i].getMethodName() + ":" + stack[i].getLineNumber());
+            }
+        }
+        
+        File file = null;
+        try {
+            file = writeDump(now, elapsed, metrics, mainInfo, allThreads);
+            rotate(file.getParentFile());
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not write lag spike dump: " + e.getMessage());
+        }
+        
+        return new Capture(tick, now, metrics, top, file, elapsed);
+    }
+    
+    private void finish(Capture capture, long durationNanos) {
+        double durationMs = durationNanos / 1_000_000.0;
+        
+        if (capture.file != null) {
+            try (Writer out = new OutputStreamWriter(new FileOutputStream(capture.file, true), StandardCharsets.UTF_8)) {
+                out.write("\nTick finished after " + Math.round(durationMs) + "ms\n");
+            } catch (IOException e) {
+                // The dump itself is already on disk
+            }
+        }
+        
+        LagSpike spike = new LagSpike(capture.capturedAt, durationMs,
+                capture.metrics.getOnlinePlayers(), capture.metrics.getLoadedChunks(), capture.metrics.getEntities(),
+                capture.mainThreadTop, capture.file != null ? capture.file.getName() : null);
+        synchronized (recentSpikes) {
+            recentSpikes.addFirst(spike);
+            while (recentSpikes.size() > RECENT_SPIKES) {
+                recentSpikes.removeLast();
+            }
+        }
+        
+        plugin.getLogger().warning("Lag spike: tick took " + Math.round(durationMs) + "ms" +
+                (capture.file != null ? ", thread dump saved to spikes/" + capture.file.getName() : ""));
+    }
+    
+    private File writeDump(long now, long elapsed, MetricsSnapshot metrics, ThreadInfo mainInfo, ThreadInfo[] allThreads) throws IOException {
+        File folder = new File(plugin.getDataFolder(), "spikes");
+        if (!folder.isDirectory() && !folder.mkdirs()) {
+            throw new IOException("Could not create " + folder);
+        }
+        
+        File file = new File(folder, "spike-" + new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date(now)) + ".txt");
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            out.write("ResourceMonitor lag spike report\n");
+            out.write("Time: " + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date(now)) + "\n");
+            out.write("Tick running for " + (elapsed / 1_000_000L) + "ms when captured (threshold " + getThresholdMillis() + "ms)\n");
+            out.write("Players: " + metrics.getOnlinePlayers() + ", Chunks: " + metrics.getLoadedChunks() +
+                      ", Entities: " + metrics.getEntities() + "\n");
+            out.write("TPS (1m): " + Math.round(metrics.getTps(TickMonitor.WINDOW_1M) * 100) / 100.0 +
+                      ", MSPT p95: " + Math.round(metrics.getMsptP95() * 100) / 100.0 + "ms\n");
+            
+            if (mainInfo != null) {
+                out.write("\n=== Main thread ===\n");
+                writeThread(out, mainInfo);
+            }
+            
+            out.write("\n=== All threads ===\n");
+            for (ThreadInfo info : allThreads) {
+                if (info == null) continue;
+                writeThread(out, info);
+            }
+        }
+        return file;
+    }
+    
+    private void writeThread(Writer out, ThreadInfo info) throws IOException {
+        out.write("\"" + info.getThreadName() + "\" #" + info.getThreadId() + " " + info.getThreadState());
+        if (info.getLockName() != null) {
+            out.write(" on " + info.getLockName());
+            if (info.getLockOwnerName() != null) {
+                out.write(" owned by \"" + info.getLockOwnerName() + "\" #" + info.getLockOwnerId());
+            }
+        }
+        out.write("\n");
+        for (StackTraceElement element : info.getStackTrace()) {
+            out.write("\tat " + element + "\n");
+        }
+        out.write("\n");
+    }
+    
+    // Keep only the newest maxFiles dumps; the names sort by time
+    private void rotate(File folder) {
+        File[] files = folder.listFiles((dir, name) -> name.startsWith("spike-") && name.endsWith(".txt"));
+        if (files == null || files.length <= maxFiles) return;
+        
+        Arrays.sort(files);
+        for (int i = 0; i < files.length - maxFiles; i++) {
+            if (!files[i].delete()) {
+                plugin.getLogger().warning("Could not delete old spike dump " + files[i].getName());
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.resourcemonitor;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+
+// Samples the server main thread's stack from a background thread and folds
+// the samples into a StackTrie that can be exported as collapsed stacks.
+public class StackProfiler {
+    
+    public static final int DEFAULT_INTERVAL_MS = 10;
+    
+    // The server's main loop and the task loop it waits in between ticks,
+    // by simple name so any NMS package or mapping matches
+    private static final Set<String> SERVER_LOOP_CLASSES = new HashSet<>(Arrays.asList(
+        "MinecraftServer", "DedicatedServer", "IAsyncTaskHandler", "IAsyncTaskHandlerReentrant",
+        "BlockableEventLoop", "ReentrantBlockableEventLoop"));
+    
+    private final Main plugin;
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    
+    private Thread samplerThread;
+    private volatile boolean running = false;
+    private StackTrie trie;
+    private long startedAt;
+    
+    public StackProfiler(Main plugin) {
+        this.plugin = plugin;
+    }
+    
+    public synchronized boolean isRunning() {
+        return samplerThread != null;
+    }
+    
+    public synchronized long getStartedAt() {
+        return startedAt;
+    }
+    
+    // Starts sampling, returns false if a profile is already running
+    public synchronized boolean start(int intervalMillis) {
+        if (samplerThread != null) return false;
+        
+        Thread mainThread = plugin.getTickMonitor().getMainThread();
+        if (mainThread == null) return false;
+        
+        long mainThreadId = mainThread.getId();
+        StackTrie samples = new StackTrie();
+        trie = samples;
+        startedAt = System.currentTimeMillis();
+        running = true;
+        
+        samplerThread = new Thread(() -> {
+            while (running) {
+                sample(mainThreadId, samples);
+                try {
+                    Thread.sleep(intervalMillis);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+        }, "ResourceMonitor Profiler");
+        samplerThread.setDaemon(true);
+        samplerThread.start();
+        return true;
+    }
+    
+    // Stops sampling and hands back the collected samples, null if not running
+    public synchronized StackTrie stop() {
+        if (samplerThread == null) return null;
+        
+        running = false;
+        samplerThread.interrupt();
+        try {
+            samplerThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        samplerThread = null;
+        
+        StackTrie samples = trie;
+        trie = null;
+        return samples;
+    }
+    
+    private void sample(long mainThreadId, StackTrie samples) {
+        ThreadInfo info = threadBean.getThreadInfo(mainThreadId, Integer.MAX_VALUE);
+        if (info == null) return;
+        
+        StackTraceElement[] stack = info.getStackTrace();
+        if (isBetweenTicks(info.getThreadState(), stack)) {
+            samples.addIdle();
+            return;
+        }
+        samples.add(stack);
+    }
+    
+    // Only the server's own sleep between ticks is idle. A plugin sleeping or
+    // waiting on a future blocks the tick, so its wait stays in the trie.
+    static boolean isBetweenTicks(Thread.State state, StackTraceElement[] stack) {
+        if (state != Thread.State.TIMED_WAITING && state != Thread.State.WAITING) return false;
+        
+        boolean serverFrame = false;
+        for (StackTraceElement frame : stack) {
+            String className = frame.getClassName();
+            if (className.startsWith("java.") || className.startsWith("jdk.") || className.startsWith("sun.")) continue;
+            
+            String simpleName = className.substring(className.lastIndexOf('.') + 1);
+            if (!SERVER_LOOP_CLASSES.contains(simpleName)) return false;
+            serverFrame = true;
+        }
+        return serverFrame;
+    }
+    
+    // Writes the samples in collapsed-stack format to the profiles folder
+    public File export(StackTrie samples) throws IOException {
+        File folder = new File(plugin.getDataFolder(), "profiles");
+        if (!folder.isDirectory() && !folder.mkdirs()) {
+            throw new IOException("Could not create " + folder);
+        }
+        
+        String name = "profile-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".txt";
+        File file = new File(folder, name);
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            samples.writeCollapsed(out);
+        }
+        return file;
+    }
+}
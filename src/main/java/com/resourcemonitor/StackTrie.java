@@ -0,0 +1,171 @@
+package com.resourcemonitor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Call tree of sampled stacks. Frames are interned to int ids and nodes are
+// kept in parallel primitive arrays, with an open-addressing table mapping
+// (parent, frame) to the child node, so a long profile stays compact.
+public class StackTrie {
+    
+    private static final int ROOT = 0;
+    
+    // Frame interning: each distinct stack element maps to a "class.method" id
+    private final Map<StackTraceElement, Integer> elementFrames = new HashMap<>();
+    private final Map<String, Integer> frameIds = new HashMap<>();
+    private final List<String> frames = new ArrayList<>();
+    
+    // Nodes
+    private int[] nodeFrame = new int[4096];
+    private int[] nodeParent = new int[4096];
+    private long[] nodeSamples = new long[4096]; // samples whose leaf is this node
+    private int nodeCount = 1; // node 0 is the root
+    
+    // (parent << 32 | frame) -> child node, 0 marks an empty slot
+    private long[] childKeys = new long[8192];
+    private int[] childNodes = new int[8192];
+    private int childCount = 0;
+    
+    private long totalSamples = 0;
+    private long idleSamples = 0;
+    
+    // Adds one sample, stack[0] being the innermost frame
+    public void add(StackTraceElement[] stack) {
+        int node = ROOT;
+        for (int i = stack.length - 1; i >= 0; i--) {
+            node = child(node, frameId(stack[i]));
+        }
+        nodeSamples[node]++;
+        totalSamples++;
+    }
+    
+    // Counts a sample taken while the thread was idle between ticks
+    public void addIdle() {
+        idleSamples++;
+    }
+    
+    public long getTotalSamples() {
+        return totalSamples;
+    }
+    
+    public long getIdleSamples() {
+        return idleSamples;
+    }
+    
+    public int getNodeCount() {
+        return nodeCount;
+    }
+    
+    public int getFrameCount() {
+        return frames.size();
+    }
+    
+    // Writes one "root;...;leaf count" line per distinct stack, the collapsed
+    // format flame graph tools read
+    public void writeCollapsed(Writer out) throws IOException {
+        int[] path = new int[64];
+        StringBuilder line = new StringBuilder(256);
+        
+        for (int node = 1; node < nodeCount; node++) {
+            if (nodeSamples[node] == 0) continue;
+            
+            int depth = 0;
+            for (int n = node; n != ROOT; n = nodeParent[n]) {
+                if (depth == path.length) {
+                    int[] grown = new int[path.length * 2];
+                    System.arraycopy(path, 0, grown, 0, path.length);
+                    path = grown;
+                }
+                path[depth++] = nodeFrame[n];
+            }
+            
+            line.setLength(0);
+            for (int i = depth - 1; i >= 0; i--) {
+                line.append(frames.get(path[i]));
+                if (i > 0) line.append(';');
+            }
+            line.append(' ').append(nodeSamples[node]).append('\n');
+            out.write(line.toString());
+        }
+    }
+    
+    private int frameId(StackTraceElement element) {
+        Integer id = elementFrames.get(element);
+        if (id != null) return id;
+        
+        String name = element.getClassName() + "." + element.getMethodName();
+        id = frameIds.get(name);
+        if (id == null) {
+            id = frames.size();
+            frames.add(name);
+            frameIds.put(name, id);
+        }
+        elementFrames.put(element, id);
+        return id;
+    }
+    
+    private int child(int parent, int frame) {
+        long key = ((long) parent << 32) | (frame & 0xFFFFFFFFL);
+        int mask = childKeys.length - 1;
+        int slot = mix(key) & mask;
+        while (childNodes[slot] != 0) {
+            if (childKeys[slot] == key) return childNodes[slot];
+            slot = (slot + 1) & mask;
+        }
+        
+        int node = newNode(parent, frame);
+        childKeys[slot] = key;
+        childNodes[slot] = node;
+        if (++childCount * 2 > childKeys.length) {
+            growChildren();
+        }
+        return node;
+    }
+    
+    private int newNode(int parent, int frame) {
+        if (nodeCount == nodeFrame.length) {
+            int size = nodeFrame.length * 2;
+            int[] frameCopy = new int[size];
+            int[] parentCopy = new int[size];
+            long[] samplesCopy = new long[size];
+            System.arraycopy(nodeFrame, 0, frameCopy, 0, nodeCount);
+            System.arraycopy(nodeParent, 0, parentCopy, 0, nodeCount);
+            System.arraycopy(nodeSamples, 0, samplesCopy, 0, nodeCount);
+            nodeFrame = frameCopy;
+            nodeParent = parentCopy;
+            nodeSamples = samplesCopy;
+        }
+        nodeFrame[nodeCount] = frame;
+        nodeParent[nodeCount] = parent;
+        return nodeCount++;
+    }
+    
+    private void growChildren() {
+        long[] oldKeys = childKeys;
+        int[] oldNodes = childNodes;
+        childKeys = new long[oldKeys.length * 2];
+        childNodes = new int[oldNodes.length * 2];
+        int mask = childKeys.length - 1;
+        
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldNodes[i] == 0) continue;
+            int slot = mix(oldKeys[i]) & mask;
+            while (childNodes[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            childKeys[slot] = oldKeys[i];
+            childNodes[slot] = oldNodes[i];
+        }
+    }
+    
+    private static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
@@ -0,0 +1,60 @@
+package com.resourcemonitor;
+
+// Scheduled tasks of one plugin that run the same class, measured over the
+// last scheduler inspection
+public final class TaskStats {
+    
+    private final String taskClass;
+    private final boolean sync;
+    private final int count;
+    private final int repeating;
+    private final double msPerTick;
+    private final double runsPerTick;
+    private final double maxMs;
+    
+    public TaskStats(String taskClass, boolean sync, int count, int repeating, double msPerTick, double runsPerTick, double maxMs) {
+        this.taskClass = taskClass;
+        this.sync = sync;
+        this.count = count;
+        this.repeating = repeating;
+        this.msPerTick = msPerTick;
+        this.runsPerTick = runsPerTick;
+        this.maxMs = maxMs;
+    }
+    
+    // Simple name of the Runnable, "Foo (lambda)" for lambdas
+    public String getTaskClass() {
+        return taskClass;
+    }
+    
+    public boolean isSync() {
+        return sync;
+    }
+    
+    public int getCount() {
+        return count;
+    }
+    
+    // Tasks with a period, -1 if the scheduler doesn't expose periods
+    public int getRepeating() {
+        return repeating;
+    }
+    
+    // Run time per tick, on the main thread for sync tasks
+    public double getMsPerTick() {
+        return msPerTick;
+    }
+    
+    public double getRunsPerTick() {
+        return runsPerTick;
+    }
+    
+    public double getAvgMsPerRun() {
+        return runsPerTick > 0 ? msPerTick / runsPerTick : 0;
+    }
+    
+    // Longest single run since the last inspection
+    public double getMaxMs() {
+        return maxMs;
+    }
+}
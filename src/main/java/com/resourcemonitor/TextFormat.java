@@ -0,0 +1,116 @@
+package com.resourcemonitor;
+
+// Number, size and duration formatting without DecimalFormat. The append
+// methods write straight into the caller's builder and allocate nothing;
+// the String versions go through a per-thread scratch builder, so every
+// method is safe to call from the async render and sampler threads.
+public final class TextFormat {
+    
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+    private static final char[] UNITS = {'K', 'M', 'G', 'T', 'P', 'E'};
+    
+    // Beyond this the scaled value no longer fits in a long
+    private static final double MAX_EXACT = 1e12;
+    
+    private static final ThreadLocal<StringBuilder> SCRATCH = ThreadLocal.withInitial(() -> new StringBuilder(32));
+    
+    private TextFormat() {
+    }
+    
+    // Up to two fraction digits with trailing zeros dropped, like "#.##"
+    public static StringBuilder appendDecimal(StringBuilder out, double value) {
+        return appendDecimal(out, value, 2);
+    }
+    
+    // Rounds half up to at most the given number of fraction digits (0-6)
+    public static StringBuilder appendDecimal(StringBuilder out, double value, int fractionDigits) {
+        if (Double.isNaN(value)) return out.append("NaN");
+        if (Double.isInfinite(value)) return out.append(value > 0 ? "∞" : "-∞");
+        if (Math.abs(value) >= MAX_EXACT) return out.append(Math.round(value));
+        
+        long scale = POWERS_OF_TEN[fractionDigits];
+        long scaled = Math.round(Math.abs(value) * scale);
+        if (scaled == 0) return out.append('0');
+        if (value < 0) out.append('-');
+        
+        out.append(scaled / scale);
+        long fraction = scaled % scale;
+        if (fraction == 0) return out;
+        
+        out.append('.');
+        int digits = fractionDigits;
+        while (fraction % 10 == 0) {
+            fraction /= 10;
+            digits--;
+        }
+        for (long divisor = POWERS_OF_TEN[digits - 1]; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + fraction / divisor % 10));
+        }
+        return out;
+    }
+    
+    public static StringBuilder appendPercent(StringBuilder out, double value) {
+        return appendDecimal(out, value).append('%');
+    }
+    
+    // Binary units, "512 B", "1.5 KB", "3.2 GB"
+    public static StringBuilder appendBytes(StringBuilder out, long bytes) {
+        if (bytes < 1024) return out.append(bytes).append(" B");
+        
+        int exp = (63 - Long.numberOfLeadingZeros(bytes)) / 10;
+        appendDecimal(out, (double) bytes / (1L << (10 * exp)));
+        return out.append(' ').append(UNITS[exp - 1]).append('B');
+    }
+    
+    // Signed size per hour, "+12.5 MB/h", "-512 B/h", "n/a" while unknown
+    public static StringBuilder appendGrowth(StringBuilder out, double bytesPerHour) {
+        if (Double.isNaN(bytesPerHour)) return out.append("n/a");
+        long rounded = Math.round(bytesPerHour);
+        out.append(rounded < 0 ? '-' : '+');
+        return appendBytes(out, Math.abs(rounded)).append("/h");
+    }
+    
+    // Two most significant units, "850ms", "42s", "3m 20s", "5h 12m", "2d 4h"
+    public static StringBuilder appendDuration(StringBuilder out, long millis) {
+        if (millis < 0) millis = 0;
+        if (millis < 1000) return out.append(millis).append("ms");
+        
+        long seconds = millis / 1000;
+        if (seconds < 60) return out.append(seconds).append('s');
+        long minutes = seconds / 60;
+        if (minutes < 60) return out.append(minutes).append("m ").append(seconds % 60).append('s');
+        long hours = minutes / 60;
+        if (hours < 24) return out.append(hours).append("h ").append(minutes % 60).append('m');
+        return out.append(hours / 24).append("d ").append(hours % 24).append('h');
+    }
+    
+    public static String decimal(double value) {
+        return appendDecimal(scratch(), value).toString();
+    }
+    
+    public static String decimal(double value, int fractionDigits) {
+        return appendDecimal(scratch(), value, fractionDigits).toString();
+    }
+    
+    public static String percent(double value) {
+        return appendPercent(scratch(), value).toString();
+    }
+    
+    public static String bytes(long bytes) {
+        return appendBytes(scratch(), bytes).toString();
+    }
+    
+    public static String growth(double bytesPerHour) {
+        return appendGrowth(scratch(), bytesPerHour).toString();
+    }
+    
+    public static String duration(long millis) {
+        return appendDuration(scratch(), millis).toString();
+    }
+    
+    private static StringBuilder scratch() {
+        StringBuilder scratch = SCRATCH.get();
+        scratch.setLength(0);
+        return scratch;
+    }
+}
@@ -0,0 +1,433 @@
+package com.resourcemonitor;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.event.server.PluginEnableEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Takes the CPU time of every live thread once a second and works out what
+// each thread and each group of threads used since the last pass. Threads are
+// grouped by what runs them: the main thread, Netty, the async scheduler,
+// world workers, a plugin's own threads, the JVM, or else by name pattern.
+// CPU the process used that no Java thread accounts for (GC, JIT and other
+// VM threads) is added to the JVM group.
+//
+// A pass runs on a scheduler thread and only allocates the thread id array
+// from the MXBean: times are kept in primitive tables keyed by thread id, and
+// names and groups are only worked out for threads seen for the first time.
+// The plugin manager isn't thread safe, so the plugins and their class
+// loaders are taken on the main thread whenever a plugin is enabled or
+// disabled. Groups are rebuilt every minute, so the names of thread pools
+// that have gone away don't pile up.
+public class ThreadSampler implements Listener {
+    
+    private static final long SAMPLE_PERIOD = 20L; // ticks
+    private static final int REGROUP_PASSES = 60; // threads get renamed, plugins come and go
+    private static final int MAX_GROUPS = 64;
+    private static final String OVERFLOW_GROUP = "Other threads";
+    private static final String JVM_GROUP = "JVM (GC, JIT, VM)";
+    
+    private static final String[] JVM_THREADS = {
+        "Reference Handler", "Finalizer", "Signal Dispatcher", "Attach Listener",
+        "Common-Cleaner", "Notification Thread", "process reaper", "DestroyJavaVM"
+    };
+    
+    private final Main plugin;
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+    private final boolean supported;
+    
+    // Swapped every pass, the previous table is cleared and refilled
+    private Table current = new Table(256);
+    private Table previous = new Table(256);
+    
+    // Per group CPU and thread count for the last pass, indexed like groupNames
+    private final List<String> groupNames = new ArrayList<>();
+    private final Map<String, Integer> groupIndex = new HashMap<>();
+    private long[] groupNanos = new long[16];
+    private int[] groupThreads = new int[16];
+    private final int jvmGroup;
+    
+    // Filled only when a pass meets threads it hasn't named yet
+    private Thread[] liveThreads = new Thread[256];
+    private int liveCount;
+    
+    // Written on the main thread, see refreshPlugins
+    private volatile Map<ClassLoader, Plugin> pluginLoaders = Collections.emptyMap();
+    private volatile Plugin[] plugins = new Plugin[0];
+    
+    private long lastSampleAt;
+    private long lastProcessCpu = -1;
+    private long passNanos;
+    private long unaccountedNanos;
+    private int passes;
+    
+    private BukkitTask task;
+    
+    // Thread id -> last CPU time, delta and group, by open addressing. 0 marks
+    // an empty slot, thread ids start at 1.
+    private static final class Table {
+        long[] ids;
+        long[] cpu;
+        long[] delta;
+        int[] group;
+        String[] names;
+        int mask;
+        
+        Table(int capacity) {
+            ids = new long[capacity];
+            cpu = new long[capacity];
+            delta = new long[capacity];
+            group = new int[capacity];
+            names = new String[capacity];
+            mask = capacity - 1;
+        }
+        
+        void clear() {
+            Arrays.fill(ids, 0L);
+            Arrays.fill(names, null);
+        }
+        
+        int find(long id) {
+            int slot = slot(id);
+            while (ids[slot] != 0) {
+                if (ids[slot] == id) return slot;
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+        
+        int insert(long id) {
+            int slot = slot(id);
+            while (ids[slot] != 0 && ids[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            ids[slot] = id;
+            return slot;
+        }
+        
+        private int slot(long id) {
+            long h = id * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+    
+    public ThreadSampler(Main plugin) {
+        this.plugin = plugin;
+        this.jvmGroup = group(JVM_GROUP);
+        
+        boolean cpuTime = threadBean.isThreadCpuTimeSupported();
+        if (cpuTime && !threadBean.isThreadCpuTimeEnabled()) {
+            try {
+                threadBean.setThreadCpuTimeEnabled(true);
+            } catch (UnsupportedOperationException | SecurityException e) {
+                cpuTime = false;
+            }
+        }
+        this.supported = cpuTime;
+    }
+    
+    public synchronized void start() {
+        if (task != null) return;
+        if (!supported) {
+            plugin.getLogger().warning("This JVM can't measure thread CPU time, the thread breakdown is off");
+            return;
+        }
+        refreshPlugins();
+        task = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::sample, SAMPLE_PERIOD, SAMPLE_PERIOD);
+    }
+    
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginEnable(PluginEnableEvent event) {
+        refreshPlugins();
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginDisable(PluginDisableEvent event) {
+        refreshPlugins();
+    }
+    
+    // Main thread
+    private void refreshPlugins() {
+        Plugin[] loaded = Bukkit.getPluginManager().getPlugins();
+        Map<ClassLoader, Plugin> loaders = new IdentityHashMap<>();
+        for (Plugin p : loaded) {
+            loaders.put(p.getClass().getClassLoader(), p);
+        }
+        plugins = loaded;
+        pluginLoaders = loaders;
+    }
+    
+    public boolean isSupported() {
+        return supported;
+    }
+    
+    public synchronized boolean isRunning() {
+        return task != null;
+    }
+    
+    synchronized void sample() {
+        long now = System.nanoTime();
+        long processCpu = processCpuTime();
+        long[] threadIds = threadBean.getAllThreadIds();
+        ensureCapacity(threadIds.length);
+        boolean regroup = ++passes % REGROUP_PASSES == 0;
+        if (regroup) {
+            // Every thread is grouped again below
+            groupNames.clear();
+            groupIndex.clear();
+            group(JVM_GROUP);
+        }
+        
+        Table next = previous;
+        next.clear();
+        Arrays.fill(groupNanos, 0L);
+        Arrays.fill(groupThreads, 0);
+        boolean enumerated = false;
+        long threadTotal = 0;
+        
+        for (long id : threadIds) {
+            long cpu = threadBean.getThreadCpuTime(id);
+            if (cpu < 0) continue; // ended since the ids were taken
+            
+            int old = current.find(id);
+            int slot = next.insert(id);
+            next.cpu[slot] = cpu;
+            if (old >= 0 && !regroup) {
+                next.names[slot] = current.names[old];
+                next.group[slot] = current.group[old];
+            } else {
+                if (!enumerated) {
+                    enumerateThreads();
+                    enumerated = true;
+                }
+                Thread thread = findThread(id);
+                String name = thread != null ? thread.getName() : "Thread " + id;
+                next.names[slot] = name;
+                next.group[slot] = groupOf(id, name, thread);
+            }
+            
+            // A thread's first pass is only its baseline
+            long delta = old >= 0 ? Math.max(0L, cpu - current.cpu[old]) : 0L;
+            next.delta[slot] = delta;
+            groupNanos[next.group[slot]] += delta;
+            groupThreads[next.group[slot]]++;
+            threadTotal += delta;
+        }
+        
+        previous = current;
+        current = next;
+        if (enumerated) {
+            Arrays.fill(liveThreads, 0, liveCount, null);
+        }
+        
+        if (lastSampleAt > 0) {
+            passNanos = now - lastSampleAt;
+            unaccountedNanos = processCpu >= 0 && lastProcessCpu >= 0
+                ? Math.max(0L, processCpu - lastProcessCpu - threadTotal) : 0L;
+        }
+        lastSampleAt = now;
+        lastProcessCpu = processCpu;
+    }
+    
+    // Groups sorted by CPU, busiest first; empty until two passes have run
+    public synchronized List<ThreadUsage> getGroups() {
+        List<ThreadUsage> groups = new ArrayList<>();
+        if (passNanos <= 0) return groups;
+        
+        for (int g = 0; g < groupNames.size(); g++) {
+            long nanos = groupNanos[g] + (g == jvmGroup ? unaccountedNanos : 0L);
+            if (groupThreads[g] == 0 && nanos == 0) continue;
+            String name = groupNames.get(g);
+            groups.add(new ThreadUsage(name, name, percentOf(nanos), groupThreads[g]));
+        }
+        groups.sort(Comparator.comparingDouble(ThreadUsage::getCpuPercent).reversed());
+        return groups;
+    }
+    
+    // The busiest single threads, busiest first
+    public synchronized List<ThreadUsage> getTopThreads(int limit) {
+        List<ThreadUsage> threads = new ArrayList<>();
+        if (passNanos <= 0) return threads;
+        
+        Table table = current;
+        for (int slot = 0; slot < table.ids.length; slot++) {
+            if (table.ids[slot] == 0) continue;
+            threads.add(new ThreadUsage(table.names[slot], groupNames.get(table.group[slot]),
+                percentOf(table.delta[slot]), 1));
+        }
+        threads.sort(Comparator.comparingDouble(ThreadUsage::getCpuPercent).reversed());
+        return threads.size() > limit ? new ArrayList<>(threads.subList(0, limit)) : threads;
+    }
+    
+    // All threads together plus the JVM's own work, in percent of one core
+    public synchronized double getTotalPercent() {
+        if (passNanos <= 0) return 0;
+        
+        long total = unaccountedNanos;
+        for (int g = 0; g < groupNames.size(); g++) {
+            total += groupNanos[g];
+        }
+        return percentOf(total);
+    }
+    
+    public synchronized int getThreadCount() {
+        int count = 0;
+        for (int g = 0; g < groupNames.size(); g++) {
+            count += groupThreads[g];
+        }
+        return count;
+    }
+    
+    private double percentOf(long nanos) {
+        return nanos * 100.0 / passNanos;
+    }
+    
+    private long processCpuTime() {
+        if (osBean instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) osBean).getProcessCpuTime();
+        }
+        return -1;
+    }
+    
+    // Keeps both tables at most half full
+    private void ensureCapacity(int threads) {
+        int capacity = current.ids.length;
+        if (threads * 2 <= capacity) return;
+        
+        while (threads * 2 > capacity) {
+            capacity <<= 1;
+        }
+        Table grown = new Table(capacity);
+        for (int slot = 0; slot < current.ids.length; slot++) {
+            if (current.ids[slot] == 0) continue;
+            int to = grown.insert(current.ids[slot]);
+            grown.cpu[to] = current.cpu[slot];
+            grown.delta[to] = current.delta[slot];
+            grown.group[to] = current.group[slot];
+            grown.names[to] = current.names[slot];
+        }
+        current = grown;
+        previous = new Table(capacity);
+    }
+    
+    private void enumerateThreads() {
+        ThreadGroup root = Thread.currentThread().getThreadGroup();
+        while (root.getParent() != null) {
+            root = root.getParent();
+        }
+        int count;
+        while ((count = root.enumerate(liveThreads, true)) == liveThreads.length) {
+            liveThreads = new Thread[liveThreads.length * 2];
+        }
+        liveCount = count;
+    }
+    
+    private Thread findThread(long id) {
+        for (int i = 0; i < liveCount; i++) {
+            if (liveThreads[i].getId() == id) return liveThreads[i];
+        }
+        return null;
+    }
+    
+    private int groupOf(long id, String name, Thread thread) {
+        Thread mainThread = plugin.getTickMonitor().getMainThread();
+        if (mainThread != null && mainThread.getId() == id) return group("Main thread");
+        if (name.startsWith("Netty")) return group("Netty I/O");
+        // Which plugin's task a worker runs is on the plugin details page
+        if (name.startsWith("Craft Scheduler Thread")) return group("Async scheduler");
+        if (name.startsWith("Server-Worker") || name.startsWith("Worker-Main") ||
+            name.startsWith("Chunk") || name.startsWith("File IO") || name.startsWith("IO-Worker")) {
+            return group("World and chunk workers");
+        }
+        if (name.startsWith("ResourceMonitor")) return group("ResourceMonitor");
+        
+        Plugin owner = ownerOf(name, thread);
+        if (owner != null) return group("Plugin: " + owner.getName());
+        
+        for (String jvmThread : JVM_THREADS) {
+            if (name.startsWith(jvmThread)) return jvmGroup;
+        }
+        if (name.startsWith("C1 ") || name.startsWith("C2 ") || name.startsWith("GC ") || name.startsWith("G1 ")) {
+            return jvmGroup;
+        }
+        return group("Other: " + namePattern(name));
+    }
+    
+    // A plugin's thread either runs a class or has a context class loader
+    // from the plugin's jar, or carries the plugin's name
+    private Plugin ownerOf(String name, Thread thread) {
+        if (thread != null) {
+            Map<ClassLoader, Plugin> loaders = pluginLoaders;
+            Plugin owner = loaders.get(thread.getClass().getClassLoader());
+            if (owner == null) {
+                owner = loaders.get(thread.getContextClassLoader());
+            }
+            if (owner != null) return owner;
+        }
+        String lower = name.toLowerCase(Locale.ROOT);
+        for (Plugin p : plugins) {
+            String pluginName = p.getName().toLowerCase(Locale.ROOT);
+            if (pluginName.length() >= 3 && lower.contains(pluginName)) return p;
+        }
+        return null;
+    }
+    
+    // "pool-3-thread-12" -> "pool-#-thread-#", so a pool shows up as one group
+    private static String namePattern(String name) {
+        StringBuilder pattern = new StringBuilder(name.length());
+        boolean inNumber = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isDigit(c)) {
+                if (!inNumber) {
+                    pattern.append('#');
+                }
+                inNumber = true;
+            } else {
+                pattern.append(c);
+                inNumber = false;
+            }
+        }
+        return pattern.toString();
+    }
+    
+    private int group(String name) {
+        Integer index = groupIndex.get(name);
+        if (index != null) return index;
+        if (groupNames.size() >= MAX_GROUPS - 1 && !name.equals(OVERFLOW_GROUP)) return group(OVERFLOW_GROUP);
+        
+        int added = groupNames.size();
+        groupNames.add(name);
+        groupIndex.put(name, added);
+        if (added == groupNanos.length) {
+            groupNanos = Arrays.copyOf(groupNanos, added * 2);
+            groupThreads = Arrays.copyOf(groupThreads, added * 2);
+        }
+        return added;
+    }
+}
@@ -0,0 +1,35 @@
+package com.resourcemonitor;
+
+// CPU used by one thread or one group of threads over the last sample
+public final class ThreadUsage {
+
+    private final String name;
+    private final String group;
+    private final double cpuPercent;
+    private final int threads;
+
+    public ThreadUsage(String name, String group, double cpuPercent, int threads) {
+        this.name = name;
+        this.group = group;
+        this.cpuPercent = cpuPercent;
+        this.threads = threads;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // The group a thread was put in, the group's own name for a group
+    public String getGroup() {
+        return group;
+    }
+
+    // Percent of one core, so a busy group can go past 100
+    public double getCpuPercent() {
+        return cpuPercent;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+}
@@ -0,0 +1,68 @@
+package com.resourcemonitor;
+
+import org.bukkit.ChatColor;
+import org.bukkit.configuration.ConfigurationSection;
+
+// Warning and critical levels for the colors used by the console report, the
+// GUI and the overlay, so every view agrees on what counts as high. Read from
+// the thresholds section of the config.
+public final class Thresholds {
+    
+    private final double cpuWarning;
+    private final double cpuCritical;
+    private final double memoryWarning;
+    private final double memoryCritical;
+    private final double tpsWarning;
+    private final double tpsCritical;
+    private final double msptWarning;
+    private final double msptCritical;
+    private final double throttledWarning;
+    private final double throttledCritical;
+    
+    public Thresholds(ConfigurationSection config) {
+        this.cpuWarning = get(config, "cpu.warning", 50);
+        this.cpuCritical = get(config, "cpu.critical", 80);
+        this.memoryWarning = get(config, "memory.warning", 60);
+        this.memoryCritical = get(config, "memory.critical", 85);
+        this.tpsWarning = get(config, "tps.warning", 18);
+        this.tpsCritical = get(config, "tps.critical", 15);
+        this.msptWarning = get(config, "mspt.warning", 40);
+        this.msptCritical = get(config, "mspt.critical", 50);
+        this.throttledWarning = get(config, "throttled.warning", 1);
+        this.throttledCritical = get(config, "throttled.critical", 10);
+    }
+    
+    private static double get(ConfigurationSection config, String path, double def) {
+        return config != null ? config.getDouble(path, def) : def;
+    }
+    
+    public String cpuColor(double cpuUsage) {
+        return above(cpuUsage, cpuWarning, cpuCritical);
+    }
+    
+    public String memoryColor(double memoryUsage) {
+        return above(memoryUsage, memoryWarning, memoryCritical);
+    }
+    
+    public String tpsColor(double tps) {
+        if (tps >= tpsWarning) return ChatColor.GREEN.toString();
+        else if (tps >= tpsCritical) return ChatColor.YELLOW.toString();
+        else return ChatColor.RED.toString();
+    }
+    
+    // Tick work time, so a healthy server sits well below the 50ms budget
+    public String msptColor(double mspt) {
+        return above(mspt, msptWarning, msptCritical);
+    }
+    
+    // Percent of CPU quota periods in which the container was throttled
+    public String throttledColor(double throttledPercent) {
+        return above(throttledPercent, throttledWarning, throttledCritical);
+    }
+    
+    private static String above(double value, double warning, double critical) {
+        if (value < warning) return ChatColor.GREEN.toString();
+        else if (value < critical) return ChatColor.YELLOW.toString();
+        else return ChatColor.RED.toString();
+    }
+}
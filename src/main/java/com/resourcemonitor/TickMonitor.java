@@ -0,0 +1,314 @@
+package com.resourcemonitor;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.logging.Logger;
+
+// Measures the real tick rate from a 1-tick repeating task on the main thread.
+// The gap between two runs gives TPS, but it includes the sleep between
+// ticks, so MSPT is the work time of each tick instead: the duration the
+// server itself records for its last 100 ticks, or the main thread's CPU time
+// where that ring can't be found. Both are stored in ring buffers and the
+// rolling sums and the percentile histogram are updated incrementally, so
+// recording costs O(1). All of that is main thread only; once a second the
+// figures are published as an immutable Stats, which is all other threads
+// read, so the tick never waits on a reader.
+public class TickMonitor implements Runnable {
+    
+    // Rolling windows (index into the getters)
+    public static final int WINDOW_5S = 0;
+    public static final int WINDOW_1M = 1;
+    public static final int WINDOW_5M = 2;
+    public static final int WINDOW_15M = 3;
+    
+    private static final int[] WINDOW_TICKS = {100, 1200, 6000, 18000};
+    private static final int CAPACITY = 18000; // 15 minutes at 20 TPS
+    
+    // Percentile histogram over the 1 minute window: 0.1ms buckets up to 1s,
+    // anything slower lands in the last bucket
+    private static final long BUCKET_NANOS = 100_000L;
+    private static final int BUCKETS = 10_000;
+    private static final int HISTOGRAM_WINDOW = WINDOW_1M;
+    private static final int PUBLISH_TICKS = 20;
+    
+    // Names of MinecraftServer's tick time ring: Mojang's and Spigot's mappings
+    private static final String[] TICK_TIMES_FIELDS = {"tickTimes", "h"};
+    
+    private static final double NANOS_PER_MS = 1_000_000.0;
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    
+    private final long[] intervals = new long[CAPACITY];
+    private final long[] windowSums = new long[WINDOW_TICKS.length];
+    private final long[] busy = new long[CAPACITY];
+    private final long[] busySums = new long[WINDOW_TICKS.length];
+    private final int[] histogram = new int[BUCKETS];
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    
+    // MinecraftServer's own tick durations and a copy from the previous run,
+    // main thread only; null when the server doesn't have them
+    private long[] serverTickTimes;
+    private long[] seenTickTimes;
+    private int tickTimeSlot;
+    private long lastCpuNanos = -1;
+    private boolean cpuTimeFallback;
+    
+    private int head = 0; // next write position
+    private int recorded = 0; // number of valid samples, capped at CAPACITY
+    private int sincePublished = 0;
+    private volatile Stats stats = Stats.EMPTY;
+    private volatile long lastTickNanos = 0;
+    private volatile long lastIntervalNanos = 0;
+    private volatile long tickCount = 0;
+    private volatile Thread mainThread;
+    
+    private BukkitTask task;
+    
+    // The figures as of the last publish; immutable
+    private static final class Stats {
+        static final Stats EMPTY = new Stats(new double[] {20.0, 20.0, 20.0, 20.0}, new double[WINDOW_TICKS.length],
+                0, new int[0], new int[0], 0);
+        
+        final double[] tps;
+        final double[] mspt;
+        final int samples; // in the histogram window
+        final int[] buckets; // non-empty histogram buckets, ascending
+        final int[] counts;
+        final double maxMspt;
+        
+        Stats(double[] tps, double[] mspt, int samples, int[] buckets, int[] counts, double maxMspt) {
+            this.tps = tps;
+            this.mspt = mspt;
+            this.samples = samples;
+            this.buckets = buckets;
+            this.counts = counts;
+            this.maxMspt = maxMspt;
+        }
+    }
+    
+    public void start(Plugin plugin) {
+        stop();
+        lastTickNanos = 0;
+        lastCpuNanos = -1;
+        mainThread = Thread.currentThread();
+        serverTickTimes = findServerTickTimes();
+        seenTickTimes = serverTickTimes != null ? serverTickTimes.clone() : null;
+        tickTimeSlot = 0;
+        cpuTimeFallback = serverTickTimes == null && threadBean.isCurrentThreadCpuTimeSupported();
+        if (serverTickTimes == null) {
+            Logger logger = plugin.getLogger();
+            if (cpuTimeFallback) {
+                logger.warning("Server tick times not found, MSPT is the main thread's CPU time per tick");
+            } else {
+                logger.warning("Server tick times not found and thread CPU time is not supported, MSPT is disabled");
+            }
+        }
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this, 1L, 1L);
+    }
+    
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+    
+    @Override
+    public void run() {
+        long now = System.nanoTime();
+        long work = lastTickWork();
+        if (lastTickNanos != 0) {
+            long interval = now - lastTickNanos;
+            // Without a work time the tick counts as idle rather than as its interval
+            record(interval, work >= 0 ? Math.min(work, interval) : 0);
+            lastIntervalNanos = interval;
+            if (++sincePublished >= PUBLISH_TICKS) {
+                publish();
+            }
+        }
+        lastTickNanos = now;
+        tickCount++;
+    }
+    
+    // Work time of the tick that just ended, -1 when it can't be told
+    private long lastTickWork() {
+        if (serverTickTimes != null) {
+            // This task runs at the start of a tick, after the server stored
+            // the previous tick's duration in the next slot of its ring
+            int length = serverTickTimes.length;
+            for (int i = 0; i < length; i++) {
+                int slot = (tickTimeSlot + i) % length;
+                long value = serverTickTimes[slot];
+                if (value != seenTickTimes[slot]) {
+                    seenTickTimes[slot] = value;
+                    tickTimeSlot = (slot + 1) % length;
+                    return value;
+                }
+            }
+            return -1;
+        }
+        
+        if (!cpuTimeFallback) return -1;
+        long cpu = threadBean.getCurrentThreadCpuTime();
+        long work = lastCpuNanos >= 0 && cpu >= 0 ? cpu - lastCpuNanos : -1;
+        lastCpuNanos = cpu;
+        return work;
+    }
+    
+    // MinecraftServer keeps the duration of its last 100 ticks in a long[100]
+    // named tickTimes, h in Spigot's mappings; other long[100] fields on it
+    // hold something else, so only those names are accepted
+    private static long[] findServerTickTimes() {
+        try {
+            Object server = Bukkit.getServer().getClass().getMethod("getServer").invoke(Bukkit.getServer());
+            for (Class<?> c = server.getClass(); c != null && c != Object.class; c = c.getSuperclass()) {
+                for (String name : TICK_TIMES_FIELDS) {
+                    Field field;
+                    try {
+                        field = c.getDeclaredField(name);
+                    } catch (NoSuchFieldException e) {
+                        continue;
+                    }
+                    if (field.getType() != long[].class || Modifier.isStatic(field.getModifiers())) continue;
+                    field.setAccessible(true);
+                    long[] times = (long[]) field.get(server);
+                    if (times != null && times.length == 100) return times;
+                }
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Fall back to CPU time
+        }
+        return null;
+    }
+    
+    private void record(long interval, long work) {
+        // Subtract the samples that fall out of each window before overwriting
+        for (int w = 0; w < WINDOW_TICKS.length; w++) {
+            int size = WINDOW_TICKS[w];
+            if (recorded >= size) {
+                windowSums[w] -= intervals[index(head - size)];
+                busySums[w] -= busy[index(head - size)];
+            }
+            windowSums[w] += interval;
+            busySums[w] += work;
+        }
+        
+        int histogramSize = WINDOW_TICKS[HISTOGRAM_WINDOW];
+        if (recorded >= histogramSize) {
+            histogram[bucket(busy[index(head - histogramSize)])]--;
+        }
+        histogram[bucket(work)]++;
+        
+        intervals[head] = interval;
+        busy[head] = work;
+        head = index(head + 1);
+        if (recorded < CAPACITY) {
+            recorded++;
+        }
+    }
+    
+    // Main thread; one pass over the histogram and the last minute, once a second
+    private void publish() {
+        sincePublished = 0;
+        double[] tps = new double[WINDOW_TICKS.length];
+        double[] mspt = new double[WINDOW_TICKS.length];
+        for (int w = 0; w < WINDOW_TICKS.length; w++) {
+            int samples = Math.min(recorded, WINDOW_TICKS[w]);
+            tps[w] = samples == 0 || windowSums[w] <= 0 ? 20.0 : Math.min(20.0, samples * NANOS_PER_SECOND / windowSums[w]);
+            mspt[w] = samples == 0 ? 0 : busySums[w] / NANOS_PER_MS / samples;
+        }
+        
+        int samples = Math.min(recorded, WINDOW_TICKS[HISTOGRAM_WINDOW]);
+        int used = 0;
+        for (int count : histogram) {
+            if (count > 0) used++;
+        }
+        int[] buckets = new int[used];
+        int[] counts = new int[used];
+        used = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (histogram[i] > 0) {
+                buckets[used] = i;
+                counts[used++] = histogram[i];
+            }
+        }
+        
+        long max = 0;
+        for (int i = 1; i <= samples; i++) {
+            long value = busy[index(head - i)];
+            if (value > max) max = value;
+        }
+        stats = new Stats(tps, mspt, samples, buckets, counts, max / NANOS_PER_MS);
+    }
+    
+    private static int index(int i) {
+        return i < 0 ? i + CAPACITY : (i >= CAPACITY ? i - CAPACITY : i);
+    }
+    
+    private static int bucket(long interval) {
+        long b = interval / BUCKET_NANOS;
+        return b >= BUCKETS ? BUCKETS - 1 : (int) b;
+    }
+    
+    // The server thread, captured when the monitor is started from onEnable
+    public Thread getMainThread() {
+        return mainThread;
+    }
+    
+    // System.nanoTime() of the last sampler run, 0 before the first tick
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+    
+    // Time between the start of the last two ticks, sleep included
+    public long getLastIntervalNanos() {
+        return lastIntervalNanos;
+    }
+    
+    // Number of ticks seen since the monitor started
+    public long getTickCount() {
+        return tickCount;
+    }
+    
+    // Average ticks per second over the window, capped at 20
+    public double getTps(int window) {
+        return stats.tps[window];
+    }
+    
+    // Average work milliseconds per tick over the window, without the sleep
+    // between ticks
+    public double getMspt(int window) {
+        return stats.mspt[window];
+    }
+    
+    // MSPT percentile over the last minute, percentile in [0, 1]
+    public double getMsptPercentile(double percentile) {
+        Stats current = stats;
+        if (current.samples == 0) return 0;
+        
+        long rank = (long) Math.ceil(percentile * current.samples);
+        if (rank < 1) rank = 1;
+        
+        long seen = 0;
+        for (int i = 0; i < current.buckets.length; i++) {
+            int bucket = current.buckets[i];
+            if (bucket == BUCKETS - 1) break;
+            seen += current.counts[i];
+            if (seen >= rank) {
+                return (bucket + 1) * BUCKET_NANOS / NANOS_PER_MS; // upper edge of the bucket
+            }
+        }
+        // Overflow bucket - report the real worst tick instead
+        return current.maxMspt;
+    }
+    
+    // Slowest tick over the last minute
+    public double getMaxMspt() {
+        return stats.maxMspt;
+    }
+}
@@ -0,0 +1,76 @@
+package com.resourcemonitor;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class AlertMetricTest {
+    
+    private static final long MB = 1024 * 1024;
+    
+    private GcMonitor gcMonitor;
+    private String oldGen;
+    private String youngGen;
+    
+    @BeforeEach
+    void setUp() {
+        gcMonitor = new GcMonitor(Logger.getLogger("test"));
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP) continue;
+            if (GcMonitor.isOldGen(pool.getName())) {
+                oldGen = pool.getName();
+            } else if (youngGen == null) {
+                youngGen = pool.getName();
+            }
+        }
+        assumeTrue(oldGen != null && youngGen != null, "generational collector");
+    }
+    
+    @Test
+    void youngCollectionDoesNotMoveOldGenAfterGc() {
+        collect("end of major GC", 400, 300, 300, 0);
+        assertEquals(30.0, oldGenPercent(), 0.001);
+        
+        // Promotion and garbage pile up in the old generation between full collections
+        collect("end of minor GC", 300, 700, 200, 0);
+        collect("end of minor GC", 700, 950, 200, 0);
+        assertEquals(30.0, oldGenPercent(), 0.001);
+        
+        collect("end of major GC", 950, 350, 200, 0);
+        assertEquals(35.0, oldGenPercent(), 0.001);
+    }
+    
+    @Test
+    void mixedCollectionCountsWhenItShrinksOldGen() {
+        collect("end of major GC", 400, 400, 300, 0);
+        
+        // G1 mixed collections report as minor
+        collect("end of minor GC", 800, 600, 300, 0);
+        assertEquals(60.0, oldGenPercent(), 0.001);
+    }
+    
+    private double oldGenPercent() {
+        return AlertMetric.OLD_GEN_AFTER_GC_PERCENT.read(null, gcMonitor);
+    }
+    
+    // Old and young usage in MB before and after, with a 1000MB old generation
+    private void collect(String action, long oldBefore, long oldAfter, long youngBefore, long youngAfter) {
+        Map<String, MemoryUsage> before = new HashMap<>();
+        Map<String, MemoryUsage> after = new HashMap<>();
+        before.put(oldGen, new MemoryUsage(0, oldBefore * MB, 1000 * MB, 1000 * MB));
+        after.put(oldGen, new MemoryUsage(0, oldAfter * MB, 1000 * MB, 1000 * MB));
+        before.put(youngGen, new MemoryUsage(0, youngBefore * MB, 300 * MB, -1));
+        after.put(youngGen, new MemoryUsage(0, youngAfter * MB, 300 * MB, -1));
+        gcMonitor.record("Test Collector", action, 5, before, after);
+    }
+}
@@ -0,0 +1,58 @@
+package com.resourcemonitor;
+
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.event.entity.EntitySpawnEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EntityCounterTest {
+    
+    private final List<Entity> entities = new ArrayList<>();
+    private final World world = Stubs.of(World.class, (method, args) -> {
+        switch (method.getName()) {
+            case "getName": return "world";
+            case "getEntities": return new ArrayList<>(entities);
+            default: return Stubs.DEFAULT;
+        }
+    });
+    
+    @Test
+    void reconcileCorrectsEntitiesRemovedWithoutAnEvent() {
+        EntityCounter counter = new EntityCounter();
+        entities.add(entity(EntityType.ZOMBIE));
+        entities.add(entity(EntityType.ARROW));
+        counter.reconcile(world);
+        
+        Entity arrow = entity(EntityType.ARROW);
+        entities.add(arrow);
+        counter.onEntitySpawn(new EntitySpawnEvent(arrow));
+        assertEquals(3, counter.getEntities());
+        assertEquals(2, counter.getWorld("world").getCount(EntityType.ARROW));
+        
+        // Projectiles and plugin Entity.remove() calls leave without an event
+        entities.remove(arrow);
+        assertEquals(3, counter.getEntities());
+        
+        counter.reconcile(world);
+        assertEquals(2, counter.getEntities());
+        assertEquals(2, counter.getWorld("world").getEntities());
+        assertEquals(1, counter.getWorld("world").getCount(EntityType.ARROW));
+        assertEquals(1, counter.getWorld("world").getCount(EntityType.ZOMBIE));
+    }
+    
+    private Entity entity(EntityType type) {
+        return Stubs.of(Entity.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getType": return type;
+                case "getWorld": return world;
+                default: return Stubs.DEFAULT;
+            }
+        });
+    }
+}
@@ -0,0 +1,28 @@
+package com.resourcemonitor;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MetricsExporterTest {
+    
+    @Test
+    void writesSpecialValuesAsOpenMetricsDoes() {
+        assertEquals("+Inf", value(Double.POSITIVE_INFINITY));
+        assertEquals("-Inf", value(Double.NEGATIVE_INFINITY));
+        assertEquals("NaN", value(Double.NaN));
+    }
+    
+    @Test
+    void writesWholeNumbersWithoutAFraction() {
+        assertEquals("42", value(42.0));
+        assertEquals("-3", value(-3.0));
+        assertEquals("0.25", value(0.25));
+    }
+    
+    private static String value(double value) {
+        StringBuilder text = new StringBuilder();
+        MetricsExporter.appendValue(text, value);
+        return text.toString();
+    }
+}
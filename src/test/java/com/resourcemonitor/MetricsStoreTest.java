@@ -0,0 +1,45 @@
+package com.resourcemonitor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MetricsStoreTest {
+    
+    // A minute boundary
+    private static final long START = 1_700_000_040_000L;
+    
+    @TempDir
+    Path dataFolder;
+    
+    @Test
+    void bucketSplitByRestartIsWeightedBySamples() {
+        File folder = dataFolder.toFile();
+        MetricsStore before = new MetricsStore(null, folder);
+        before.open();
+        before.append(START, 10, 80, 0.5f, 1000, 1, 100, 1000);
+        before.stop();
+        
+        // Restarted one second into the minute, the rest of it is written as a second record
+        MetricsStore after = new MetricsStore(null, folder);
+        after.open();
+        for (int second = 1; second < 60; second++) {
+            after.append(START + second * 1000L, 20, 20, 0.5f, 1000, 60, 100, 1000);
+        }
+        after.stop();
+        
+        // Long enough a range to be answered from the per-minute tier
+        List<HistoryPoint> points = after.query(START - 20_000_000L, START + 59_000L);
+        assertEquals(1, points.size());
+        HistoryPoint minute = points.get(0);
+        assertEquals(START, minute.getTimestamp());
+        assertEquals((10 + 59 * 20) / 60.0, minute.getTps(), 0.001);
+        assertEquals((80 + 59 * 20) / 60.0, minute.getMspt(), 0.001);
+        assertEquals(59, minute.getPlayers());
+    }
+}
@@ -0,0 +1,77 @@
+package com.resourcemonitor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionRegistryTest {
+    
+    // A network that has seen a quarter of a million players, 4MB of records
+    private static final int PLAYERS = 250_000;
+    
+    @TempDir
+    Path dataFolder;
+    
+    @Test
+    void readsTheFileOnceForAllLookups() throws IOException {
+        File file = dataFolder.resolve("welcome-seen.dat").toFile();
+        UUID[] seen = writePlayers(file, PLAYERS);
+        SessionRegistry sessions = new SessionRegistry(null, file);
+        
+        assertTrue(sessions.containsWelcomeSeen(seen[0]));
+        
+        // Later lookups are answered from memory, not by reading the file again
+        assertTrue(file.delete());
+        for (int i = 0; i < PLAYERS; i += 997) {
+            assertTrue(sessions.containsWelcomeSeen(seen[i]));
+        }
+        assertTrue(sessions.containsWelcomeSeen(seen[PLAYERS - 1]));
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(sessions.containsWelcomeSeen(UUID.randomUUID()));
+        }
+    }
+    
+    @Test
+    void appendsNewPlayersOnce() throws IOException {
+        File file = dataFolder.resolve("welcome-seen.dat").toFile();
+        UUID[] seen = writePlayers(file, 1000);
+        SessionRegistry sessions = new SessionRegistry(null, file);
+        
+        UUID newcomer = UUID.randomUUID();
+        assertFalse(sessions.containsWelcomeSeen(newcomer));
+        sessions.appendWelcomeSeen(newcomer);
+        sessions.appendWelcomeSeen(newcomer);
+        sessions.appendWelcomeSeen(seen[10]);
+        assertTrue(sessions.containsWelcomeSeen(newcomer));
+        assertEquals(1001 * 16L, Files.size(file.toPath()));
+        
+        // A restart finds the newcomer in the file
+        assertTrue(new SessionRegistry(null, file).containsWelcomeSeen(newcomer));
+    }
+    
+    private static UUID[] writePlayers(File file, int players) throws IOException {
+        Random random = new Random(42);
+        UUID[] ids = new UUID[players];
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            for (int i = 0; i < players; i++) {
+                ids[i] = new UUID(random.nextLong(), random.nextLong());
+                out.writeLong(ids[i].getMostSignificantBits());
+                out.writeLong(ids[i].getLeastSignificantBits());
+            }
+        }
+        return ids;
+    }
+}